@@ -0,0 +1,110 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.benchmark;
+
+import me.lucko.luckperms.extension.rest.RestServer;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.util.CustomObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the CPU cost of gzip compressing large responses at different compression
+ * levels.
+ *
+ * <p>The size saved at each level is printed during setup, so the bandwidth saving can be
+ * weighed against the time taken.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @Param({"1000", "40000"})
+    public int nodes;
+
+    @Param({"1", "6", "9"})
+    public int level;
+
+    private byte[] nodesJson;
+    private byte[] openApiSchema;
+
+    @Setup
+    public void setup() throws IOException {
+        FakeLuckPerms luckPerms = FakeLuckPerms.install();
+        this.nodesJson = new CustomObjectMapper().writeValueAsBytes(luckPerms.createUser(this.nodes).getNodes());
+        try (InputStream in = Objects.requireNonNull(RestServer.class.getClassLoader().getResourceAsStream("luckperms-openapi.yml"))) {
+            this.openApiSchema = in.readAllBytes();
+        }
+
+        printRatio("nodes", this.nodesJson);
+        printRatio("openapi", this.openApiSchema);
+    }
+
+    private void printRatio(String name, byte[] data) throws IOException {
+        int compressed = gzip(data, this.level).length;
+        System.out.printf(Locale.ROOT, "%n%s: %d bytes -> %d bytes at level %d (%.1f%%)%n",
+                name, data.length, compressed, this.level, 100.0 * compressed / data.length);
+    }
+
+    @Benchmark
+    public byte[] nodes() throws IOException {
+        return gzip(this.nodesJson, this.level);
+    }
+
+    @Benchmark
+    public byte[] openApi() throws IOException {
+        return gzip(this.openApiSchema, this.level);
+    }
+
+    private static byte[] gzip(byte[] data, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {{ this.def.setLevel(level); }}) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+}
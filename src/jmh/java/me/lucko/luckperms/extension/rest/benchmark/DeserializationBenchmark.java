@@ -0,0 +1,107 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.model.PermissionCheckRequest;
+import me.lucko.luckperms.extension.rest.util.CustomObjectMapper;
+import net.luckperms.api.node.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of parsing request bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeserializationBenchmark {
+    private static final TypeReference<List<Node>> NODE_LIST = new TypeReference<>() {};
+
+    private static final byte[] PERMISSION_CHECK_REQUEST = """
+            {
+              "permission": "fixture.permission.1.node25",
+              "queryOptions": {
+                "mode": "contextual",
+                "flags": ["resolve_inheritance", "include_nodes_without_server_context"],
+                "contexts": [
+                  {"key": "server", "value": "survival"},
+                  {"key": "world", "value": "nether"}
+                ]
+              }
+            }
+            """.getBytes(StandardCharsets.UTF_8);
+
+    @Param({"10", "1000", "50000"})
+    public int nodes;
+
+    private ObjectMapper objectMapper;
+    private byte[] nodeList;
+
+    @Setup
+    public void setup() throws IOException {
+        FakeLuckPerms.install();
+        this.objectMapper = new CustomObjectMapper();
+        // request bodies don't carry the "type" field that responses include
+        ArrayNode nodeList = this.objectMapper.valueToTree(FakeLuckPerms.fixtureNodes(this.nodes));
+        for (JsonNode node : nodeList) {
+            ((ObjectNode) node).remove("type");
+        }
+        this.nodeList = this.objectMapper.writeValueAsBytes(nodeList);
+    }
+
+    @Benchmark
+    public List<Node> nodeList() throws IOException {
+        return this.objectMapper.readValue(this.nodeList, NODE_LIST);
+    }
+
+    @Benchmark
+    public PermissionCheckRequest permissionCheckRequest() throws IOException {
+        return this.objectMapper.readValue(PERMISSION_CHECK_REQUEST, PermissionCheckRequest.class);
+    }
+}
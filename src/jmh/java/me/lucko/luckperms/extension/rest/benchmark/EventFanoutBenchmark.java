@@ -0,0 +1,139 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.lucko.luckperms.extension.rest.fake.FakeAction;
+import me.lucko.luckperms.extension.rest.fake.FakeEvents;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.util.BufferedSseClient;
+import me.lucko.luckperms.extension.rest.util.CustomObjectMapper;
+import net.luckperms.api.actionlog.Action;
+import net.luckperms.api.event.LuckPermsEvent;
+import net.luckperms.api.event.log.LogBroadcastEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how the cost of broadcasting an event scales with the number of connected
+ * event stream clients, comparing one serialization per client with one shared buffer.
+ *
+ * <p>Only the work done on the thread posting the event is measured. The clients'
+ * queues are drained by a writer pool like the one used by the event controller, into
+ * connections which discard what they are sent, so the queues never fill up and the
+ * overflow policy never comes into play. If any event is dropped, the run fails.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventFanoutBenchmark {
+
+    @Param({"1", "10", "100", "300"})
+    public int clients;
+
+    private ObjectMapper objectMapper;
+    private LuckPermsEvent event;
+    private ExecutorService writer;
+    private LongAdder dropped;
+    private List<BufferedSseClient> sseClients;
+
+    @Setup
+    public void setup() {
+        FakeLuckPerms luckPerms = FakeLuckPerms.install();
+        this.objectMapper = new CustomObjectMapper();
+
+        Action action = FakeAction.create(
+                UUID.fromString("c1d60c50-70b5-4722-8057-87767557e50d"), "Luck",
+                UUID.randomUUID(), "Notch",
+                Action.Target.Type.USER,
+                "permission set fixture.permission.1.node25 true server=survival"
+        );
+        this.event = FakeEvents.logBroadcast(luckPerms, action, LogBroadcastEvent.Origin.LOCAL);
+
+        this.writer = Executors.newFixedThreadPool(16);
+        this.dropped = new LongAdder();
+        this.sseClients = new ArrayList<>(this.clients);
+        for (int i = 0; i < this.clients; i++) {
+            this.sseClients.add(new BufferedSseClient(new DiscardingSink(), this.writer, 256, BufferedSseClient.OverflowPolicy.DROP_OLDEST, this.dropped));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        this.writer.shutdown();
+        this.writer.awaitTermination(10, TimeUnit.SECONDS);
+        if (this.dropped.sum() != 0) {
+            throw new IllegalStateException(this.dropped.sum() + " events were dropped, so the results include the overflow policy");
+        }
+    }
+
+    @Benchmark
+    public void serializePerClient() throws JsonProcessingException {
+        for (BufferedSseClient client : this.sseClients) {
+            client.send("message", this.objectMapper.writeValueAsBytes(this.event));
+        }
+    }
+
+    @Benchmark
+    public void serializeOnce() throws JsonProcessingException {
+        byte[] data = this.objectMapper.writeValueAsBytes(this.event);
+        for (BufferedSseClient client : this.sseClients) {
+            client.send("message", data);
+        }
+    }
+
+    private static final class DiscardingSink implements BufferedSseClient.Sink {
+        @Override
+        public void send(String event, byte[] data) {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
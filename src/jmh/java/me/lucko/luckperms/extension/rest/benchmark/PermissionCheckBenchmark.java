@@ -0,0 +1,106 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.benchmark;
+
+import me.lucko.luckperms.extension.rest.cache.PermissionCheckCache;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.model.PermissionCheckResult;
+import net.luckperms.api.model.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares permission checks with and without the {@link PermissionCheckCache}.
+ *
+ * <p>Bulk checks are compared against the equivalent single checks through the HTTP
+ * routes instead, by the load test's {@code POST /user/permission-check/bulk} and
+ * {@code GET /user/{id}/permission-check (bulk equivalent)} routes.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PermissionCheckBenchmark {
+    private static final int PERMISSIONS = 10;
+
+    @Param({"100", "1000", "10000"})
+    public int nodes;
+
+    private PermissionCheckCache cache;
+    private User user;
+    private List<String> permissions;
+
+    @Setup
+    public void setup() {
+        FakeLuckPerms luckPerms = FakeLuckPerms.install();
+        this.cache = new PermissionCheckCache(luckPerms.getEventBus());
+        this.user = luckPerms.createUser(this.nodes);
+
+        // a mix of granted, negated and missing permissions
+        this.permissions = new ArrayList<>(PERMISSIONS);
+        for (int i = 0; i < PERMISSIONS; i++) {
+            int node = (this.nodes / PERMISSIONS) * i + 4 + (i % 3 == 0 ? 5 : 0);
+            this.permissions.add("fixture.permission." + (node / 20) + ".node" + node);
+        }
+        this.permissions.set(PERMISSIONS - 1, "fixture.permission.missing");
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.cache.close();
+    }
+
+    @Benchmark
+    public void checkDirect(Blackhole blackhole) {
+        for (String permission : this.permissions) {
+            blackhole.consume(PermissionCheckResult.from(this.user.getCachedData().getPermissionData().queryPermission(permission)));
+        }
+    }
+
+    @Benchmark
+    public void checkCached(Blackhole blackhole) {
+        for (String permission : this.permissions) {
+            blackhole.consume(this.cache.check(this.user, permission, null));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.Context;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.model.ActionRequest;
+import me.lucko.luckperms.extension.rest.model.SearchRequest;
+import me.lucko.luckperms.extension.rest.util.CustomObjectMapper;
+import net.luckperms.api.actionlog.filter.ActionFilter;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.matcher.NodeMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of parsing query parameters into search matchers and action filters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestParsingBenchmark {
+    private static final ObjectMapper OBJECT_MAPPER = new CustomObjectMapper();
+    private static final HttpServletResponse RESPONSE = new Response(null, null);
+
+    @State(Scope.Benchmark)
+    public static class SearchQuery {
+        @Param({"key=fixture.permission.1.node25", "keyStartsWith=fixture.permission.", "metaKey=key1", "type=inheritance"})
+        public String query;
+
+        private HttpServletRequest request;
+
+        @Setup
+        public void setup() {
+            FakeLuckPerms.install();
+            this.request = request(this.query);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ActionQuery {
+        @Param({"user=c1d60c50-70b5-4722-8057-87767557e50d", "search=luck", ""})
+        public String query;
+
+        private HttpServletRequest request;
+
+        @Setup
+        public void setup() {
+            FakeLuckPerms.install();
+            this.request = request(this.query);
+        }
+    }
+
+    @Benchmark
+    public NodeMatcher<? extends Node> search(SearchQuery query) {
+        return SearchRequest.parse(new Context(query.request, RESPONSE, Map.of()));
+    }
+
+    @Benchmark
+    public ActionFilter actionFilter(ActionQuery query) throws JsonProcessingException {
+        return ActionRequest.parseFilter(OBJECT_MAPPER, new Context(query.request, RESPONSE, Map.of()));
+    }
+
+    private static HttpServletRequest request(String query) {
+        Request request = new Request(null, null);
+        request.setMetaData(new MetaData.Request("GET", new HttpURI("/?" + query), HttpVersion.HTTP_1_1, new HttpFields()));
+        return request;
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.util.CustomObjectMapper;
+import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.context.Context;
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.query.QueryOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Measures the cost of serializing users, groups and node lists to JSON.
+ *
+ * <p>The {@code *Baseline} benchmarks use the serializers as they were before they
+ * wrote straight to the generator: each one built a model record and handed it to
+ * {@link JsonGenerator#writePOJO(Object)}, so Jackson introspected the record on every
+ * call. They are kept here so the two can be compared in the same run.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    public int nodes;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper baselineMapper;
+    private User user;
+    private Group group;
+
+    @Setup
+    public void setup() {
+        FakeLuckPerms luckPerms = FakeLuckPerms.install();
+        this.objectMapper = new CustomObjectMapper();
+        this.baselineMapper = new CustomObjectMapper().registerModule(baselineModule());
+        this.user = luckPerms.createUser(this.nodes);
+        this.group = luckPerms.createGroup("serialization" + this.nodes, this.nodes);
+    }
+
+    @Benchmark
+    public byte[] user() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.user);
+    }
+
+    @Benchmark
+    public byte[] group() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.group);
+    }
+
+    @Benchmark
+    public byte[] nodes() throws JsonProcessingException {
+        return this.objectMapper.writeValueAsBytes(this.user.getNodes());
+    }
+
+    @Benchmark
+    public byte[] userBaseline() throws JsonProcessingException {
+        return this.baselineMapper.writeValueAsBytes(this.user);
+    }
+
+    @Benchmark
+    public byte[] groupBaseline() throws JsonProcessingException {
+        return this.baselineMapper.writeValueAsBytes(this.group);
+    }
+
+    @Benchmark
+    public byte[] nodesBaseline() throws JsonProcessingException {
+        return this.baselineMapper.writeValueAsBytes(this.user.getNodes());
+    }
+
+    // the serializers registered later take precedence over CustomObjectMapper's own
+    private static SimpleModule baselineModule() {
+        SimpleModule module = new SimpleModule("baseline-serializers");
+        module.addSerializer(User.class, new BaselineSerializer<>(UserModel::from));
+        module.addSerializer(Group.class, new BaselineSerializer<>(GroupModel::from));
+        module.addSerializer(Node.class, new BaselineSerializer<>(NodeModel::from));
+        module.addSerializer(ContextSet.class, new BaselineSerializer<>(set -> set.toSet().stream().map(ContextModel::from).collect(Collectors.toList())));
+        module.addSerializer(CachedMetaData.class, new BaselineSerializer<>(MetadataModel::from));
+        return module;
+    }
+
+    private static final class BaselineSerializer<T> extends JsonSerializer<T> {
+        private final Function<T, Object> model;
+
+        BaselineSerializer(Function<T, Object> model) {
+            this.model = model;
+        }
+
+        @Override
+        public void serialize(T value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writePOJO(this.model.apply(value));
+        }
+    }
+
+    record UserModel(UUID uniqueId, String username, List<String> parentGroups, Collection<Node> nodes, CachedMetaData metadata) {
+        static UserModel from(User user) {
+            return new UserModel(
+                    user.getUniqueId(),
+                    user.getUsername(),
+                    user.getInheritedGroups(QueryOptions.nonContextual()).stream()
+                            .map(Group::getName)
+                            .collect(Collectors.toList()),
+                    user.getNodes(),
+                    user.getCachedData().getMetaData()
+            );
+        }
+    }
+
+    record GroupModel(String name, String displayName, int weight, Collection<Node> nodes, CachedMetaData metadata) {
+        static GroupModel from(Group group) {
+            return new GroupModel(
+                    group.getName(),
+                    group.getDisplayName(),
+                    group.getWeight().orElse(0),
+                    group.getNodes(),
+                    group.getCachedData().getMetaData()
+            );
+        }
+    }
+
+    record NodeModel(String key, String type, boolean value, ContextSet context, Long expiry) {
+        static NodeModel from(Node node) {
+            return new NodeModel(
+                    node.getKey(),
+                    node.getType().name().toLowerCase(Locale.ROOT),
+                    node.getValue(),
+                    node.getContexts(),
+                    node.getExpiry() == null ? null : node.getExpiry().getEpochSecond()
+            );
+        }
+    }
+
+    record ContextModel(String key, String value) {
+        static ContextModel from(Context context) {
+            return new ContextModel(context.getKey(), context.getValue());
+        }
+    }
+
+    record MetadataModel(Map<String, String> meta, String prefix, String suffix, String primaryGroup) {
+        static MetadataModel from(CachedMetaData metaData) {
+            return new MetadataModel(
+                    metaData.getMeta().entrySet().stream().collect(Collectors.toMap(
+                            Map.Entry::getKey,
+                            e -> e.getValue().get(0)
+                    )),
+                    metaData.getPrefix(),
+                    metaData.getSuffix(),
+                    metaData.getPrimaryGroup()
+            );
+        }
+    }
+}
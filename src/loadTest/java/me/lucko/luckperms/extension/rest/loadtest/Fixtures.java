@@ -0,0 +1,165 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.loadtest;
+
+import me.lucko.luckperms.extension.rest.fake.FakeAction;
+import me.lucko.luckperms.extension.rest.fake.FakeGroup;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.fake.FakeNode;
+import me.lucko.luckperms.extension.rest.fake.FakeTrack;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import net.luckperms.api.actionlog.Action;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The data the load test runs against.
+ *
+ * <p>Read-only routes use one set of users and groups, and routes that modify data use
+ * a separate "scratch" set, so that the results of the read routes are not affected by
+ * the order the routes are run in. Routes that delete something are given a fresh
+ * "disposable" entity for each request.</p>
+ */
+final class Fixtures {
+    static final List<String> GROUPS = List.of("default", "member", "helper", "moderator", "admin");
+    static final String TRACK = "staff";
+    static final int SCRATCH_COUNT = 100;
+
+    private final FakeLuckPerms luckPerms;
+    private final List<FakeUser> users = new ArrayList<>();
+    private final List<FakeUser> scratchUsers = new ArrayList<>();
+    private final List<String> scratchGroups = new ArrayList<>();
+    private final List<String> permissions = new ArrayList<>();
+    private final AtomicLong disposableCounter = new AtomicLong();
+
+    Fixtures(FakeLuckPerms luckPerms, int userCount, int nodeCount, int actionCount) {
+        this.luckPerms = luckPerms;
+
+        String parent = null;
+        for (String name : GROUPS) {
+            FakeGroup group = luckPerms.createGroup(name, nodeCount);
+            group.data().add(FakeNode.create("weight." + (GROUPS.indexOf(name) * 10)));
+            if (parent != null) {
+                group.data().add(FakeNode.create("group." + parent));
+            }
+            parent = name;
+        }
+
+        FakeTrack track = luckPerms.tracks().createTrack(TRACK);
+        for (String name : GROUPS.subList(1, GROUPS.size())) {
+            track.appendGroup(luckPerms.groups().getFake(name));
+        }
+
+        for (int i = 0; i < userCount; i++) {
+            FakeUser user = luckPerms.createUser(nodeCount);
+            user.data().add(FakeNode.create("group." + GROUPS.get(1 + i % (GROUPS.size() - 1))));
+            this.users.add(user);
+        }
+        for (int i = 0; i < SCRATCH_COUNT; i++) {
+            this.scratchUsers.add(luckPerms.createUser(nodeCount));
+            this.scratchGroups.add(luckPerms.createGroup("scratch" + i, nodeCount).getName());
+        }
+        luckPerms.tracks().createTrack("scratch");
+
+        // permissions the users have, have negated, inherit and don't have at all
+        for (int i = 0; i < 20; i++) {
+            int node = 4 + i * Math.max(1, nodeCount / 20);
+            this.permissions.add("fixture.permission." + (node / 20) + ".node" + node);
+        }
+        this.permissions.add("fixture.permission.missing");
+
+        List<Action> actions = new ArrayList<>(actionCount);
+        Instant now = Instant.now();
+        for (int i = 0; i < actionCount; i++) {
+            FakeUser target = this.users.get(i % this.users.size());
+            actions.add(new FakeAction.Builder()
+                    .timestamp(now.minusSeconds(actionCount - i))
+                    .source(UUID.nameUUIDFromBytes(("source" + i % 10).getBytes()))
+                    .sourceName("source" + i % 10)
+                    .target(target.getUniqueId())
+                    .targetName(target.getUsername())
+                    .targetType(Action.Target.Type.USER)
+                    .description("permission set " + randomPermission(ThreadLocalRandom.current()) + " true")
+                    .build());
+        }
+        luckPerms.actions().addAll(actions);
+    }
+
+    FakeUser randomUser(ThreadLocalRandom random) {
+        return this.users.get(random.nextInt(this.users.size()));
+    }
+
+    List<UUID> randomUniqueIds(ThreadLocalRandom random, int count) {
+        List<UUID> uniqueIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uniqueIds.add(randomUser(random).getUniqueId());
+        }
+        return uniqueIds;
+    }
+
+    FakeUser randomScratchUser(ThreadLocalRandom random) {
+        return this.scratchUsers.get(random.nextInt(this.scratchUsers.size()));
+    }
+
+    String randomGroup(ThreadLocalRandom random) {
+        return GROUPS.get(random.nextInt(GROUPS.size()));
+    }
+
+    String randomScratchGroup(ThreadLocalRandom random) {
+        return this.scratchGroups.get(random.nextInt(this.scratchGroups.size()));
+    }
+
+    String randomPermission(ThreadLocalRandom random) {
+        return this.permissions.get(random.nextInt(this.permissions.size()));
+    }
+
+    List<String> permissions() {
+        return this.permissions;
+    }
+
+    UUID disposableUser() {
+        UUID uniqueId = UUID.randomUUID();
+        this.luckPerms.users().createUser(uniqueId, "disposable" + this.disposableCounter.incrementAndGet());
+        return uniqueId;
+    }
+
+    String disposableGroup() {
+        return this.luckPerms.groups().createGroup("disposable" + this.disposableCounter.incrementAndGet()).getName();
+    }
+
+    String disposableTrack() {
+        return this.luckPerms.tracks().createTrack("disposable" + this.disposableCounter.incrementAndGet()).getName();
+    }
+
+    String uniqueName(String prefix) {
+        return prefix + this.disposableCounter.incrementAndGet();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects request latencies for a single worker thread.
+ */
+final class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count = 0;
+    private final int[] statusClasses = new int[6];
+    private int failures = 0;
+
+    void record(long latencyNanos, int status) {
+        if (this.count == this.latencies.length) {
+            this.latencies = Arrays.copyOf(this.latencies, this.latencies.length * 2);
+        }
+        this.latencies[this.count++] = latencyNanos;
+        this.statusClasses[Math.min(status / 100, 5)]++;
+    }
+
+    void recordFailure() {
+        this.failures++;
+    }
+
+    /**
+     * Merges the latencies recorded by several workers.
+     *
+     * @param recorders the recorders
+     * @param durationNanos how long the workers ran for
+     * @return the summary
+     */
+    static Summary summarize(Iterable<LatencyRecorder> recorders, long durationNanos) {
+        int total = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.count;
+        }
+
+        long[] latencies = new long[total];
+        int[] statusClasses = new int[6];
+        int failures = 0;
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, latencies, offset, recorder.count);
+            offset += recorder.count;
+            for (int i = 0; i < statusClasses.length; i++) {
+                statusClasses[i] += recorder.statusClasses[i];
+            }
+            failures += recorder.failures;
+        }
+        Arrays.sort(latencies);
+
+        return new Summary(
+                total,
+                total / (durationNanos / 1_000_000_000d),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99),
+                percentile(latencies, 0.999),
+                statusClasses[2] + statusClasses[3],
+                statusClasses[4],
+                statusClasses[5],
+                failures
+        );
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    record Summary(int requests, double throughput, long p50, long p99, long p999, int ok, int clientErrors, int serverErrors, int failures) { }
+}
@@ -0,0 +1,253 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.loadtest;
+
+import me.lucko.luckperms.extension.rest.RestServer;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Drives every route of a {@link RestServer} backed by an in-memory LuckPerms, and
+ * reports the throughput and latency of each.
+ *
+ * <p>Each route is run on its own, with a fixed number of concurrent clients sending
+ * requests back to back for a warmup period and then a measurement period.</p>
+ *
+ * <p>Several concurrency levels and server thread modes can be given, in which case every
+ * combination is run in turn, so the thread modes can be compared.</p>
+ *
+ * <p>Options are passed as {@code --name=value} arguments:</p>
+ * <ul>
+ *     <li>{@code concurrency} - a comma-separated list of the numbers of concurrent clients (default 16)</li>
+ *     <li>{@code threads} - which threads the server handles requests on: {@code platform}, {@code virtual} or {@code both} (default platform)</li>
+ *     <li>{@code warmup} - the warmup period for each route, in seconds (default 2)</li>
+ *     <li>{@code duration} - the measurement period for each route, in seconds (default 5)</li>
+ *     <li>{@code latency} - the artificial storage latency, in milliseconds (default 0)</li>
+ *     <li>{@code jitter} - the maximum random latency added on top, in milliseconds (default 0)</li>
+ *     <li>{@code users} - the number of users (default 1000)</li>
+ *     <li>{@code nodes} - the number of nodes each user and group has (default 100)</li>
+ *     <li>{@code actions} - the number of action log entries (default 1000)</li>
+ *     <li>{@code routes} - a regex to select which routes to run (default all)</li>
+ *     <li>{@code port} - the port to run the server on (default 8089)</li>
+ *     <li>{@code http.*}, {@code cache.*} - any other server setting, e.g. {@code --http.maxThreads=50}
+ *     or {@code --cache.users.maxSize=10000}</li>
+ *     <li>{@code accessLog*} - access log settings; the access log is off unless enabled with {@code --accessLog=true}</li>
+ * </ul>
+ */
+public final class LoadTest {
+    private final Map<String, String> options;
+
+    private LoadTest(Map<String, String> options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Invalid argument: " + arg + " (expected --name=value)");
+            }
+            String[] parts = arg.substring(2).split("=", 2);
+            options.put(parts[0], parts[1]);
+        }
+        new LoadTest(options).run();
+    }
+
+    private int intOption(String name, int def) {
+        String value = this.options.get(name);
+        return value == null ? def : Integer.parseInt(value);
+    }
+
+    private List<Integer> intListOption(String name, int def) {
+        String value = this.options.get(name);
+        return value == null ? List.of(def) : Arrays.stream(value.split(",")).map(Integer::parseInt).toList();
+    }
+
+    private void run() throws Exception {
+        List<Integer> concurrencyLevels = intListOption("concurrency", 16);
+        String threads = this.options.getOrDefault("threads", "platform");
+        List<Boolean> threadModes = switch (threads) {
+            case "platform" -> List.of(false);
+            case "virtual" -> List.of(true);
+            case "both" -> List.of(false, true);
+            default -> throw new IllegalArgumentException("Unknown threads: " + threads);
+        };
+        Duration warmup = Duration.ofSeconds(intOption("warmup", 2));
+        Duration duration = Duration.ofSeconds(intOption("duration", 5));
+        int port = intOption("port", 8089);
+        Pattern filter = Pattern.compile(this.options.getOrDefault("routes", ".*"));
+
+        // pass server settings through to RestConfig, so their effect can be measured.
+        // the access log is off unless asked for, so runs don't write into the working directory
+        System.setProperty("luckperms.rest.accessLog", "false");
+        this.options.forEach((name, value) -> {
+            if (name.startsWith("http.") || name.startsWith("cache.") || name.startsWith("accessLog")) {
+                System.setProperty("luckperms.rest." + name, value);
+            }
+        });
+
+        FakeLuckPerms luckPerms = FakeLuckPerms.install();
+        Fixtures fixtures = new Fixtures(luckPerms, intOption("users", 1000), intOption("nodes", 100), intOption("actions", 1000));
+
+        // set the latency after creating the fixtures, so that setup isn't slowed down
+        luckPerms.storage().setLatency(Duration.ofMillis(intOption("latency", 0)), Duration.ofMillis(intOption("jitter", 0)));
+
+        List<Route> routes = Routes.create("http://localhost:" + port, fixtures).stream()
+                .filter(route -> filter.matcher(route.name()).find())
+                .toList();
+
+        // clients run on virtual threads, so thousands of them don't need thousands of platform threads
+        ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+
+        try {
+            for (boolean virtualThreads : threadModes) {
+                System.setProperty("luckperms.rest.http.virtualThreads", Boolean.toString(virtualThreads));
+                try (RestServer server = new RestServer(luckPerms, port)) {
+                    for (int concurrency : concurrencyLevels) {
+                        System.out.printf(Locale.ROOT, "%nRunning %d routes with %d clients on %s threads, %ds warmup, %ds measurement, %dms storage latency%n",
+                                routes.size(), concurrency, virtualThreads ? "virtual" : "platform",
+                                warmup.toSeconds(), duration.toSeconds(), luckPerms.storage().getLatency().toMillis());
+                        runRoutes(client, routes, concurrency, warmup, duration);
+                    }
+                    printCacheStats(client, "http://localhost:" + port);
+                }
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+
+        System.out.printf(Locale.ROOT, "Messaging service received %d updates, %d user updates and %d custom messages%n",
+                luckPerms.messaging().getUpdates(), luckPerms.messaging().getUserUpdates(), luckPerms.messaging().getCustomMessages());
+    }
+
+    private static void runRoutes(HttpClient client, List<Route> routes, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        System.out.printf(Locale.ROOT, "%-40s %10s %10s %10s %10s %10s %8s %8s %8s %8s%n",
+                "route", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "2xx/3xx", "4xx", "5xx", "failed");
+
+        for (Route route : routes) {
+            drive(client, route, concurrency, warmup);
+            long start = System.nanoTime();
+            List<LatencyRecorder> recorders = drive(client, route, concurrency, duration);
+            LatencyRecorder.Summary summary = LatencyRecorder.summarize(recorders, System.nanoTime() - start);
+
+            System.out.printf(Locale.ROOT, "%-40s %10d %10.1f %10.2f %10.2f %10.2f %8d %8d %8d %8d%n",
+                    route.name(), summary.requests(), summary.throughput(),
+                    millis(summary.p50()), millis(summary.p99()), millis(summary.p999()),
+                    summary.ok(), summary.clientErrors(), summary.serverErrors(), summary.failures());
+        }
+    }
+
+    private static void printCacheStats(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/metrics")).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return;
+        }
+
+        // counts for the whole run, including warmups
+        System.out.println();
+        response.body().lines()
+                .filter(line -> line.startsWith("luckperms_rest_cache_"))
+                .forEach(System.out::println);
+    }
+
+    private static List<LatencyRecorder> drive(HttpClient client, Route route, int concurrency, Duration duration) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<LatencyRecorder> recorders = new ArrayList<>(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        for (int i = 0; i < concurrency; i++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            recorders.add(recorder);
+
+            Thread.ofVirtual().name("loadtest-client-" + i).start(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        send(client, route, recorder);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        done.await();
+        return recorders;
+    }
+
+    private static void send(HttpClient client, Route route, LatencyRecorder recorder) {
+        List<HttpRequest> requests = Stream.generate(route.request()).limit(route.sequence()).toList();
+        long start = System.nanoTime();
+        try {
+            // a sequence is recorded with the worst status of its requests
+            int status = 0;
+            for (HttpRequest request : requests) {
+                status = Math.max(status, send(client, route, request));
+            }
+            recorder.record(System.nanoTime() - start, status);
+        } catch (IOException e) {
+            recorder.recordFailure();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int send(HttpClient client, Route route, HttpRequest request) throws IOException, InterruptedException {
+        if (route.stream()) {
+            // event streams never end, so only wait for the response headers
+            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            response.body().close();
+            return response.statusCode();
+        }
+        return client.send(request, HttpResponse.BodyHandlers.ofByteArray()).statusCode();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000d;
+    }
+}
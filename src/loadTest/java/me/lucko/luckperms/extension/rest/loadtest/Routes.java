@@ -0,0 +1,196 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * The routes registered in {@code RestServer#setupRoutes}, with requests that exercise them.
+ */
+final class Routes {
+    private static final int BULK_USERS = 10;
+
+    private Routes() {}
+
+    static List<Route> create(String baseUrl, Fixtures fixtures) {
+        RequestFactory http = new RequestFactory(baseUrl);
+        List<Route> routes = new ArrayList<>();
+
+        routes.add(new Route("GET /health", () -> http.get("/health")));
+
+        // users
+        routes.add(new Route("GET /user", () -> http.get("/user")));
+        routes.add(new Route("GET /user?limit", () -> http.get("/user?limit=100")));
+        routes.add(new Route("GET /user/count", () -> http.get("/user/count")));
+        routes.add(new Route("GET /user/search", () -> http.get("/user/search?key=group." + Fixtures.GROUPS.get(1))));
+        routes.add(new Route("GET /user/lookup", () -> http.get("/user/lookup?username=" + fixtures.randomUser(random()).getUsername())));
+        routes.add(new Route("POST /user", () -> http.post("/user", """
+                {"uniqueId": "%s", "username": "%s"}""".formatted(UUID.randomUUID(), fixtures.uniqueName("load")))));
+        routes.add(new Route("POST /user/permission-check/bulk", () -> http.post("/user/permission-check/bulk", """
+                {"uniqueIds": %s, "permissions": %s}""".formatted(
+                        json(fixtures.randomUniqueIds(random(), BULK_USERS)),
+                        json(fixtures.permissions())
+                ))));
+        // the same number of checks as the bulk route, made one request at a time
+        routes.add(new Route("GET /user/{id}/permission-check (bulk equivalent)",
+                () -> http.get("/user/" + fixtures.randomUser(random()).getUniqueId() + "/permission-check?permission=" + fixtures.randomPermission(random())),
+                false, BULK_USERS * fixtures.permissions().size()));
+        routes.add(new Route("GET /user/{id}", () -> http.get("/user/" + fixtures.randomUser(random()).getUniqueId())));
+        routes.add(new Route("PATCH /user/{id}", () -> http.patch("/user/" + fixtures.randomScratchUser(random()).getUniqueId(), """
+                {"username": "%s"}""".formatted(fixtures.uniqueName("renamed")))));
+        routes.add(new Route("DELETE /user/{id}", () -> http.delete("/user/" + fixtures.disposableUser())));
+        routes.add(new Route("GET /user/{id}/nodes", () -> http.get("/user/" + fixtures.randomUser(random()).getUniqueId() + "/nodes")));
+        routes.add(new Route("PATCH /user/{id}/nodes", () -> http.patch("/user/" + fixtures.randomScratchUser(random()).getUniqueId() + "/nodes", nodeList())));
+        routes.add(new Route("DELETE /user/{id}/nodes", () -> http.delete("/user/" + fixtures.randomScratchUser(random()).getUniqueId() + "/nodes", nodeList())));
+        routes.add(new Route("POST /user/{id}/nodes", () -> http.post("/user/" + fixtures.randomScratchUser(random()).getUniqueId() + "/nodes", node())));
+        routes.add(new Route("PUT /user/{id}/nodes", () -> http.put("/user/" + fixtures.randomScratchUser(random()).getUniqueId() + "/nodes", nodeList())));
+        routes.add(new Route("GET /user/{id}/meta", () -> http.get("/user/" + fixtures.randomUser(random()).getUniqueId() + "/meta")));
+        routes.add(new Route("GET /user/{id}/permission-check", () -> http.get("/user/" + fixtures.randomUser(random()).getUniqueId() + "/permission-check?permission=" + fixtures.randomPermission(random()))));
+        routes.add(new Route("POST /user/{id}/permission-check", () -> http.post("/user/" + fixtures.randomUser(random()).getUniqueId() + "/permission-check", permissionCheck(fixtures))));
+        routes.add(new Route("POST /user/{id}/promote", () -> http.post("/user/" + fixtures.randomScratchUser(random()).getUniqueId() + "/promote", """
+                {"track": "%s"}""".formatted(Fixtures.TRACK))));
+        routes.add(new Route("POST /user/{id}/demote", () -> http.post("/user/" + fixtures.randomScratchUser(random()).getUniqueId() + "/demote", """
+                {"track": "%s"}""".formatted(Fixtures.TRACK))));
+
+        // groups
+        routes.add(new Route("POST /group", () -> http.post("/group", """
+                {"name": "%s"}""".formatted(fixtures.uniqueName("load")))));
+        routes.add(new Route("GET /group", () -> http.get("/group")));
+        routes.add(new Route("GET /group/search", () -> http.get("/group/search?keyStartsWith=fixture.permission.1.")));
+        routes.add(new Route("GET /group/{id}", () -> http.get("/group/" + fixtures.randomGroup(random()))));
+        routes.add(new Route("PATCH /group/{id}", () -> http.patch("/group/" + fixtures.randomScratchGroup(random()), "{}")));
+        routes.add(new Route("DELETE /group/{id}", () -> http.delete("/group/" + fixtures.disposableGroup())));
+        routes.add(new Route("GET /group/{id}/nodes", () -> http.get("/group/" + fixtures.randomGroup(random()) + "/nodes")));
+        routes.add(new Route("GET /group/{id}/members", () -> http.get("/group/" + fixtures.randomGroup(random()) + "/members?limit=100")));
+        routes.add(new Route("GET /group/{id}/members/count", () -> http.get("/group/" + fixtures.randomGroup(random()) + "/members/count?inherited=true")));
+        routes.add(new Route("PATCH /group/{id}/nodes", () -> http.patch("/group/" + fixtures.randomScratchGroup(random()) + "/nodes", nodeList())));
+        routes.add(new Route("DELETE /group/{id}/nodes", () -> http.delete("/group/" + fixtures.randomScratchGroup(random()) + "/nodes", nodeList())));
+        routes.add(new Route("POST /group/{id}/nodes", () -> http.post("/group/" + fixtures.randomScratchGroup(random()) + "/nodes", node())));
+        routes.add(new Route("PUT /group/{id}/nodes", () -> http.put("/group/" + fixtures.randomScratchGroup(random()) + "/nodes", nodeList())));
+        routes.add(new Route("GET /group/{id}/meta", () -> http.get("/group/" + fixtures.randomGroup(random()) + "/meta")));
+        routes.add(new Route("GET /group/{id}/permission-check", () -> http.get("/group/" + fixtures.randomGroup(random()) + "/permission-check?permission=" + fixtures.randomPermission(random()))));
+        routes.add(new Route("POST /group/{id}/permission-check", () -> http.post("/group/" + fixtures.randomGroup(random()) + "/permission-check", permissionCheck(fixtures))));
+        routes.add(new Route("POST /group/{id}/promote", () -> http.post("/group/" + fixtures.randomScratchGroup(random()) + "/promote", """
+                {"track": "%s"}""".formatted(Fixtures.TRACK))));
+        routes.add(new Route("POST /group/{id}/demote", () -> http.post("/group/" + fixtures.randomScratchGroup(random()) + "/demote", """
+                {"track": "%s"}""".formatted(Fixtures.TRACK))));
+
+        // tracks
+        routes.add(new Route("POST /track", () -> http.post("/track", """
+                {"name": "%s"}""".formatted(fixtures.uniqueName("load")))));
+        routes.add(new Route("GET /track", () -> http.get("/track")));
+        routes.add(new Route("GET /track/{id}", () -> http.get("/track/" + Fixtures.TRACK)));
+        routes.add(new Route("PATCH /track/{id}", () -> http.patch("/track/scratch", """
+                {"groups": %s}""".formatted(json(Fixtures.GROUPS.subList(0, 1 + random().nextInt(Fixtures.GROUPS.size())))))));
+        routes.add(new Route("DELETE /track/{id}", () -> http.delete("/track/" + fixtures.disposableTrack())));
+
+        // actions
+        routes.add(new Route("GET /action", () -> http.get("/action")));
+        routes.add(new Route("GET /action?page", () -> http.get("/action?pageSize=50&pageNumber=" + (1 + random().nextInt(5)))));
+        routes.add(new Route("GET /action?user", () -> http.get("/action?user=" + fixtures.randomUser(random()).getUniqueId())));
+        routes.add(new Route("POST /action", () -> http.post("/action", """
+                {"source": {"uniqueId": "%s", "name": "load"}, "target": {"uniqueId": "%s", "name": "target", "type": "user"}, "description": "permission set %s true"}""".formatted(
+                        UUID.randomUUID(), fixtures.randomUser(random()).getUniqueId(), fixtures.randomPermission(random())
+                ))));
+
+        // messaging
+        routes.add(new Route("POST /messaging/update", () -> http.post("/messaging/update", "")));
+        routes.add(new Route("POST /messaging/update/{id}", () -> http.post("/messaging/update/" + fixtures.randomUser(random()).getUniqueId(), "")));
+        routes.add(new Route("POST /messaging/custom", () -> http.post("/messaging/custom", """
+                {"channelId": "load", "payload": "%s"}""".formatted(fixtures.uniqueName("payload")))));
+
+        // events
+        for (String event : List.of("log-broadcast", "post-network-sync", "post-sync", "pre-network-sync", "pre-sync", "custom-message-receive")) {
+            routes.add(new Route("GET /event/" + event, () -> http.get("/event/" + event), true));
+        }
+
+        return routes;
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+
+    private static String node() {
+        return """
+                {"key": "load.permission.%d", "value": %b}""".formatted(random().nextInt(1000), random().nextBoolean());
+    }
+
+    private static String nodeList() {
+        int count = 1 + random().nextInt(5);
+        List<String> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            nodes.add(node());
+        }
+        return "[" + String.join(", ", nodes) + "]";
+    }
+
+    private static String permissionCheck(Fixtures fixtures) {
+        return """
+                {"permission": "%s", "queryOptions": {"mode": "contextual", "contexts": [{"key": "server", "value": "survival"}]}}""".formatted(fixtures.randomPermission(random()));
+    }
+
+    private static String json(List<?> values) {
+        return values.stream().map(value -> "\"" + value + "\"").collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private record RequestFactory(String baseUrl) {
+        HttpRequest get(String path) {
+            return builder(path).GET().build();
+        }
+
+        HttpRequest delete(String path) {
+            return builder(path).DELETE().build();
+        }
+
+        HttpRequest delete(String path, String body) {
+            return builder(path).method("DELETE", HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+
+        HttpRequest post(String path, String body) {
+            return builder(path).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+
+        HttpRequest put(String path, String body) {
+            return builder(path).PUT(HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+
+        HttpRequest patch(String path, String body) {
+            return builder(path).method("PATCH", HttpRequest.BodyPublishers.ofString(body)).build();
+        }
+
+        private HttpRequest.Builder builder(String path) {
+            return HttpRequest.newBuilder(URI.create(this.baseUrl + path))
+                    .header("Content-Type", "application/json");
+        }
+    }
+}
@@ -31,10 +31,16 @@ import com.fasterxml.jackson.databind.exc.MismatchedInputException;
 import com.google.common.collect.ImmutableSet;
 import io.javalin.Javalin;
 import io.javalin.core.JavalinConfig;
+import io.javalin.core.compression.CompressionStrategy;
+import io.javalin.core.security.AccessManager;
 import io.javalin.core.util.JavalinLogger;
 import io.javalin.http.HttpCode;
 import io.javalin.plugin.json.JavalinJackson;
 import io.javalin.plugin.openapi.utils.OpenApiVersionUtil;
+import me.lucko.luckperms.extension.rest.cache.EntityTags;
+import me.lucko.luckperms.extension.rest.cache.MembershipIndex;
+import me.lucko.luckperms.extension.rest.cache.PermissionCheckCache;
+import me.lucko.luckperms.extension.rest.cache.UserCache;
 import me.lucko.luckperms.extension.rest.controller.ActionController;
 import me.lucko.luckperms.extension.rest.controller.EventController;
 import me.lucko.luckperms.extension.rest.controller.GroupController;
@@ -42,17 +48,37 @@ import me.lucko.luckperms.extension.rest.controller.MessagingController;
 import me.lucko.luckperms.extension.rest.controller.PermissionHolderController;
 import me.lucko.luckperms.extension.rest.controller.TrackController;
 import me.lucko.luckperms.extension.rest.controller.UserController;
+import me.lucko.luckperms.extension.rest.metrics.RestMetrics;
+import me.lucko.luckperms.extension.rest.util.AccessLog;
+import me.lucko.luckperms.extension.rest.util.AdmissionControl;
 import me.lucko.luckperms.extension.rest.util.CustomObjectMapper;
+import me.lucko.luckperms.extension.rest.util.DebouncedMessagingService;
+import me.lucko.luckperms.extension.rest.util.RequestTimings;
+import me.lucko.luckperms.extension.rest.util.RouteClass;
 import me.lucko.luckperms.extension.rest.util.StubMessagingService;
 import me.lucko.luckperms.extension.rest.util.SwaggerUi;
+import me.lucko.luckperms.extension.rest.util.TimedJsonMapper;
+import me.lucko.luckperms.extension.rest.util.VirtualThreadPool;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.messaging.MessagingService;
 import net.luckperms.api.platform.Health;
+import org.eclipse.jetty.server.ConnectionLimit;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeoutException;
 
 import static io.javalin.apibuilder.ApiBuilder.delete;
 import static io.javalin.apibuilder.ApiBuilder.get;
@@ -69,6 +95,9 @@ public class RestServer implements AutoCloseable {
     private static final Logger LOGGER = LoggerFactory.getLogger(RestServer.class);
 
     private final ObjectMapper objectMapper;
+    private final RestMetrics metrics;
+    private final AccessLog accessLog;
+    private final AdmissionControl admissionControl;
     private final Javalin app;
     private final AutoCloseable routesClosable;
 
@@ -76,10 +105,16 @@ public class RestServer implements AutoCloseable {
         LOGGER.info("[REST] Starting server...");
 
         this.objectMapper = new CustomObjectMapper();
+        this.metrics = RestConfig.getBoolean("metrics", true) ? new RestMetrics() : null;
+        this.accessLog = createAccessLog();
+        this.admissionControl = RestConfig.getBoolean("limit", false) ? new AdmissionControl() : null;
 
-        this.app = Javalin.create(this::configure)
+        this.app = Javalin.create(config -> this.configure(config, port))
                 .start(port);
 
+        this.setupTimings(this.app);
+        this.setupAdmissionControl(this.app);
+        this.setupMetrics(this.app);
         this.setupLogging(this.app);
         this.setupErrorHandlers(this.app);
         this.routesClosable = this.setupRoutes(this.app, luckPerms);
@@ -95,20 +130,51 @@ public class RestServer implements AutoCloseable {
             throw new RuntimeException(e);
         }
         this.app.close();
+        if (this.metrics != null) {
+            this.metrics.close();
+        }
+        if (this.accessLog != null) {
+            this.accessLog.close();
+        }
     }
 
-    private void configure(JavalinConfig config) {
+    private void configure(JavalinConfig config, int port) {
         // disable javalin excessive logging
         config.showJavalinBanner = false;
         JavalinLogger.enabled = false;
         JavalinLogger.startupInfo = false;
         OpenApiVersionUtil.INSTANCE.setLogWarnings(false);
 
-        this.setupAuth(config);
+        AccessManager accessManager = this.setupAuth();
+        // the access manager is the first point at which the matched route is known
+        config.accessManager((handler, ctx, routeRoles) -> {
+            RequestTimings timings = RequestTimings.get(ctx);
+            String route = ctx.endpointHandlerPath();
+            timings.onRouteMatched(route, RouteClass.of(ctx.method(), route));
+            if (this.metrics != null) {
+                this.metrics.onRouteMatched(ctx, timings);
+            }
+            try {
+                accessManager.manage(c -> {
+                    timings.onAuthorized();
+                    if (this.admissionControl != null && !this.admissionControl.admit(c, timings, timings.getRouteClass())) {
+                        return;
+                    }
+                    RequestTimings.setCurrent(timings);
+                    handler.handle(c);
+                }, ctx, routeRoles);
+            } finally {
+                RequestTimings.setCurrent(null);
+                timings.onHandlerReturned(ctx.resultFuture() != null);
+            }
+        });
 
+        config.server(() -> createServer(port));
+        // compression is done by jetty instead, see createServer
+        config.compressionStrategy(CompressionStrategy.NONE);
         SwaggerUi.setup(config);
 
-        config.jsonMapper(new JavalinJackson(this.objectMapper));
+        config.jsonMapper(new TimedJsonMapper(new JavalinJackson(this.objectMapper)));
     }
 
     private void setupErrorHandlers(Javalin app) {
@@ -116,6 +182,10 @@ public class RestServer implements AutoCloseable {
         app.exception(JacksonException.class, (e, ctx) -> ctx.status(400).result(e.getMessage()));
         app.exception(IllegalArgumentException.class, (e, ctx) -> ctx.status(400).result(e.getMessage()));
         app.exception(UnsupportedOperationException.class, (e, ctx) -> ctx.status(404).result("Not found"));
+        app.exception(TimeoutException.class, (e, ctx) -> {
+            RequestTimings.get(ctx).onTimedOut();
+            ctx.status(504).result("Timed out");
+        });
 
         app.exception(Exception.class, (e, ctx) -> {
             ctx.status(500).result("Server error");
@@ -131,28 +201,73 @@ public class RestServer implements AutoCloseable {
             ctx.status(health.isHealthy() ? HttpCode.OK : HttpCode.SERVICE_UNAVAILABLE).json(health);
         });
 
-        MessagingService messagingService = luckPerms.getMessagingService().orElse(StubMessagingService.INSTANCE);
+        Optional<MessagingService> realMessagingService = luckPerms.getMessagingService();
+        DebouncedMessagingService messagingService = new DebouncedMessagingService(
+                realMessagingService.orElse(StubMessagingService.INSTANCE),
+                RestConfig.getInteger("messaging.updateDebounce", 500)
+        );
 
-        UserController userController = new UserController(luckPerms.getUserManager(), luckPerms.getTrackManager(), messagingService, this.objectMapper);
-        GroupController groupController = new GroupController(luckPerms.getGroupManager(), messagingService, this.objectMapper);
-        TrackController trackController = new TrackController(luckPerms.getTrackManager(), luckPerms.getGroupManager(), messagingService, this.objectMapper);
+        UserCache userCache = new UserCache(luckPerms.getEventBus());
+        PermissionCheckCache permissionCheckCache = new PermissionCheckCache(luckPerms.getEventBus());
+        EntityTags entityTags = new EntityTags(luckPerms.getEventBus());
+        MembershipIndex membershipIndex = new MembershipIndex(luckPerms.getUserManager(), luckPerms.getGroupManager(), luckPerms.getEventBus());
+
+        UserController userController = new UserController(luckPerms.getUserManager(), luckPerms.getTrackManager(), messagingService, this.objectMapper, userCache, permissionCheckCache, entityTags);
+        GroupController groupController = new GroupController(luckPerms.getGroupManager(), messagingService, this.objectMapper, permissionCheckCache, entityTags, membershipIndex, luckPerms.getEventBus());
+        TrackController trackController = new TrackController(luckPerms.getTrackManager(), luckPerms.getGroupManager(), messagingService, this.objectMapper, entityTags, luckPerms.getEventBus());
         ActionController actionController = new ActionController(luckPerms.getActionLogger(), this.objectMapper);
-        MessagingController messagingController = new MessagingController(luckPerms.getMessagingService().orElse(null), luckPerms.getUserManager(), this.objectMapper);
-        EventController eventController = new EventController(luckPerms.getEventBus());
+        MessagingController messagingController = new MessagingController(realMessagingService.isPresent() ? messagingService : null, luckPerms.getUserManager(), this.objectMapper);
+        EventController eventController = new EventController(luckPerms.getEventBus(), this.objectMapper);
+
+        if (this.metrics != null) {
+            app.get("metrics", this.metrics::scrape);
+
+            this.metrics.bindEvents(eventController);
+            this.metrics.bindUserCache(userCache);
+            this.metrics.bindPermissionCheckCache(permissionCheckCache);
+            this.metrics.bindLoads("user", userController.getUserLoads());
+            this.metrics.bindLoads("group", groupController.getGroupLoads());
+            this.metrics.bindLoads("track", trackController.getTrackLoads());
+            this.metrics.bindMessaging(messagingService);
+            if (this.accessLog != null) {
+                this.metrics.bindAccessLog(this.accessLog);
+            }
+            if (this.admissionControl != null) {
+                this.metrics.bindAdmissionControl(this.admissionControl);
+            }
+        }
 
         app.routes(() -> {
             path("user", () -> {
                 get("lookup", userController::lookup);
+                get("count", userController::count);
+                post("permission-check/bulk", userController::permissionCheckBulk);
                 setupControllerRoutes(userController);
             });
-            path("group", () -> setupControllerRoutes(groupController));
+            path("group", () -> {
+                path("{id}/members", () -> {
+                    get(groupController::members);
+                    get("count", groupController::membersCount);
+                });
+                setupControllerRoutes(groupController);
+            });
             path("track", () -> setupControllerRoutes(trackController));
             path("action", () -> setupControllerRoutes(actionController));
             path("messaging", () -> setupControllerRoutes(messagingController));
             path("event", () -> setupControllerRoutes(eventController));
         });
 
-        return eventController;
+        return () -> {
+            eventController.close();
+            groupController.close();
+            trackController.close();
+            userCache.close();
+            permissionCheckCache.close();
+            entityTags.close();
+            membershipIndex.close();
+            // flush any pending update before shutting down
+            messagingService.close();
+        };
     }
 
     private void setupControllerRoutes(PermissionHolderController controller) {
@@ -223,63 +338,159 @@ public class RestServer implements AutoCloseable {
         sse("custom-message-receive", controller::customMessageReceive);
     }
 
-    private void setupAuth(JavalinConfig config) {
-        if (RestConfig.getBoolean("auth", false)) {
-            Set<String> keys = ImmutableSet.copyOf(
-                    RestConfig.getStringList("auth.keys", Collections.emptyList())
-            );
+    private AccessManager setupAuth() {
+        if (!RestConfig.getBoolean("auth", false)) {
+            return (handler, ctx, routeRoles) -> handler.handle(ctx);
+        }
 
-            if (keys.isEmpty()) {
-                LOGGER.warn("[REST] Auth is enabled but there are no API keys registered!");
-                LOGGER.warn("[REST] Set some keys with the 'LUCKPERMS_REST_AUTH_KEYS' variable.");
-            }
+        Set<String> keys = ImmutableSet.copyOf(
+                RestConfig.getStringList("auth.keys", Collections.emptyList())
+        );
 
-            config.accessManager((handler, ctx, routeRoles) -> {
-                if (ctx.path().equals("/") || ctx.path().startsWith("/docs")) {
-                    handler.handle(ctx);
-                    return;
-                }
-
-                String authorization = ctx.header("Authorization");
-                if (authorization == null) {
-                    ctx.status(HttpCode.UNAUTHORIZED).result("No API key");
-                    return;
-                }
-
-                String[] parts = authorization.split(" ");
-                if (parts.length != 2) {
-                    ctx.status(HttpCode.UNAUTHORIZED).result("Invalid API key");
-                    return;
-                }
-
-                if (!parts[0].equals("Bearer")) {
-                    ctx.status(HttpCode.UNAUTHORIZED).result("Unknown Authorization type");
-                    return;
-                }
-
-                if (!keys.contains(parts[1])) {
-                    ctx.status(HttpCode.UNAUTHORIZED).result("Unauthorized");
-                    return;
-                }
+        if (keys.isEmpty()) {
+            LOGGER.warn("[REST] Auth is enabled but there are no API keys registered!");
+            LOGGER.warn("[REST] Set some keys with the 'LUCKPERMS_REST_AUTH_KEYS' variable.");
+        }
 
+        return (handler, ctx, routeRoles) -> {
+            if (ctx.path().equals("/") || ctx.path().startsWith("/docs")) {
                 handler.handle(ctx);
-            });
+                return;
+            }
+
+            String authorization = ctx.header("Authorization");
+            if (authorization == null) {
+                ctx.status(HttpCode.UNAUTHORIZED).result("No API key");
+                return;
+            }
+
+            String[] parts = authorization.split(" ");
+            if (parts.length != 2) {
+                ctx.status(HttpCode.UNAUTHORIZED).result("Invalid API key");
+                return;
+            }
+
+            if (!parts[0].equals("Bearer")) {
+                ctx.status(HttpCode.UNAUTHORIZED).result("Unknown Authorization type");
+                return;
+            }
+
+            if (!keys.contains(parts[1])) {
+                ctx.status(HttpCode.UNAUTHORIZED).result("Unauthorized");
+                return;
+            }
+
+            handler.handle(ctx);
+        };
+    }
+
+    private void setupTimings(Javalin app) {
+        boolean serverTiming = RestConfig.getBoolean("serverTiming", false);
+
+        app.before(RequestTimings::start);
+        app.after(ctx -> {
+            RequestTimings timings = RequestTimings.get(ctx);
+            timings.onRequestEnd();
+            // streamed responses have already been sent, headers and all
+            if (serverTiming && !ctx.res.isCommitted()) {
+                ctx.header("Server-Timing", timings.toServerTiming());
+            }
+        });
+    }
+
+    private void setupAdmissionControl(Javalin app) {
+        if (this.admissionControl != null) {
+            app.after(ctx -> this.admissionControl.release(ctx, RequestTimings.get(ctx)));
+        }
+    }
+
+    private void setupMetrics(Javalin app) {
+        if (this.metrics != null) {
+            app.after(ctx -> this.metrics.onRequestEnd(ctx, RequestTimings.get(ctx)));
         }
     }
 
     private void setupLogging(Javalin app) {
-        app.before(ctx -> {
-            ctx.attribute("startTime", System.currentTimeMillis());
-            if (ctx.path().startsWith("/event/")) {
-                LOGGER.info("[REST] %s %s - %d".formatted(ctx.method(), ctx.path(), ctx.status()));
+        if (this.accessLog != null) {
+            app.after(ctx -> this.accessLog.log(ctx, RequestTimings.get(ctx)));
+        }
+    }
+
+    private static Server createServer(int port) {
+        ThreadPool threadPool = null;
+        if (RestConfig.getBoolean("http.virtualThreads", false)) {
+            if (VirtualThreadPool.isSupported()) {
+                threadPool = new VirtualThreadPool();
+            } else {
+                LOGGER.warn("[REST] Virtual threads need Java 21 or newer, using the default thread pool instead");
             }
-        });
-        app.after(ctx -> {
-            //noinspection ConstantConditions
-            long startTime = ctx.attribute("startTime");
-            long duration = System.currentTimeMillis() - startTime;
-            LOGGER.info("[REST] %s %s - %d - %dms".formatted(ctx.method(), ctx.path(), ctx.status(), duration));
-        });
+        }
+        if (threadPool == null) {
+            QueuedThreadPool queuedThreadPool = new QueuedThreadPool(
+                    RestConfig.getInteger("http.maxThreads", 250),
+                    RestConfig.getInteger("http.minThreads", 8),
+                    RestConfig.getInteger("http.threadIdleTimeout", 60000)
+            );
+            queuedThreadPool.setName("luckperms-rest");
+            threadPool = queuedThreadPool;
+        }
+
+        Server server = new Server(threadPool);
+
+        HttpConfiguration httpConfig = new HttpConfiguration();
+        httpConfig.setRequestHeaderSize(RestConfig.getInteger("http.requestHeaderSize", 8192));
+        httpConfig.setOutputBufferSize(RestConfig.getInteger("http.outputBufferSize", 32768));
+        httpConfig.setSendServerVersion(false);
+
+        // -1 lets jetty pick the number of acceptors and selectors based on the number of cores
+        ServerConnector connector = new ServerConnector(
+                server,
+                RestConfig.getInteger("http.acceptors", -1),
+                RestConfig.getInteger("http.selectors", -1),
+                new HttpConnectionFactory(httpConfig)
+        );
+        connector.setPort(port);
+        // must be longer than the event stream ping interval, or idle event streams get closed
+        connector.setIdleTimeout(RestConfig.getInteger("http.idleTimeout", 30000));
+        server.addConnector(connector);
+
+        // once the limit is reached, new connections wait in the OS accept queue rather than being refused
+        int maxConnections = RestConfig.getInteger("http.maxConnections", 0);
+        if (maxConnections > 0) {
+            server.addBean(new ConnectionLimit(maxConnections, connector));
+        }
+
+        // javalin attaches its own handlers inside this one
+        if (RestConfig.getBoolean("compression", true)) {
+            GzipHandler gzipHandler = new GzipHandler();
+            gzipHandler.setMinGzipSize(RestConfig.getInteger("compression.minSize", 1024));
+            gzipHandler.setCompressionLevel(RestConfig.getInteger("compression.level", 6));
+            gzipHandler.setIncludedMethods("GET", "POST");
+            // event streams are written as events happen, and must not be held back by the compressor
+            gzipHandler.addExcludedMimeTypes("text/event-stream");
+            server.setHandler(gzipHandler);
+        }
+
+        return server;
+    }
+
+    private static AccessLog createAccessLog() {
+        if (!RestConfig.getBoolean("accessLog", true)) {
+            return null;
+        }
+
+        Path file = Path.of(RestConfig.getString("accessLog.file", "logs/rest-access.log"));
+        try {
+            return new AccessLog(
+                    file,
+                    RestConfig.getInteger("accessLog.bufferSize", 8192),
+                    RestConfig.getInteger("accessLog.samplePercent", 100),
+                    RestConfig.getInteger("accessLog.slowThreshold", 1000)
+            );
+        } catch (IOException e) {
+            LOGGER.error("[REST] Unable to open the access log at " + file.toAbsolutePath(), e);
+            return null;
+        }
     }
 
 }
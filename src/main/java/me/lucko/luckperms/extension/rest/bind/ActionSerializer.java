@@ -31,36 +31,32 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import net.luckperms.api.actionlog.Action;
 
 import java.io.IOException;
-import java.util.UUID;
 
 public class ActionSerializer extends JsonSerializer<Action> {
 
     @Override
     public void serialize(Action value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        write(value, gen);
     }
 
-
-    record Model(long timestamp, SourceModel source, TargetModel target, String description) {
-        static Model from(Action action) {
-            return new Model(
-                    action.getTimestamp().getEpochSecond(),
-                    SourceModel.from(action.getSource()),
-                    TargetModel.from(action.getTarget()),
-                    action.getDescription()
-            );
-        }
-    }
-
-    record SourceModel(UUID uniqueId, String name) {
-        static SourceModel from(Action.Source source) {
-            return new SourceModel(source.getUniqueId(), source.getName());
-        }
-    }
-
-    record TargetModel(UUID uniqueId, String name, Action.Target.Type type) {
-        static TargetModel from(Action.Target action) {
-            return new TargetModel(action.getUniqueId().orElse(null), action.getName(), action.getType());
-        }
+    public static void write(Action action, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("timestamp", action.getTimestamp().getEpochSecond());
+
+        Action.Source source = action.getSource();
+        gen.writeObjectFieldStart("source");
+        SerializerUtils.writeUuidFieldIfPresent(gen, "uniqueId", source.getUniqueId());
+        SerializerUtils.writeStringFieldIfPresent(gen, "name", source.getName());
+        gen.writeEndObject();
+
+        Action.Target target = action.getTarget();
+        gen.writeObjectFieldStart("target");
+        SerializerUtils.writeUuidFieldIfPresent(gen, "uniqueId", target.getUniqueId().orElse(null));
+        SerializerUtils.writeStringFieldIfPresent(gen, "name", target.getName());
+        SerializerUtils.writeEnumFieldIfPresent(gen, "type", target.getType());
+        gen.writeEndObject();
+
+        SerializerUtils.writeStringFieldIfPresent(gen, "description", action.getDescription());
+        gen.writeEndObject();
     }
 }
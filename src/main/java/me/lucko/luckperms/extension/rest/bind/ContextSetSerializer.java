@@ -32,21 +32,22 @@ import net.luckperms.api.context.Context;
 import net.luckperms.api.context.ContextSet;
 
 import java.io.IOException;
-import java.util.stream.Collectors;
 
 public class ContextSetSerializer extends JsonSerializer<ContextSet> {
 
     @Override
     public void serialize(ContextSet value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(value.toSet().stream().map(Model::from).collect(Collectors.toList()));
+        write(value, gen);
     }
 
-    record Model(String key, String value) {
-        static Model from(Context context) {
-            return new Model(
-                    context.getKey(),
-                    context.getValue()
-            );
+    public static void write(ContextSet contextSet, JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        for (Context context : contextSet) {
+            gen.writeStartObject();
+            gen.writeStringField("key", context.getKey());
+            gen.writeStringField("value", context.getValue());
+            gen.writeEndObject();
         }
+        gen.writeEndArray();
     }
 }
@@ -37,22 +37,11 @@ public class DemotionResultSerializer extends JsonSerializer<DemotionResult> {
 
     @Override
     public void serialize(DemotionResult value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
-    }
-
-    record Model(
-            boolean success,
-            String status,
-            String groupFrom,
-            String groupTo
-    ) {
-        static Model from(DemotionResult result) {
-            return new Model(
-                    result.wasSuccessful(),
-                    result.getStatus().name().toLowerCase(Locale.ROOT),
-                    result.getGroupFrom().orElse(null),
-                    result.getGroupTo().orElse(null)
-            );
-        }
+        gen.writeStartObject();
+        gen.writeBooleanField("success", value.wasSuccessful());
+        gen.writeStringField("status", value.getStatus().name().toLowerCase(Locale.ROOT));
+        SerializerUtils.writeStringFieldIfPresent(gen, "groupFrom", value.getGroupFrom().orElse(null));
+        SerializerUtils.writeStringFieldIfPresent(gen, "groupTo", value.getGroupTo().orElse(null));
+        gen.writeEndObject();
     }
 }
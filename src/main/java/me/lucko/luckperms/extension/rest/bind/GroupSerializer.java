@@ -28,29 +28,78 @@ package me.lucko.luckperms.extension.rest.bind;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import me.lucko.luckperms.extension.rest.util.RequestTimings;
 import net.luckperms.api.cacheddata.CachedMetaData;
 import net.luckperms.api.model.group.Group;
-import net.luckperms.api.node.Node;
 
 import java.io.IOException;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
 
 public class GroupSerializer extends JsonSerializer<Group> {
 
     @Override
     public void serialize(Group value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        write(value, gen, Field.ALL);
     }
 
-    record Model(String name, String displayName, int weight, Collection<Node> nodes, CachedMetaData metadata) {
-        static Model from(Group group) {
-            return new Model(
-                    group.getName(),
-                    group.getDisplayName(),
-                    group.getWeight().orElse(0),
-                    group.getNodes(),
-                    group.getCachedData().getMetaData()
-            );
+    public static void write(Group value, JsonGenerator gen, Set<Field> fields) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("name", value.getName());
+        SerializerUtils.writeStringFieldIfPresent(gen, "displayName", value.getDisplayName());
+        if (fields.contains(Field.WEIGHT)) {
+            gen.writeNumberField("weight", value.getWeight().orElse(0));
+        }
+        if (fields.contains(Field.NODES)) {
+            gen.writeFieldName("nodes");
+            NodeSerializer.writeAll(value.getNodes(), gen);
+        }
+        if (fields.contains(Field.METADATA)) {
+            gen.writeFieldName("metadata");
+            long start = System.nanoTime();
+            CachedMetaData metaData = value.getCachedData().getMetaData();
+            RequestTimings.recordCurrent(RequestTimings.Phase.CACHED_DATA, start);
+            MetadataSerializer.write(metaData, gen);
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * The optional fields of a serialized group.
+     */
+    public enum Field {
+        WEIGHT, NODES, METADATA;
+
+        public static final Set<Field> ALL = Collections.unmodifiableSet(EnumSet.allOf(Field.class));
+
+        /**
+         * Parses a comma-separated list of fields, e.g. {@code nodes,weight}.
+         *
+         * <p>An empty string or {@code true} means all fields.</p>
+         *
+         * @param string the list
+         * @return the fields
+         */
+        public static Set<Field> parse(String string) {
+            if (string.isEmpty() || string.equalsIgnoreCase("true")) {
+                return ALL;
+            }
+
+            Set<Field> fields = EnumSet.noneOf(Field.class);
+            for (String name : string.split(",")) {
+                name = name.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                try {
+                    fields.add(Field.valueOf(name.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Unknown field: " + name);
+                }
+            }
+            return fields;
         }
     }
 }
@@ -37,15 +37,12 @@ public class HealthSerializer extends JsonSerializer<Health> {
 
     @Override
     public void serialize(Health value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
-    }
-
-    record Model(boolean healthy, Map<String, Object> details) {
-        static Model from(Health health) {
-            return new Model(
-                    health.isHealthy(),
-                    health.getDetails()
-            );
+        gen.writeStartObject();
+        gen.writeBooleanField("healthy", value.isHealthy());
+        Map<String, Object> details = value.getDetails();
+        if (details != null) {
+            serializers.defaultSerializeField("details", details, gen);
         }
+        gen.writeEndObject();
     }
 }
@@ -31,27 +31,26 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 import net.luckperms.api.cacheddata.CachedMetaData;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class MetadataSerializer extends JsonSerializer<CachedMetaData> {
 
     @Override
     public void serialize(CachedMetaData value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        write(value, gen);
     }
 
-    record Model(Map<String, String> meta, String prefix, String suffix, String primaryGroup) {
-        static Model from(CachedMetaData metaData) {
-            return new Model(
-                    metaData.getMeta().entrySet().stream().collect(Collectors.toMap(
-                            Map.Entry::getKey,
-                            e -> e.getValue().get(0)
-                    )),
-                    metaData.getPrefix(),
-                    metaData.getSuffix(),
-                    metaData.getPrimaryGroup()
-            );
+    public static void write(CachedMetaData metaData, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeObjectFieldStart("meta");
+        for (Map.Entry<String, List<String>> entry : metaData.getMeta().entrySet()) {
+            gen.writeStringField(entry.getKey(), entry.getValue().get(0));
         }
+        gen.writeEndObject();
+        SerializerUtils.writeStringFieldIfPresent(gen, "prefix", metaData.getPrefix());
+        SerializerUtils.writeStringFieldIfPresent(gen, "suffix", metaData.getSuffix());
+        SerializerUtils.writeStringFieldIfPresent(gen, "primaryGroup", metaData.getPrimaryGroup());
+        gen.writeEndObject();
     }
 }
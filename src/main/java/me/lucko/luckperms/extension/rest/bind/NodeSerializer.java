@@ -28,28 +28,38 @@ package me.lucko.luckperms.extension.rest.bind;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.context.ContextSet;
 import net.luckperms.api.node.Node;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.Locale;
 
 public class NodeSerializer extends JsonSerializer<Node> {
 
     @Override
     public void serialize(Node value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        write(value, gen);
     }
 
-    record Model(String key, String type, boolean value, ContextSet context, Long expiry) {
-        static Model from(Node node) {
-            return new Model(
-                    node.getKey(),
-                    node.getType().name().toLowerCase(Locale.ROOT),
-                    node.getValue(),
-                    node.getContexts(),
-                    node.getExpiry() == null ? null : node.getExpiry().getEpochSecond()
-            );
+    public static void write(Node node, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("key", node.getKey());
+        gen.writeStringField("type", node.getType().name().toLowerCase(Locale.ROOT));
+        gen.writeBooleanField("value", node.getValue());
+        gen.writeFieldName("context");
+        ContextSetSerializer.write(node.getContexts(), gen);
+        Instant expiry = node.getExpiry();
+        if (expiry != null) {
+            gen.writeNumberField("expiry", expiry.getEpochSecond());
         }
+        gen.writeEndObject();
+    }
+
+    public static void writeAll(Iterable<? extends Node> nodes, JsonGenerator gen) throws IOException {
+        gen.writeStartArray();
+        for (Node node : nodes) {
+            write(node, gen);
+        }
+        gen.writeEndArray();
     }
 }
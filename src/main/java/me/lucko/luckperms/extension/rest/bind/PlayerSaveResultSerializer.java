@@ -38,16 +38,24 @@ public class PlayerSaveResultSerializer extends JsonSerializer<PlayerSaveResult>
 
     @Override
     public void serialize(PlayerSaveResult value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
-    }
-
-    record Model(Set<PlayerSaveResult.Outcome> outcomes, String previousUsername, Set<UUID> otherUniqueIds) {
-        static Model from(PlayerSaveResult result) {
-            return new Model(
-                    result.getOutcomes(),
-                    result.getPreviousUsername(),
-                    result.getOtherUniqueIds()
-            );
+        gen.writeStartObject();
+        Set<PlayerSaveResult.Outcome> outcomes = value.getOutcomes();
+        if (outcomes != null) {
+            gen.writeArrayFieldStart("outcomes");
+            for (PlayerSaveResult.Outcome outcome : outcomes) {
+                gen.writeString(outcome.name());
+            }
+            gen.writeEndArray();
+        }
+        SerializerUtils.writeStringFieldIfPresent(gen, "previousUsername", value.getPreviousUsername());
+        Set<UUID> otherUniqueIds = value.getOtherUniqueIds();
+        if (otherUniqueIds != null) {
+            gen.writeArrayFieldStart("otherUniqueIds");
+            for (UUID uniqueId : otherUniqueIds) {
+                gen.writeString(uniqueId.toString());
+            }
+            gen.writeEndArray();
         }
+        gen.writeEndObject();
     }
 }
@@ -0,0 +1,82 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.bind;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Helpers shared by the serializers which write straight to a {@link JsonGenerator}.
+ */
+public final class SerializerUtils {
+    private SerializerUtils() {}
+
+    /**
+     * Writes a string field, unless the value is null.
+     *
+     * <p>This matches the {@code NON_NULL} inclusion configured on the object mapper.</p>
+     *
+     * @param gen the generator
+     * @param fieldName the field name
+     * @param value the value
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeStringFieldIfPresent(JsonGenerator gen, String fieldName, String value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(fieldName, value);
+        }
+    }
+
+    /**
+     * Writes a unique id field as a string, unless the value is null.
+     *
+     * @param gen the generator
+     * @param fieldName the field name
+     * @param value the value
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeUuidFieldIfPresent(JsonGenerator gen, String fieldName, UUID value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(fieldName, value.toString());
+        }
+    }
+
+    /**
+     * Writes an enum field by name, unless the value is null.
+     *
+     * @param gen the generator
+     * @param fieldName the field name
+     * @param value the value
+     * @throws IOException if an I/O error occurs
+     */
+    public static void writeEnumFieldIfPresent(JsonGenerator gen, String fieldName, Enum<?> value) throws IOException {
+        if (value != null) {
+            gen.writeStringField(fieldName, value.name());
+        }
+    }
+}
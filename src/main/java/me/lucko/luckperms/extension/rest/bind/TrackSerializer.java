@@ -28,32 +28,21 @@ package me.lucko.luckperms.extension.rest.bind;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.cacheddata.CachedMetaData;
-import net.luckperms.api.model.group.Group;
-import net.luckperms.api.model.user.User;
-import net.luckperms.api.node.Node;
-import net.luckperms.api.query.QueryOptions;
 import net.luckperms.api.track.Track;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 public class TrackSerializer extends JsonSerializer<Track> {
 
     @Override
     public void serialize(Track value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
-    }
-
-    record Model(String name, List<String> groups) {
-        static Model from(Track track) {
-            return new Model(
-                    track.getName(),
-                    track.getGroups()
-            );
+        gen.writeStartObject();
+        gen.writeStringField("name", value.getName());
+        gen.writeArrayFieldStart("groups");
+        for (String group : value.getGroups()) {
+            gen.writeString(group);
         }
+        gen.writeEndArray();
+        gen.writeEndObject();
     }
 }
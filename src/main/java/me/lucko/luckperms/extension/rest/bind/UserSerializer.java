@@ -28,36 +28,33 @@ package me.lucko.luckperms.extension.rest.bind;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import me.lucko.luckperms.extension.rest.util.RequestTimings;
 import net.luckperms.api.cacheddata.CachedMetaData;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.user.User;
-import net.luckperms.api.node.Node;
 import net.luckperms.api.query.QueryOptions;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
 
 public class UserSerializer extends JsonSerializer<User> {
 
     @Override
     public void serialize(User value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
-    }
-
-    record Model(UUID uniqueId, String username, List<String> parentGroups, Collection<Node> nodes, CachedMetaData metadata) {
-        static Model from(User user) {
-            return new Model(
-                    user.getUniqueId(),
-                    user.getUsername(),
-                    user.getInheritedGroups(QueryOptions.nonContextual()).stream()
-                            .map(Group::getName)
-                            .collect(Collectors.toList()),
-                    user.getNodes(),
-                    user.getCachedData().getMetaData()
-            );
+        gen.writeStartObject();
+        gen.writeStringField("uniqueId", value.getUniqueId().toString());
+        SerializerUtils.writeStringFieldIfPresent(gen, "username", value.getUsername());
+        gen.writeArrayFieldStart("parentGroups");
+        for (Group group : value.getInheritedGroups(QueryOptions.nonContextual())) {
+            gen.writeString(group.getName());
         }
+        gen.writeEndArray();
+        gen.writeFieldName("nodes");
+        NodeSerializer.writeAll(value.getNodes(), gen);
+        gen.writeFieldName("metadata");
+        long start = System.nanoTime();
+        CachedMetaData metaData = value.getCachedData().getMetaData();
+        RequestTimings.recordCurrent(RequestTimings.Phase.CACHED_DATA, start);
+        MetadataSerializer.write(metaData, gen);
+        gen.writeEndObject();
     }
 }
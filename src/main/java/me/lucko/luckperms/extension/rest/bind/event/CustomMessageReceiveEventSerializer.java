@@ -28,6 +28,7 @@ package me.lucko.luckperms.extension.rest.bind.event;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import me.lucko.luckperms.extension.rest.bind.SerializerUtils;
 import net.luckperms.api.event.messaging.CustomMessageReceiveEvent;
 
 import java.io.IOException;
@@ -36,16 +37,9 @@ public class CustomMessageReceiveEventSerializer extends JsonSerializer<CustomMe
 
     @Override
     public void serialize(CustomMessageReceiveEvent value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        gen.writeStartObject();
+        SerializerUtils.writeStringFieldIfPresent(gen, "channelId", value.getChannelId());
+        SerializerUtils.writeStringFieldIfPresent(gen, "payload", value.getPayload());
+        gen.writeEndObject();
     }
-
-    record Model(String channelId, String payload) {
-        static Model from(CustomMessageReceiveEvent event) {
-            return new Model(
-                    event.getChannelId(),
-                    event.getPayload()
-            );
-        }
-    }
-
 }
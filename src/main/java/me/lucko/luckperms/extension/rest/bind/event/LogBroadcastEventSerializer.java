@@ -28,7 +28,8 @@ package me.lucko.luckperms.extension.rest.bind.event;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.actionlog.Action;
+import me.lucko.luckperms.extension.rest.bind.ActionSerializer;
+import me.lucko.luckperms.extension.rest.bind.SerializerUtils;
 import net.luckperms.api.event.log.LogBroadcastEvent;
 
 import java.io.IOException;
@@ -37,16 +38,12 @@ public class LogBroadcastEventSerializer extends JsonSerializer<LogBroadcastEven
 
     @Override
     public void serialize(LogBroadcastEvent value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
-    }
-
-    record Model(Action entry, LogBroadcastEvent.Origin origin) {
-        static Model from(LogBroadcastEvent event) {
-            return new Model(
-                    event.getEntry(),
-                    event.getOrigin()
-            );
+        gen.writeStartObject();
+        if (value.getEntry() != null) {
+            gen.writeFieldName("entry");
+            ActionSerializer.write(value.getEntry(), gen);
         }
+        SerializerUtils.writeEnumFieldIfPresent(gen, "origin", value.getOrigin());
+        gen.writeEndObject();
     }
-
 }
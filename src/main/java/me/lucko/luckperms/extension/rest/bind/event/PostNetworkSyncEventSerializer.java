@@ -28,30 +28,20 @@ package me.lucko.luckperms.extension.rest.bind.event;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.actionlog.Action;
-import net.luckperms.api.event.log.LogBroadcastEvent;
+import me.lucko.luckperms.extension.rest.bind.SerializerUtils;
 import net.luckperms.api.event.sync.PostNetworkSyncEvent;
-import net.luckperms.api.event.sync.SyncType;
 
 import java.io.IOException;
-import java.util.UUID;
 
 public class PostNetworkSyncEventSerializer extends JsonSerializer<PostNetworkSyncEvent> {
 
     @Override
     public void serialize(PostNetworkSyncEvent value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        gen.writeStartObject();
+        SerializerUtils.writeUuidFieldIfPresent(gen, "syncId", value.getSyncId());
+        SerializerUtils.writeEnumFieldIfPresent(gen, "type", value.getType());
+        gen.writeBooleanField("didSyncOccur", value.didSyncOccur());
+        SerializerUtils.writeUuidFieldIfPresent(gen, "specificUserUniqueId", value.getSpecificUserUniqueId());
+        gen.writeEndObject();
     }
-
-    record Model(UUID syncId, SyncType type, boolean didSyncOccur, UUID specificUserUniqueId) {
-        static Model from(PostNetworkSyncEvent event) {
-            return new Model(
-                    event.getSyncId(),
-                    event.getType(),
-                    event.didSyncOccur(),
-                    event.getSpecificUserUniqueId()
-            );
-        }
-    }
-
 }
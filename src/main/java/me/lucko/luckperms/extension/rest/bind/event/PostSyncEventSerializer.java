@@ -28,8 +28,6 @@ package me.lucko.luckperms.extension.rest.bind.event;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.actionlog.Action;
-import net.luckperms.api.event.log.LogBroadcastEvent;
 import net.luckperms.api.event.sync.PostSyncEvent;
 
 import java.io.IOException;
@@ -38,13 +36,7 @@ public class PostSyncEventSerializer extends JsonSerializer<PostSyncEvent> {
 
     @Override
     public void serialize(PostSyncEvent value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        gen.writeStartObject();
+        gen.writeEndObject();
     }
-
-    record Model() {
-        static Model from(PostSyncEvent event) {
-            return new Model();
-        }
-    }
-
 }
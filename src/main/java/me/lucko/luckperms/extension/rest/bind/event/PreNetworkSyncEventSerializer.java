@@ -28,28 +28,19 @@ package me.lucko.luckperms.extension.rest.bind.event;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import me.lucko.luckperms.extension.rest.bind.SerializerUtils;
 import net.luckperms.api.event.sync.PreNetworkSyncEvent;
-import net.luckperms.api.event.sync.SyncType;
 
 import java.io.IOException;
-import java.util.UUID;
 
 public class PreNetworkSyncEventSerializer extends JsonSerializer<PreNetworkSyncEvent> {
 
     @Override
     public void serialize(PreNetworkSyncEvent value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        gen.writeStartObject();
+        SerializerUtils.writeUuidFieldIfPresent(gen, "syncId", value.getSyncId());
+        SerializerUtils.writeEnumFieldIfPresent(gen, "type", value.getType());
+        SerializerUtils.writeUuidFieldIfPresent(gen, "specificUserUniqueId", value.getSpecificUserUniqueId());
+        gen.writeEndObject();
     }
-
-    record Model(UUID syncId, SyncType type, UUID specificUserUniqueId) {
-        static Model from(PreNetworkSyncEvent event) {
-            return new Model(
-                    event.getSyncId(),
-                    event.getType(),
-                    event.getSpecificUserUniqueId()
-            );
-        }
-    }
-
 }
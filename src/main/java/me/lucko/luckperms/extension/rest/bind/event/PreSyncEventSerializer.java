@@ -28,7 +28,6 @@ package me.lucko.luckperms.extension.rest.bind.event;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import net.luckperms.api.event.sync.PostSyncEvent;
 import net.luckperms.api.event.sync.PreSyncEvent;
 
 import java.io.IOException;
@@ -37,13 +36,7 @@ public class PreSyncEventSerializer extends JsonSerializer<PreSyncEvent> {
 
     @Override
     public void serialize(PreSyncEvent value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
-        gen.writePOJO(Model.from(value));
+        gen.writeStartObject();
+        gen.writeEndObject();
     }
-
-    record Model() {
-        static Model from(PreSyncEvent event) {
-            return new Model();
-        }
-    }
-
 }
@@ -0,0 +1,189 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import net.luckperms.api.context.Context;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.group.GroupDeleteEvent;
+import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.track.Track;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes entity tags ({@code ETag}s) for users, groups, tracks and node lists, so that
+ * polls for unchanged data can be answered with {@code 304 Not Modified} before anything
+ * is serialized.
+ *
+ * <p>A tag is a SHA-256 digest of the entity's own data (its nodes, and fields such as the
+ * username), which is cheap compared to serializing it and is correct however the data was
+ * loaded. A real digest is used rather than combining {@code hashCode}s, since those collide
+ * far too easily (e.g. the strings {@code "Aa"} and {@code "BB"}) for a client to rely on.
+ * Users and groups also show data inherited from their parent groups, so their tags include
+ * a generation number that is increased whenever any group's data is recalculated or
+ * deleted, and when LuckPerms syncs with storage or the network.</p>
+ *
+ * <p>Tags also include an id chosen at startup, so they are never reused across restarts.</p>
+ */
+public class EntityTags implements AutoCloseable {
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final AtomicLong generation = new AtomicLong();
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
+
+    public EntityTags(EventBus eventBus) {
+        this.subscriptions.add(eventBus.subscribe(GroupDataRecalculateEvent.class, e -> this.generation.incrementAndGet()));
+        this.subscriptions.add(eventBus.subscribe(GroupDeleteEvent.class, e -> this.generation.incrementAndGet()));
+        this.subscriptions.add(eventBus.subscribe(PostSyncEvent.class, e -> this.generation.incrementAndGet()));
+        this.subscriptions.add(eventBus.subscribe(PostNetworkSyncEvent.class, e -> this.generation.incrementAndGet()));
+    }
+
+    public String user(User user) {
+        Digest digest = new Digest();
+        digest.nodes(user.getNodes());
+        digest.string(user.getUniqueId().toString());
+        digest.string(user.getUsername());
+        digest.string(user.getPrimaryGroup());
+        return tag(this.generation.get(), digest);
+    }
+
+    public String group(Group group) {
+        Digest digest = new Digest();
+        digest.nodes(group.getNodes());
+        digest.string(group.getName());
+        digest.string(group.getDisplayName());
+        digest.number(group.getWeight().orElse(0));
+        return tag(this.generation.get(), digest);
+    }
+
+    public String track(Track track) {
+        Digest digest = new Digest();
+        digest.string(track.getName());
+        for (String group : track.getGroups()) {
+            digest.string(group);
+        }
+        return tag(0, digest);
+    }
+
+    public String nodes(Collection<Node> nodes) {
+        Digest digest = new Digest();
+        digest.nodes(nodes);
+        return tag(0, digest);
+    }
+
+    private String tag(long generation, Digest digest) {
+        // weak, as the same data may be sent with or without compression
+        return "W/\"" + this.instance + "-" + generation + "-" + digest.finish() + "\"";
+    }
+
+    /**
+     * A SHA-256 digest of an entity's data.
+     *
+     * <p>Every value is written with its length (or a marker for null) first, so
+     * different data can't produce the same input, e.g. by moving characters from
+     * one field into the next.</p>
+     */
+    private static final class Digest {
+        private static final HexFormat HEX = HexFormat.of();
+
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[Long.BYTES];
+
+        Digest() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        void number(long value) {
+            for (int i = 0; i < Long.BYTES; i++) {
+                this.buffer[i] = (byte) (value >>> (56 - 8 * i));
+            }
+            this.digest.update(this.buffer);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                number(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            number(bytes.length);
+            this.digest.update(bytes);
+        }
+
+        void nodes(Collection<Node> nodes) {
+            number(nodes.size());
+            for (Node node : nodes) {
+                string(node.getKey());
+                number(node.getValue() ? 1 : 0);
+                Instant expiry = node.getExpiry();
+                number(expiry == null ? -1 : expiry.getEpochSecond());
+
+                // context sets aren't guaranteed to iterate in a fixed order
+                List<String> contexts = new ArrayList<>();
+                for (Context context : node.getContexts()) {
+                    contexts.add(context.getKey() + '=' + context.getValue());
+                }
+                contexts.sort(null);
+                number(contexts.size());
+                for (String context : contexts) {
+                    string(context);
+                }
+            }
+        }
+
+        String finish() {
+            // 128 bits is plenty to tell versions of the same entity apart
+            return HEX.formatHex(this.digest.digest(), 0, 16);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (EventSubscription<?> subscription : this.subscriptions) {
+            subscription.close();
+        }
+        this.subscriptions.clear();
+    }
+}
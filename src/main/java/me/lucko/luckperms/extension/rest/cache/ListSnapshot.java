@@ -0,0 +1,228 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.LuckPermsEvent;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A snapshot of the list of loaded groups or tracks, with its JSON forms serialized once
+ * and shared, so that listing requests don't need any per-request serialization.
+ *
+ * <p>The list itself is fixed when the snapshot is built, but the entities in it are
+ * the live objects, not copies. Changes to them invalidate the snapshot (as long as the
+ * right events were registered), so the next request sees a new one.</p>
+ *
+ * <p>The snapshot is built on first use, and thrown away when one of the events it was
+ * told about fires, or when {@link #invalidate()} is called after a REST mutation. The
+ * next request then builds a new one, so a burst of changes only causes one rebuild.</p>
+ *
+ * @param <T> the entity type
+ */
+public class ListSnapshot<T> implements AutoCloseable {
+    private final String instance = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Supplier<CompletableFuture<? extends Collection<T>>> loader;
+    private final Function<T, String> nameFunction;
+    private final ObjectMapper objectMapper;
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
+
+    private long version = 0;
+    private CompletableFuture<Snapshot<T>> current = null;
+
+    public ListSnapshot(Supplier<CompletableFuture<? extends Collection<T>>> loader, Function<T, String> nameFunction, ObjectMapper objectMapper) {
+        this.loader = loader;
+        this.nameFunction = nameFunction;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Invalidates the snapshot whenever an event of the given type fires.
+     *
+     * @param eventBus the event bus
+     * @param eventClass the event type
+     * @param filter a filter for which events should invalidate the snapshot
+     * @param <E> the event type
+     * @return this snapshot
+     */
+    public <E extends LuckPermsEvent> ListSnapshot<T> invalidateOn(EventBus eventBus, Class<E> eventClass, Predicate<? super E> filter) {
+        this.subscriptions.add(eventBus.subscribe(eventClass, e -> {
+            if (filter.test(e)) {
+                invalidate();
+            }
+        }));
+        return this;
+    }
+
+    public <E extends LuckPermsEvent> ListSnapshot<T> invalidateOn(EventBus eventBus, Class<E> eventClass) {
+        return invalidateOn(eventBus, eventClass, e -> true);
+    }
+
+    /**
+     * Gets the current snapshot, building it if necessary.
+     *
+     * @return the snapshot
+     */
+    public synchronized CompletableFuture<Snapshot<T>> get() {
+        if (this.current == null) {
+            long version = this.version;
+            CompletableFuture<Snapshot<T>> future = this.loader.get().thenApply(entities -> build(version, entities));
+            this.current = future;
+            future.whenComplete((result, ex) -> {
+                if (ex != null) {
+                    // don't keep serving a failed load
+                    clear(future);
+                }
+            });
+        }
+        return this.current;
+    }
+
+    public synchronized void invalidate() {
+        this.version++;
+        this.current = null;
+    }
+
+    private synchronized void clear(CompletableFuture<Snapshot<T>> future) {
+        if (this.current == future) {
+            this.current = null;
+        }
+    }
+
+    private Snapshot<T> build(long version, Collection<T> entities) {
+        List<T> sorted = entities.stream()
+                .sorted(Comparator.comparing(this.nameFunction))
+                .toList();
+        List<String> names = sorted.stream().map(this.nameFunction).toList();
+
+        return new Snapshot<>(
+                sorted,
+                serialize(this.objectMapper, names),
+                "W/\"" + this.instance + "-" + version + "\"",
+                this.objectMapper
+        );
+    }
+
+    private static byte[] serialize(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (EventSubscription<?> subscription : this.subscriptions) {
+            subscription.close();
+        }
+        this.subscriptions.clear();
+        invalidate();
+    }
+
+    /**
+     * A snapshot of every entity, sorted by name.
+     *
+     * <p>The names are serialized when the snapshot is built. The expanded form is much
+     * larger and only needed by some clients, so is serialized on first use instead.</p>
+     *
+     * @param <T> the entity type
+     */
+    public static final class Snapshot<T> {
+        private final List<T> entities;
+        private final byte[] names;
+        private final String etag;
+        private final ObjectMapper objectMapper;
+        private volatile byte[] expanded;
+
+        Snapshot(List<T> entities, byte[] names, String etag, ObjectMapper objectMapper) {
+            this.entities = entities;
+            this.names = names;
+            this.etag = etag;
+            this.objectMapper = objectMapper;
+        }
+
+        /**
+         * Gets the entities, sorted by name.
+         *
+         * @return the entities
+         */
+        public List<T> entities() {
+            return this.entities;
+        }
+
+        /**
+         * Gets the JSON array of the entities' names.
+         *
+         * @return the serialized names
+         */
+        public byte[] names() {
+            return this.names;
+        }
+
+        /**
+         * Gets the JSON array of the entities themselves, serializing it if this is the
+         * first time it has been needed.
+         *
+         * @return the serialized entities
+         */
+        public byte[] expanded() {
+            byte[] expanded = this.expanded;
+            if (expanded == null) {
+                synchronized (this) {
+                    expanded = this.expanded;
+                    if (expanded == null) {
+                        expanded = serialize(this.objectMapper, this.entities);
+                        this.expanded = expanded;
+                    }
+                }
+            }
+            return expanded;
+        }
+
+        /**
+         * Gets the entity tag of this snapshot.
+         *
+         * @return the entity tag
+         */
+        public String etag() {
+            return this.etag;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.group.GroupDeleteEvent;
+import net.luckperms.api.event.node.NodeMutateEvent;
+import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.group.GroupManager;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.matcher.NodeMatcher;
+import net.luckperms.api.query.QueryOptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory index of the users that are members of each group.
+ *
+ * <p>A group's members are found with a storage search the first time they are requested,
+ * and are then kept current by node events for users changed on this server, and by
+ * reloading the user named in a network sync for users changed elsewhere. A full sync
+ * clears the index, so each group is searched again when it is next requested.</p>
+ *
+ * <p>A user is a direct member of a group if they have a {@code true} inheritance node for
+ * it, in any context.</p>
+ */
+public class MembershipIndex implements AutoCloseable {
+    private final UserManager userManager;
+    private final GroupManager groupManager;
+    private final Map<String, CompletableFuture<Set<UUID>>> members = new ConcurrentHashMap<>();
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
+
+    public MembershipIndex(UserManager userManager, GroupManager groupManager, EventBus eventBus) {
+        this.userManager = userManager;
+        this.groupManager = groupManager;
+
+        // node add, remove and clear events
+        this.subscriptions.add(eventBus.subscribe(NodeMutateEvent.class, e -> {
+            if (e.isUser()) {
+                update((User) e.getTarget());
+            }
+        }));
+        this.subscriptions.add(eventBus.subscribe(GroupDeleteEvent.class, e -> this.members.remove(e.getGroupName())));
+        this.subscriptions.add(eventBus.subscribe(PostSyncEvent.class, e -> invalidateAll()));
+        this.subscriptions.add(eventBus.subscribe(PostNetworkSyncEvent.class, e -> {
+            UUID uniqueId = e.getSpecificUserUniqueId();
+            if (uniqueId != null) {
+                this.userManager.loadUser(uniqueId).thenAccept(this::update);
+            } else {
+                invalidateAll();
+            }
+        }));
+    }
+
+    /**
+     * Gets the direct members of a group.
+     *
+     * @param group the group name
+     * @return the unique ids of the members
+     */
+    public CompletableFuture<Set<UUID>> getDirectMembers(String group) {
+        CompletableFuture<Set<UUID>> future = this.members.get(group);
+        if (future != null) {
+            return future;
+        }
+
+        // register the future first and search afterwards, rather than in computeIfAbsent,
+        // since the search may complete (and clean up after itself) on this thread
+        CompletableFuture<Set<UUID>> newFuture = new CompletableFuture<>();
+        future = this.members.putIfAbsent(group, newFuture);
+        if (future != null) {
+            return future;
+        }
+        search(group, newFuture);
+        return newFuture;
+    }
+
+    /**
+     * Gets the members of a group, including those who inherit it through other groups.
+     *
+     * @param group the group name
+     * @return the unique ids of the members
+     */
+    public CompletableFuture<Set<UUID>> getMembers(String group) {
+        List<CompletableFuture<Set<UUID>>> futures = new ArrayList<>();
+        futures.add(getDirectMembers(group));
+        for (Group other : this.groupManager.getLoadedGroups()) {
+            if (!other.getName().equals(group) && inherits(other, group)) {
+                futures.add(getDirectMembers(other.getName()));
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(x -> {
+            Set<UUID> union = new HashSet<>();
+            for (CompletableFuture<Set<UUID>> future : futures) {
+                union.addAll(future.join());
+            }
+            return union;
+        });
+    }
+
+    private static boolean inherits(Group holder, String group) {
+        for (Group parent : holder.getInheritedGroups(QueryOptions.nonContextual())) {
+            if (parent.getName().equals(group)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void search(String group, CompletableFuture<Set<UUID>> future) {
+        CompletableFuture<Map<UUID, Collection<Node>>> search;
+        try {
+            search = this.userManager.searchAll(NodeMatcher.key(inheritanceKey(group)));
+        } catch (RuntimeException e) {
+            search = CompletableFuture.failedFuture(e);
+        }
+
+        search.whenComplete((results, ex) -> {
+            if (ex != null) {
+                // don't keep a failed search around
+                this.members.remove(group, future);
+                future.completeExceptionally(ex);
+                return;
+            }
+
+            Set<UUID> members = ConcurrentHashMap.newKeySet();
+            for (Map.Entry<UUID, Collection<Node>> entry : results.entrySet()) {
+                if (entry.getValue().stream().anyMatch(Node::getValue)) {
+                    members.add(entry.getKey());
+                }
+            }
+            future.complete(members);
+        });
+    }
+
+    private void update(User user) {
+        UUID uniqueId = user.getUniqueId();
+        this.members.forEach((group, future) -> future.thenAccept(members -> {
+            // read the user's nodes when applied, so that updates queued behind a search
+            // still end up reflecting the latest state whatever order they run in
+            if (isDirectMember(user, group)) {
+                members.add(uniqueId);
+            } else {
+                members.remove(uniqueId);
+            }
+        }));
+    }
+
+    private static boolean isDirectMember(User user, String group) {
+        String key = inheritanceKey(group);
+        for (Node node : user.getNodes()) {
+            if (node.getValue() && node.getKey().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String inheritanceKey(String group) {
+        return "group." + group;
+    }
+
+    public void invalidateAll() {
+        this.members.clear();
+    }
+
+    @Override
+    public void close() {
+        for (EventSubscription<?> subscription : this.subscriptions) {
+            subscription.close();
+        }
+        this.subscriptions.clear();
+        invalidateAll();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import me.lucko.luckperms.extension.rest.RestConfig;
+import me.lucko.luckperms.extension.rest.model.PermissionCheckResult;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.PermissionHolder;
+import net.luckperms.api.query.QueryOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of permission check results, keyed by holder, permission and query options.
+ *
+ * <p>When a request doesn't specify any query options, the holder's own query options
+ * are used as the key, so that the same check is always cached under the same options.</p>
+ *
+ * <p>A user's results are invalidated when their data is recalculated. Everything is
+ * invalidated when any group's data is recalculated (as users may inherit from it),
+ * and when LuckPerms syncs with storage or the network.</p>
+ */
+public class PermissionCheckCache implements AutoCloseable {
+    private static final int MAX_HOLDERS = RestConfig.getInteger("cache.permissionChecks.maxHolders", 10000);
+    private static final int MAX_CHECKS_PER_HOLDER = RestConfig.getInteger("cache.permissionChecks.maxPerHolder", 1000);
+
+    private final Cache<String, Map<Check, PermissionCheckResult>> cache;
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PermissionCheckCache(EventBus eventBus) {
+        if (MAX_HOLDERS <= 0) {
+            this.cache = null;
+            return;
+        }
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAX_HOLDERS)
+                .build();
+
+        this.subscriptions.add(eventBus.subscribe(UserDataRecalculateEvent.class, e -> invalidate(e.getUser())));
+        this.subscriptions.add(eventBus.subscribe(GroupDataRecalculateEvent.class, e -> invalidateAll()));
+        this.subscriptions.add(eventBus.subscribe(PostSyncEvent.class, e -> invalidateAll()));
+        this.subscriptions.add(eventBus.subscribe(PostNetworkSyncEvent.class, e -> invalidateAll()));
+    }
+
+    /**
+     * Checks a permission against the given holder, using a cached result if there is one.
+     *
+     * @param holder the holder to check
+     * @param permission the permission to check
+     * @param options the query options to check with, or null to use the holder's own
+     * @return the result
+     */
+    public PermissionCheckResult check(PermissionHolder holder, String permission, QueryOptions options) {
+        if (options == null) {
+            options = holder.getQueryOptions();
+        }
+
+        if (this.cache == null) {
+            return query(holder, permission, options);
+        }
+
+        Map<Check, PermissionCheckResult> checks = this.cache.get(key(holder), k -> new ConcurrentHashMap<>());
+        Check check = new Check(permission, options);
+
+        PermissionCheckResult result = checks.get(check);
+        if (result != null) {
+            this.hits.increment();
+            return result;
+        }
+
+        this.misses.increment();
+        result = query(holder, permission, options);
+        if (checks.size() >= MAX_CHECKS_PER_HOLDER) {
+            checks.clear();
+        }
+        checks.put(check, result);
+        return result;
+    }
+
+    private static PermissionCheckResult query(PermissionHolder holder, String permission, QueryOptions options) {
+        return PermissionCheckResult.from(holder.getCachedData().getPermissionData(options).queryPermission(permission));
+    }
+
+    private static String key(PermissionHolder holder) {
+        PermissionHolder.Identifier identifier = holder.getIdentifier();
+        return identifier.getType() + "/" + identifier.getName();
+    }
+
+    public void invalidate(PermissionHolder holder) {
+        if (this.cache != null) {
+            this.cache.invalidate(key(holder));
+        }
+    }
+
+    public void invalidateAll() {
+        if (this.cache != null) {
+            this.cache.invalidateAll();
+        }
+    }
+
+    public long getSize() {
+        return this.cache == null ? 0 : this.cache.estimatedSize();
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    @Override
+    public void close() {
+        for (EventSubscription<?> subscription : this.subscriptions) {
+            subscription.close();
+        }
+        this.subscriptions.clear();
+        invalidateAll();
+    }
+
+    private record Check(String permission, QueryOptions options) { }
+}
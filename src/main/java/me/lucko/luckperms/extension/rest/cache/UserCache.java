@@ -0,0 +1,146 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import me.lucko.luckperms.extension.rest.RestConfig;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.node.NodeMutateEvent;
+import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
+import net.luckperms.api.model.user.User;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * A bounded cache of {@link User}s loaded by the REST API.
+ *
+ * <p>LuckPerms only keeps users loaded while they are online, so requests for
+ * offline users would otherwise always go to storage. This cache holds on to the
+ * loaded handles for a short time instead.</p>
+ *
+ * <p>Entries are invalidated when the user's nodes are changed, when LuckPerms
+ * syncs with storage, and when an update for the user is received from the network.
+ * The cache is disabled unless a maximum size is configured.</p>
+ *
+ * <p>Data recalculations aren't a reason to invalidate: LuckPerms recalculates a user
+ * whenever it loads them (including for this cache's own misses) and whenever a parent
+ * group changes, and the cached handle is updated in place either way.</p>
+ */
+public class UserCache implements AutoCloseable {
+    private static final int MAX_SIZE = RestConfig.getInteger("cache.users.maxSize", 0);
+    private static final int TTL = RestConfig.getInteger("cache.users.ttl", 60);
+
+    private final AsyncCache<UUID, User> cache;
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
+
+    public UserCache(EventBus eventBus) {
+        if (MAX_SIZE <= 0) {
+            this.cache = null;
+            return;
+        }
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(MAX_SIZE)
+                .recordStats();
+        if (TTL > 0) {
+            builder.expireAfterWrite(Duration.ofSeconds(TTL));
+        }
+        this.cache = builder.buildAsync();
+
+        // node add, remove and clear events
+        this.subscriptions.add(eventBus.subscribe(NodeMutateEvent.class, e -> {
+            if (e.isUser()) {
+                invalidate(((User) e.getTarget()).getUniqueId());
+            }
+        }));
+        this.subscriptions.add(eventBus.subscribe(PostSyncEvent.class, e -> invalidateAll()));
+        this.subscriptions.add(eventBus.subscribe(PostNetworkSyncEvent.class, e -> {
+            UUID uniqueId = e.getSpecificUserUniqueId();
+            if (uniqueId != null) {
+                invalidate(uniqueId);
+            } else {
+                invalidateAll();
+            }
+        }));
+    }
+
+    public boolean isEnabled() {
+        return this.cache != null;
+    }
+
+    /**
+     * Gets the cached user with the given unique id, loading it if necessary.
+     *
+     * @param uniqueId the unique id of the user
+     * @param loader the function used to load the user if it isn't cached
+     * @return a future encapsulating the user
+     */
+    public CompletableFuture<User> get(UUID uniqueId, Function<UUID, CompletableFuture<User>> loader) {
+        if (this.cache == null) {
+            return loader.apply(uniqueId);
+        }
+        // callers get their own copy, so one of them cancelling doesn't affect the others
+        return this.cache.get(uniqueId, (id, executor) -> loader.apply(id)).copy();
+    }
+
+    public void invalidate(UUID uniqueId) {
+        if (this.cache != null) {
+            this.cache.synchronous().invalidate(uniqueId);
+        }
+    }
+
+    public void invalidateAll() {
+        if (this.cache != null) {
+            this.cache.synchronous().invalidateAll();
+        }
+    }
+
+    public long getSize() {
+        return this.cache == null ? 0 : this.cache.synchronous().estimatedSize();
+    }
+
+    public CacheStats getStats() {
+        return this.cache == null ? CacheStats.empty() : this.cache.synchronous().stats();
+    }
+
+    @Override
+    public void close() {
+        for (EventSubscription<?> subscription : this.subscriptions) {
+            subscription.close();
+        }
+        this.subscriptions.clear();
+        invalidateAll();
+    }
+}
@@ -30,6 +30,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import me.lucko.luckperms.extension.rest.model.ActionPage;
 import me.lucko.luckperms.extension.rest.model.ActionRequest;
+import me.lucko.luckperms.extension.rest.util.Responses;
 import net.luckperms.api.actionlog.Action;
 import net.luckperms.api.actionlog.ActionLogger;
 import net.luckperms.api.actionlog.filter.ActionFilter;
@@ -56,7 +57,7 @@ public class ActionController {
         if (pageSize == null && pageNumber == null) {
             CompletableFuture<ActionPage> future = this.actionLogger.queryActions(filter)
                     .thenApply(list -> new ActionPage(list, list.size()));
-            ctx.future(future);
+            Responses.future(ctx, future);
         } else {
             if (pageSize == null) {
                 ctx.status(400).result("pageSize query parameter is required when pageNumber is provided");
@@ -68,7 +69,7 @@ public class ActionController {
 
             CompletableFuture<ActionPage> future = this.actionLogger.queryActions(filter, pageSize, pageNumber)
                     .thenApply(ActionPage::from);
-            ctx.future(future);
+            Responses.future(ctx, future);
         }
     }
 
@@ -77,7 +78,7 @@ public class ActionController {
         Action req = ctx.bodyAsClass(Action.class);
 
         CompletableFuture<Void> future = this.actionLogger.submit(req);
-        ctx.future(future, result -> ctx.status(202).result("ok"));
+        Responses.future(ctx, future, result -> ctx.status(202).result("ok"));
     }
 
 }
@@ -25,8 +25,12 @@
 
 package me.lucko.luckperms.extension.rest.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.javalin.http.sse.SseClient;
+import me.lucko.luckperms.extension.rest.RestConfig;
+import me.lucko.luckperms.extension.rest.util.BufferedSseClient;
 import net.luckperms.api.event.EventBus;
 import net.luckperms.api.event.EventSubscription;
 import net.luckperms.api.event.LuckPermsEvent;
@@ -36,57 +40,178 @@ import net.luckperms.api.event.sync.PostNetworkSyncEvent;
 import net.luckperms.api.event.sync.PostSyncEvent;
 import net.luckperms.api.event.sync.PreNetworkSyncEvent;
 import net.luckperms.api.event.sync.PreSyncEvent;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class EventController implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventController.class);
+
+    private static final int QUEUE_SIZE = RestConfig.getInteger("event.queueSize", 256);
+    private static final int WRITER_THREADS = RestConfig.getInteger("event.writerThreads", 16);
+    private static final int MAX_WRITER_THREADS = RestConfig.getInteger("event.maxWriterThreads", 1024);
 
-    private final EventBus eventBus;
-    private final Set<SseClient> clients;
+    private final ObjectMapper objectMapper;
+    private final BufferedSseClient.OverflowPolicy overflowPolicy;
+    private final Set<BufferedSseClient> clients;
+    private final Map<Class<? extends LuckPermsEvent>, Channel> channels;
+    private final List<EventSubscription<?>> subscriptions;
     private final AtomicLong pingCounter;
+    private final LongAdder droppedEvents;
 
     private final ScheduledExecutorService executor;
+    private final ExecutorService writer;
 
-    public EventController(EventBus eventBus) {
-        this.eventBus = eventBus;
+    public EventController(EventBus eventBus, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.overflowPolicy = parseOverflowPolicy(RestConfig.getString("event.overflowPolicy", "drop_oldest"));
         this.clients = ConcurrentHashMap.newKeySet();
+        this.channels = new LinkedHashMap<>();
+        this.subscriptions = new ArrayList<>();
         this.pingCounter = new AtomicLong();
+        this.droppedEvents = new LongAdder();
+
+        // each event type has a single subscription, shared by all of its clients
+        this.subscribe(eventBus, "log-broadcast", LogBroadcastEvent.class);
+        this.subscribe(eventBus, "post-network-sync", PostNetworkSyncEvent.class);
+        this.subscribe(eventBus, "post-sync", PostSyncEvent.class);
+        this.subscribe(eventBus, "pre-network-sync", PreNetworkSyncEvent.class);
+        this.subscribe(eventBus, "pre-sync", PreSyncEvent.class);
+        this.subscribe(eventBus, "custom-message-receive", CustomMessageReceiveEvent.class);
 
         this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
                 .setNameFormat("luckperms-rest-event-controller-%d")
                 .build());
         this.executor.scheduleAtFixedRate(this::tick, 10, 10, TimeUnit.SECONDS);
+
+        // clients are written to from a separate pool, so one stalled socket can't hold up
+        // the delivery of events to other clients. the pool grows rather than queues, so a
+        // stalled client only ever holds up its own thread (until its write times out)
+        this.writer = BufferedSseClient.newWriterPool(WRITER_THREADS, MAX_WRITER_THREADS);
+    }
+
+    private static BufferedSseClient.OverflowPolicy parseOverflowPolicy(String value) {
+        try {
+            return BufferedSseClient.OverflowPolicy.parse(value);
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("[REST] Unknown event overflow policy '" + value + "', using drop_oldest instead");
+            return BufferedSseClient.OverflowPolicy.DROP_OLDEST;
+        }
+    }
+
+    private void subscribe(EventBus eventBus, String name, Class<? extends LuckPermsEvent> eventClass) {
+        Channel channel = new Channel(name, ConcurrentHashMap.newKeySet());
+        this.channels.put(eventClass, channel);
+        this.subscriptions.add(eventBus.subscribe(eventClass, event -> broadcast(channel, event)));
+    }
+
+    private void broadcast(Channel channel, LuckPermsEvent event) {
+        if (channel.clients().isEmpty()) {
+            return;
+        }
+
+        // serialize once, then share the same buffer between all clients
+        byte[] data;
+        try {
+            data = this.objectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("[REST] Unable to serialize " + channel.name() + " event", e);
+            return;
+        }
+
+        for (BufferedSseClient client : channel.clients()) {
+            client.send("message", data);
+        }
     }
 
     public void tick() {
-        long pingId = this.pingCounter.incrementAndGet();
-        for (SseClient client : this.clients) {
-            client.sendEvent("ping", pingId);
+        byte[] data = Long.toString(this.pingCounter.incrementAndGet()).getBytes(StandardCharsets.UTF_8);
+        for (BufferedSseClient client : this.clients) {
+            client.send("ping", data);
         }
     }
 
     @Override
     public void close() throws Exception {
         this.executor.shutdown();
-        for (SseClient client : this.clients) {
-            client.close();
+        for (EventSubscription<?> subscription : this.subscriptions) {
+            subscription.close();
+        }
+        for (BufferedSseClient client : this.clients) {
+            client.disconnect();
+        }
+        this.writer.shutdown();
+    }
+
+    /**
+     * Gets the number of connected clients.
+     *
+     * @return the client count
+     */
+    public int getClientCount() {
+        return this.clients.size();
+    }
+
+    /**
+     * Gets the number of connected clients for each event stream, keyed by the stream name.
+     *
+     * @return the client counts
+     */
+    public Map<String, Integer> getClientCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Channel channel : this.channels.values()) {
+            counts.put(channel.name(), channel.clients().size());
         }
+        return counts;
+    }
+
+    /**
+     * Gets the total number of events waiting to be written to clients.
+     *
+     * @return the total queue depth
+     */
+    public long getQueuedEvents() {
+        long queued = 0;
+        for (BufferedSseClient client : this.clients) {
+            queued += client.queued();
+        }
+        return queued;
+    }
+
+    /**
+     * Gets the number of events that have been dropped because a client's queue was full.
+     *
+     * @return the dropped event count
+     */
+    public long getDroppedEvents() {
+        return this.droppedEvents.sum();
     }
 
     private void handle(SseClient client, Class<? extends LuckPermsEvent> eventClass) {
-        this.clients.add(client);
+        Channel channel = this.channels.get(eventClass);
+        BufferedSseClient bufferedClient = new BufferedSseClient(client, this.writer, QUEUE_SIZE, this.overflowPolicy, this.droppedEvents);
+        this.clients.add(bufferedClient);
+        channel.clients().add(bufferedClient);
         CompletableFuture<Object> future = new CompletableFuture<>();
-        EventSubscription<?> subscription = this.eventBus.subscribe(eventClass, client::sendEvent);
         client.onClose(() -> {
             future.complete(null);
-            subscription.close();
-            this.clients.remove(client);
+            channel.clients().remove(bufferedClient);
+            bufferedClient.close();
+            this.clients.remove(bufferedClient);
         });
         client.ctx.future(future);
 
@@ -122,4 +247,6 @@ public class EventController implements AutoCloseable {
         handle(client, CustomMessageReceiveEvent.class);
     }
 
+    private record Channel(String name, Set<BufferedSseClient> clients) { }
+
 }
@@ -27,48 +27,85 @@ package me.lucko.luckperms.extension.rest.controller;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import me.lucko.luckperms.extension.rest.RestConfig;
+import me.lucko.luckperms.extension.rest.bind.GroupSerializer;
+import me.lucko.luckperms.extension.rest.cache.EntityTags;
+import me.lucko.luckperms.extension.rest.cache.ListSnapshot;
+import me.lucko.luckperms.extension.rest.cache.MembershipIndex;
+import me.lucko.luckperms.extension.rest.cache.PermissionCheckCache;
+import me.lucko.luckperms.extension.rest.model.CursorPage;
 import me.lucko.luckperms.extension.rest.model.GroupSearchResult;
 import me.lucko.luckperms.extension.rest.model.PermissionCheckRequest;
 import me.lucko.luckperms.extension.rest.model.PermissionCheckResult;
 import me.lucko.luckperms.extension.rest.model.SearchRequest;
+import me.lucko.luckperms.extension.rest.util.CursorPagination;
+import me.lucko.luckperms.extension.rest.util.Deadline;
+import me.lucko.luckperms.extension.rest.util.JsonStreaming;
 import me.lucko.luckperms.extension.rest.util.ParamUtils;
+import me.lucko.luckperms.extension.rest.util.RequestTimings;
+import me.lucko.luckperms.extension.rest.util.Responses;
+import me.lucko.luckperms.extension.rest.util.SingleFlight;
 import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.group.GroupCreateEvent;
+import net.luckperms.api.event.group.GroupDeleteEvent;
+import net.luckperms.api.event.node.NodeMutateEvent;
+import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
 import net.luckperms.api.messaging.MessagingService;
 import net.luckperms.api.model.data.TemporaryNodeMergeStrategy;
 import net.luckperms.api.model.group.Group;
 import net.luckperms.api.model.group.GroupManager;
 import net.luckperms.api.node.Node;
 import net.luckperms.api.node.matcher.NodeMatcher;
-import net.luckperms.api.query.QueryOptions;
 
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public class GroupController implements PermissionHolderController {
+public class GroupController implements PermissionHolderController, AutoCloseable {
     private static final boolean CACHE = RestConfig.getBoolean("cache.groups", true);
 
+    // highest weight first, as LuckPerms orders groups; the sort is stable, so ties stay sorted by name
+    private static final Comparator<Group> BY_WEIGHT = Comparator.comparingInt((Group group) -> group.getWeight().orElse(0)).reversed();
+
     private final GroupManager groupManager;
     private final MessagingService messagingService;
     private final ObjectMapper objectMapper;
+    private final PermissionCheckCache permissionCheckCache;
+    private final EntityTags entityTags;
+    private final MembershipIndex membershipIndex;
+    private final SingleFlight<String, Group> groupLoads = new SingleFlight<>();
+    private final ListSnapshot<Group> snapshot;
 
-    public GroupController(GroupManager groupManager, MessagingService messagingService, ObjectMapper objectMapper) {
+    public GroupController(GroupManager groupManager, MessagingService messagingService, ObjectMapper objectMapper, PermissionCheckCache permissionCheckCache, EntityTags entityTags, MembershipIndex membershipIndex, EventBus eventBus) {
         this.groupManager = groupManager;
         this.messagingService = messagingService;
         this.objectMapper = objectMapper;
+        this.permissionCheckCache = permissionCheckCache;
+        this.entityTags = entityTags;
+        this.membershipIndex = membershipIndex;
+        this.snapshot = new ListSnapshot<>(this::loadGroupsCached, Group::getName, objectMapper)
+                .invalidateOn(eventBus, GroupCreateEvent.class)
+                .invalidateOn(eventBus, GroupDeleteEvent.class)
+                // any group's nodes can change the metadata of the groups inheriting from it
+                .invalidateOn(eventBus, NodeMutateEvent.class, NodeMutateEvent::isGroup)
+                .invalidateOn(eventBus, PostSyncEvent.class)
+                .invalidateOn(eventBus, PostNetworkSyncEvent.class);
     }
 
     private CompletableFuture<Group> loadGroupCached(String name) {
         if (CACHE) {
             return CompletableFuture.completedFuture(this.groupManager.getGroup(name));
         } else {
-            return this.groupManager.loadGroup(name).thenApply(opt -> opt.orElse(null));
+            return this.groupLoads.load(name, n -> this.groupManager.loadGroup(n).thenApply(opt -> opt.orElse(null)));
         }
     }
 
@@ -80,6 +117,10 @@ public class GroupController implements PermissionHolderController {
         }
     }
 
+    public SingleFlight<String, Group> getGroupLoads() {
+        return this.groupLoads;
+    }
+
     // POST /group
     @Override
     public void create(Context ctx) {
@@ -90,8 +131,9 @@ public class GroupController implements PermissionHolderController {
             return;
         }
 
-        CompletableFuture<Group> future = this.groupManager.createAndLoadGroup(body.name);
-        ctx.future(future, result -> ctx.status(201).json(result));
+        CompletableFuture<Group> future = this.groupManager.createAndLoadGroup(body.name)
+                .whenComplete((result, ex) -> this.snapshot.invalidate());
+        Responses.future(ctx, future, result -> ctx.status(201).json(result));
     }
 
     record CreateReq(@JsonProperty(required = true) String name) { }
@@ -99,12 +141,49 @@ public class GroupController implements PermissionHolderController {
     // GET /group
     @Override
     public void getAll(Context ctx) {
-        CompletableFuture<List<String>> future = loadGroupsCached()
-                .thenApply(groups -> groups.stream()
-                        .map(Group::getName)
-                        .collect(Collectors.toList())
-                );
-        ctx.future(future);
+        String expandParam = ctx.queryParam("expand");
+        Set<GroupSerializer.Field> expand = expandParam == null || expandParam.equalsIgnoreCase("false")
+                ? null
+                : GroupSerializer.Field.parse(expandParam);
+        String filter = ctx.queryParam("filter");
+        String sort = ctx.queryParam("sort");
+        boolean sortByWeight = sort != null && switch (sort) {
+            case "name" -> false;
+            case "weight" -> true;
+            default -> throw new IllegalArgumentException("Unknown sort: " + sort);
+        };
+
+        Responses.future(ctx, this.snapshot.get(), snapshot -> {
+            if (Responses.notModified(ctx, snapshot.etag())) {
+                return;
+            }
+
+            // the snapshot is already serialized in the common cases
+            boolean plain = filter == null && !sortByWeight && !JsonStreaming.isNdjson(ctx);
+            if (plain && expand == null) {
+                ctx.contentType("application/json").result(snapshot.names());
+                return;
+            }
+            if (plain && expand.equals(GroupSerializer.Field.ALL)) {
+                ctx.contentType("application/json").result(snapshot.expanded());
+                return;
+            }
+
+            Stream<Group> groups = snapshot.entities().stream();
+            if (filter != null) {
+                String lowerFilter = filter.toLowerCase(Locale.ROOT);
+                groups = groups.filter(group -> group.getName().contains(lowerFilter));
+            }
+            if (sortByWeight) {
+                groups = groups.sorted(BY_WEIGHT);
+            }
+
+            if (expand == null) {
+                JsonStreaming.write(ctx, this.objectMapper, groups.map(Group::getName).iterator());
+            } else {
+                JsonStreaming.write(ctx, this.objectMapper, groups.iterator(), (group, gen) -> GroupSerializer.write(group, gen, expand));
+            }
+        });
     }
 
     // GET /group/search
@@ -116,7 +195,7 @@ public class GroupController implements PermissionHolderController {
                         .map(e -> new GroupSearchResult(e.getKey(), e.getValue()))
                         .toList()
                 );
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
     // GET /group/{id}
@@ -124,10 +203,10 @@ public class GroupController implements PermissionHolderController {
     public void get(Context ctx) {
         String name = ctx.pathParam("id");
         CompletableFuture<Group> future = loadGroupCached(name);
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
-            } else {
+            } else if (!Responses.notModified(ctx, this.entityTags.group(result))) {
                 ctx.json(result);
             }
         });
@@ -144,17 +223,19 @@ public class GroupController implements PermissionHolderController {
     public void delete(Context ctx) {
         String name = ctx.pathParam("id");
 
-        CompletableFuture<Boolean> future = this.groupManager.loadGroup(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Boolean> future = this.groupManager.loadGroup(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 return this.groupManager.deleteGroup(opt.get()).thenApply(x -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return true;
                 });
             } else {
                 return CompletableFuture.completedFuture(false);
             }
-        });
-        ctx.future(future, result -> {
+        }));
+        Responses.future(ctx, future, result -> {
             if (result == Boolean.FALSE) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -163,16 +244,67 @@ public class GroupController implements PermissionHolderController {
         });
     }
 
+    // GET /group/{id}/members
+    public void members(Context ctx) {
+        CompletableFuture<Set<UUID>> future = loadMembers(ctx);
+        if (CursorPagination.isRequested(ctx)) {
+            CursorPagination.Request request = CursorPagination.parse(ctx);
+            CompletableFuture<CursorPage<UUID>> pageFuture = future
+                    .thenApply(members -> members == null ? null : CursorPagination.page(members, uniqueId -> uniqueId, request));
+            Responses.future(ctx, pageFuture, result -> {
+                if (result == null) {
+                    ctx.status(404).result("Group doesn't exist");
+                } else {
+                    ctx.json(result);
+                }
+            });
+            return;
+        }
+
+        Responses.future(ctx, future, result -> {
+            if (result == null) {
+                ctx.status(404).result("Group doesn't exist");
+            } else {
+                JsonStreaming.write(ctx, this.objectMapper, result.iterator());
+            }
+        });
+    }
+
+    // GET /group/{id}/members/count
+    public void membersCount(Context ctx) {
+        CompletableFuture<Integer> future = loadMembers(ctx).thenApply(members -> members == null ? null : members.size());
+        Responses.future(ctx, future, result -> {
+            if (result == null) {
+                ctx.status(404).result("Group doesn't exist");
+            } else {
+                ctx.json(result);
+            }
+        });
+    }
+
+    private CompletableFuture<Set<UUID>> loadMembers(Context ctx) {
+        String name = ctx.pathParam("id");
+        boolean inherited = ctx.queryParamAsClass("inherited", Boolean.class).getOrDefault(false);
+        return loadGroupCached(name).thenCompose(group -> {
+            if (group == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return inherited
+                    ? this.membershipIndex.getMembers(group.getName())
+                    : this.membershipIndex.getDirectMembers(group.getName());
+        });
+    }
+
     // GET /group/{id}/nodes
     @Override
     public void nodesGet(Context ctx) {
         String name = ctx.pathParam("id");
         CompletableFuture<Collection<Node>> future = loadGroupCached(name)
                 .thenApply(group -> group == null ? null : group.getNodes());
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
-            } else {
+            } else if (!Responses.notModified(ctx, this.entityTags.nodes(result))) {
                 ctx.json(result);
             }
         });
@@ -182,10 +314,11 @@ public class GroupController implements PermissionHolderController {
     @Override
     public void nodesAddMultiple(Context ctx) throws JsonProcessingException {
         String name = ctx.pathParam("id");
-        List<Node> nodes = this.objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+        List<Node> nodes = ParamUtils.bodyAsNodeList(this.objectMapper, ctx);
         TemporaryNodeMergeStrategy mergeStrategy = ParamUtils.queryParamAsTemporaryNodeMergeStrategy(this.objectMapper, ctx);
 
-        CompletableFuture<Collection<Node>> future = this.groupManager.loadGroup(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Collection<Node>> future = this.groupManager.loadGroup(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Group group = opt.get();
                 for (Node node : nodes) {
@@ -193,14 +326,15 @@ public class GroupController implements PermissionHolderController {
                 }
                 return this.groupManager.saveGroup(group).thenApply(v -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return group.getNodes();
                 });
             } else {
                 return CompletableFuture.completedFuture(null);
             }
-        });
+        }));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -216,9 +350,10 @@ public class GroupController implements PermissionHolderController {
         String name = ctx.pathParam("id");
         List<Node> nodes = ctx.body().isEmpty()
                 ? null
-                : this.objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+                : ParamUtils.bodyAsNodeList(this.objectMapper, ctx);
 
-        CompletableFuture<Boolean> future = this.groupManager.loadGroup(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Boolean> future = this.groupManager.loadGroup(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Group group = opt.get();
                 if (nodes == null) {
@@ -230,13 +365,14 @@ public class GroupController implements PermissionHolderController {
                 }
                 return this.groupManager.saveGroup(group).thenApply(x -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return true;
                 });
             } else {
                 return CompletableFuture.completedFuture(false);
             }
-        });
-        ctx.future(future, result -> {
+        }));
+        Responses.future(ctx, future, result -> {
             if (result == Boolean.FALSE) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -252,20 +388,22 @@ public class GroupController implements PermissionHolderController {
         Node node = ctx.bodyAsClass(Node.class);
         TemporaryNodeMergeStrategy mergeStrategy = ParamUtils.queryParamAsTemporaryNodeMergeStrategy(this.objectMapper, ctx);
 
-        CompletableFuture<Collection<Node>> future = this.groupManager.loadGroup(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Collection<Node>> future = this.groupManager.loadGroup(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Group group = opt.get();
                 group.data().add(node, mergeStrategy);
                 return this.groupManager.saveGroup(group).thenApply(v -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return group.getNodes();
                 });
             } else {
                 return CompletableFuture.completedFuture(null);
             }
-        });
+        }));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -278,9 +416,10 @@ public class GroupController implements PermissionHolderController {
     @Override
     public void nodesSet(Context ctx) throws JsonProcessingException {
         String name = ctx.pathParam("id");
-        List<Node> nodes = this.objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+        List<Node> nodes = ParamUtils.bodyAsNodeList(this.objectMapper, ctx);
 
-        CompletableFuture<Collection<Node>> future = this.groupManager.loadGroup(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Collection<Node>> future = this.groupManager.loadGroup(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Group group = opt.get();
                 group.data().clear();
@@ -289,14 +428,15 @@ public class GroupController implements PermissionHolderController {
                 }
                 return this.groupManager.saveGroup(group).thenApply(v -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return group.getNodes();
                 });
             } else {
                 return CompletableFuture.completedFuture(null);
             }
-        });
+        }));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -309,9 +449,10 @@ public class GroupController implements PermissionHolderController {
     @Override
     public void metaGet(Context ctx) {
         String name = ctx.pathParam("id");
+        RequestTimings timings = RequestTimings.get(ctx);
         CompletableFuture<CachedMetaData> future = loadGroupCached(name)
-                .thenApply(group -> group == null ? null : group.getCachedData().getMetaData());
-        ctx.future(future, result -> {
+                .thenApply(group -> group == null ? null : timings.time(RequestTimings.Phase.CACHED_DATA, () -> group.getCachedData().getMetaData()));
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -329,9 +470,10 @@ public class GroupController implements PermissionHolderController {
             throw new IllegalArgumentException("Missing permission");
         }
 
+        RequestTimings timings = RequestTimings.get(ctx);
         CompletableFuture<PermissionCheckResult> future = loadGroupCached(name)
-                .thenApply(group -> group == null ? null : PermissionCheckResult.from(group.getCachedData().getPermissionData().queryPermission(permission)));
-        ctx.future(future, result -> {
+                .thenApply(group -> group == null ? null : timings.time(RequestTimings.Phase.CACHED_DATA, () -> this.permissionCheckCache.check(group, permission, null)));
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -349,16 +491,11 @@ public class GroupController implements PermissionHolderController {
             throw new IllegalArgumentException("Missing permission");
         }
 
-        CompletableFuture<PermissionCheckResult> future = this.groupManager.loadGroup(name)
-                .thenApply(opt -> opt.map(group -> {
-                    QueryOptions options = req.queryOptions();
-                    if (options == null) {
-                        options = group.getQueryOptions();
-                    }
-                    return PermissionCheckResult.from(group.getCachedData().getPermissionData(options).queryPermission(req.permission()));
-                }).orElse(null));
+        RequestTimings timings = RequestTimings.get(ctx);
+        CompletableFuture<PermissionCheckResult> future = loadGroupCached(name)
+                .thenApply(group -> group == null ? null : timings.time(RequestTimings.Phase.CACHED_DATA, () -> this.permissionCheckCache.check(group, req.permission(), req.queryOptions())));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Group doesn't exist");
             } else {
@@ -378,4 +515,9 @@ public class GroupController implements PermissionHolderController {
     public void demote(Context ctx) throws Exception {
         throw new UnsupportedOperationException();
     }
+
+    @Override
+    public void close() {
+        this.snapshot.close();
+    }
 }
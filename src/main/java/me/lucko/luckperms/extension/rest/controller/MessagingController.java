@@ -29,6 +29,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
+import me.lucko.luckperms.extension.rest.util.Responses;
 import net.luckperms.api.messaging.MessagingService;
 import net.luckperms.api.model.user.User;
 import net.luckperms.api.model.user.UserManager;
@@ -82,7 +83,7 @@ public class MessagingController {
                 ? CompletableFuture.completedFuture(u)
                 : this.userManager.loadUser(uniqueId);
 
-        ctx.future(userFuture.thenAccept(user -> {
+        Responses.future(ctx, userFuture.thenAccept(user -> {
             if (user != null) {
                 this.messagingService.pushUserUpdate(user);
             }
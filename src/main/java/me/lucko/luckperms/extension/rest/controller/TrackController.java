@@ -27,16 +27,27 @@ package me.lucko.luckperms.extension.rest.controller;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import me.lucko.luckperms.extension.rest.RestConfig;
+import me.lucko.luckperms.extension.rest.cache.EntityTags;
+import me.lucko.luckperms.extension.rest.cache.ListSnapshot;
 import me.lucko.luckperms.extension.rest.model.GroupSearchResult;
 import me.lucko.luckperms.extension.rest.model.PermissionCheckRequest;
 import me.lucko.luckperms.extension.rest.model.PermissionCheckResult;
 import me.lucko.luckperms.extension.rest.model.SearchRequest;
+import me.lucko.luckperms.extension.rest.util.Deadline;
+import me.lucko.luckperms.extension.rest.util.JsonStreaming;
 import me.lucko.luckperms.extension.rest.util.ParamUtils;
+import me.lucko.luckperms.extension.rest.util.Responses;
+import me.lucko.luckperms.extension.rest.util.SingleFlight;
 import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.sync.PostNetworkSyncEvent;
+import net.luckperms.api.event.sync.PostSyncEvent;
+import net.luckperms.api.event.track.TrackCreateEvent;
+import net.luckperms.api.event.track.TrackDeleteEvent;
+import net.luckperms.api.event.track.mutate.TrackMutateEvent;
 import net.luckperms.api.messaging.MessagingService;
 import net.luckperms.api.model.data.TemporaryNodeMergeStrategy;
 import net.luckperms.api.model.group.Group;
@@ -50,30 +61,41 @@ import net.luckperms.api.track.TrackManager;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-public class TrackController {
+public class TrackController implements AutoCloseable {
     private static final boolean CACHE = RestConfig.getBoolean("cache.tracks", true);
 
     private final TrackManager trackManager;
     private final GroupManager groupManager;
     private final MessagingService messagingService;
     private final ObjectMapper objectMapper;
+    private final EntityTags entityTags;
+    private final SingleFlight<String, Track> trackLoads = new SingleFlight<>();
+    private final ListSnapshot<Track> snapshot;
 
-    public TrackController(TrackManager trackManager, GroupManager groupManager, MessagingService messagingService, ObjectMapper objectMapper) {
+    public TrackController(TrackManager trackManager, GroupManager groupManager, MessagingService messagingService, ObjectMapper objectMapper, EntityTags entityTags, EventBus eventBus) {
         this.trackManager = trackManager;
         this.groupManager = groupManager;
         this.messagingService = messagingService;
         this.objectMapper = objectMapper;
+        this.entityTags = entityTags;
+        this.snapshot = new ListSnapshot<>(this::loadTracksCached, Track::getName, objectMapper)
+                .invalidateOn(eventBus, TrackCreateEvent.class)
+                .invalidateOn(eventBus, TrackDeleteEvent.class)
+                .invalidateOn(eventBus, TrackMutateEvent.class)
+                .invalidateOn(eventBus, PostSyncEvent.class)
+                .invalidateOn(eventBus, PostNetworkSyncEvent.class);
     }
 
     private CompletableFuture<Track> loadTrackCached(String name) {
         if (CACHE) {
             return CompletableFuture.completedFuture(this.trackManager.getTrack(name));
         } else {
-            return this.trackManager.loadTrack(name).thenApply(opt -> opt.orElse(null));
+            return this.trackLoads.load(name, n -> this.trackManager.loadTrack(n).thenApply(opt -> opt.orElse(null)));
         }
     }
 
@@ -85,6 +107,10 @@ public class TrackController {
         }
     }
 
+    public SingleFlight<String, Track> getTrackLoads() {
+        return this.trackLoads;
+    }
+
     // POST /track
     public void create(Context ctx) {
         CreateReq body = ctx.bodyAsClass(CreateReq.class);
@@ -94,30 +120,44 @@ public class TrackController {
             return;
         }
 
-        CompletableFuture<Track> future = this.trackManager.createAndLoadTrack(body.name);
-        ctx.future(future, result -> ctx.status(201).json(result));
+        CompletableFuture<Track> future = this.trackManager.createAndLoadTrack(body.name)
+                .whenComplete((result, ex) -> this.snapshot.invalidate());
+        Responses.future(ctx, future, result -> ctx.status(201).json(result));
     }
 
     record CreateReq(@JsonProperty(required = true) String name) { }
 
     // GET /track
     public void getAll(Context ctx) {
-        CompletableFuture<List<String>> future = loadTracksCached()
-                .thenApply(tracks -> tracks.stream()
-                        .map(Track::getName)
-                        .collect(Collectors.toList())
-                );
-        ctx.future(future);
+        // tracks only have one field to expand, so any value of ?expand returns full objects
+        boolean expand = ctx.queryParam("expand") != null && !ctx.queryParam("expand").equalsIgnoreCase("false");
+        String filter = ctx.queryParam("filter");
+
+        Responses.future(ctx, this.snapshot.get(), snapshot -> {
+            if (Responses.notModified(ctx, snapshot.etag())) {
+                return;
+            }
+
+            if (filter == null && !JsonStreaming.isNdjson(ctx)) {
+                ctx.contentType("application/json").result(expand ? snapshot.expanded() : snapshot.names());
+                return;
+            }
+
+            String lowerFilter = filter == null ? "" : filter.toLowerCase(Locale.ROOT);
+            Stream<Track> tracks = snapshot.entities().stream()
+                    .filter(track -> track.getName().contains(lowerFilter));
+            JsonStreaming.write(ctx, this.objectMapper, expand ? tracks.iterator() : tracks.map(Track::getName).iterator());
+        });
     }
 
     // GET /track/{id}
     public void get(Context ctx) {
         String name = ctx.pathParam("id");
         CompletableFuture<Track> future = loadTrackCached(name);
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Track doesn't exist");
-            } else {
+            } else if (!Responses.notModified(ctx, this.entityTags.track(result))) {
                 ctx.json(result);
             }
         });
@@ -138,7 +178,8 @@ public class TrackController {
             groups.add(g);
         }
 
-        CompletableFuture<Track> future = this.trackManager.loadTrack(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Track> future = this.trackManager.loadTrack(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Track track = opt.get();
                 track.clearGroups();
@@ -147,14 +188,15 @@ public class TrackController {
                 }
                 return this.trackManager.saveTrack(track).thenApply(v -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return track;
                 });
             } else {
                 return CompletableFuture.completedFuture(null);
             }
-        });
+        }));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404).result("Track doesn't exist");
             } else {
@@ -169,17 +211,19 @@ public class TrackController {
     public void delete(Context ctx) {
         String name = ctx.pathParam("id");
 
-        CompletableFuture<Boolean> future = this.trackManager.loadTrack(name).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<Boolean> future = this.trackManager.loadTrack(name).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 return this.trackManager.deleteTrack(opt.get()).thenApply(x -> {
                     this.messagingService.pushUpdate();
+                    this.snapshot.invalidate();
                     return true;
                 });
             } else {
                 return CompletableFuture.completedFuture(false);
             }
-        });
-        ctx.future(future, result -> {
+        }));
+        Responses.future(ctx, future, result -> {
             if (result == Boolean.FALSE) {
                 ctx.status(404).result("Track doesn't exist");
             } else {
@@ -187,4 +231,9 @@ public class TrackController {
             }
         });
     }
+
+    @Override
+    public void close() {
+        this.snapshot.close();
+    }
 }
@@ -27,17 +27,29 @@ package me.lucko.luckperms.extension.rest.controller;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import me.lucko.luckperms.extension.rest.RestConfig;
+import me.lucko.luckperms.extension.rest.cache.EntityTags;
+import me.lucko.luckperms.extension.rest.cache.PermissionCheckCache;
+import me.lucko.luckperms.extension.rest.cache.UserCache;
+import me.lucko.luckperms.extension.rest.model.BulkPermissionCheckRequest;
+import me.lucko.luckperms.extension.rest.model.BulkPermissionCheckResult;
+import me.lucko.luckperms.extension.rest.model.CursorPage;
 import me.lucko.luckperms.extension.rest.model.PermissionCheckRequest;
 import me.lucko.luckperms.extension.rest.model.PermissionCheckResult;
 import me.lucko.luckperms.extension.rest.model.SearchRequest;
 import me.lucko.luckperms.extension.rest.model.TrackRequest;
 import me.lucko.luckperms.extension.rest.model.UserLookupResult;
 import me.lucko.luckperms.extension.rest.model.UserSearchResult;
+import me.lucko.luckperms.extension.rest.util.CursorPagination;
+import me.lucko.luckperms.extension.rest.util.Deadline;
+import me.lucko.luckperms.extension.rest.util.JsonStreaming;
 import me.lucko.luckperms.extension.rest.util.ParamUtils;
+import me.lucko.luckperms.extension.rest.util.RequestTimings;
+import me.lucko.luckperms.extension.rest.util.Responses;
+import me.lucko.luckperms.extension.rest.util.SingleFlight;
+import me.lucko.luckperms.extension.rest.util.UserMutationPipeline;
 import net.luckperms.api.cacheddata.CachedMetaData;
 import net.luckperms.api.context.ContextSet;
 import net.luckperms.api.context.ImmutableContextSet;
@@ -49,31 +61,43 @@ import net.luckperms.api.model.user.User;
 import net.luckperms.api.model.user.UserManager;
 import net.luckperms.api.node.Node;
 import net.luckperms.api.node.matcher.NodeMatcher;
-import net.luckperms.api.query.QueryOptions;
 import net.luckperms.api.track.DemotionResult;
 import net.luckperms.api.track.PromotionResult;
 import net.luckperms.api.track.Track;
 import net.luckperms.api.track.TrackManager;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
 public class UserController implements PermissionHolderController {
     private static final boolean CACHE = RestConfig.getBoolean("cache.users", true);
+    private static final int BULK_MAX_CHECKS = RestConfig.getInteger("permissionCheck.bulkMaxChecks", 10000);
 
     private final UserManager userManager;
     private final TrackManager trackManager;
     private final MessagingService messagingService;
     private final ObjectMapper objectMapper;
+    private final UserCache userCache;
+    private final PermissionCheckCache permissionCheckCache;
+    private final EntityTags entityTags;
+    private final UserMutationPipeline mutationPipeline;
+    private final SingleFlight<UUID, User> userLoads = new SingleFlight<>();
 
-    public UserController(UserManager userManager, TrackManager trackManager, MessagingService messagingService, ObjectMapper objectMapper) {
+    public UserController(UserManager userManager, TrackManager trackManager, MessagingService messagingService, ObjectMapper objectMapper, UserCache userCache, PermissionCheckCache permissionCheckCache, EntityTags entityTags) {
         this.userManager = userManager;
         this.trackManager = trackManager;
         this.messagingService = messagingService;
         this.objectMapper = objectMapper;
+        this.userCache = userCache;
+        this.permissionCheckCache = permissionCheckCache;
+        this.entityTags = entityTags;
+        this.mutationPipeline = new UserMutationPipeline(userManager, messagingService, userCache);
     }
 
     private UUID parseUuid(String s) throws JsonProcessingException {
@@ -91,8 +115,13 @@ public class UserController implements PermissionHolderController {
             if (user != null) {
                 return CompletableFuture.completedFuture(user);
             }
+            return this.userCache.get(uniqueId, id -> this.userLoads.load(id, this.userManager::loadUser));
         }
-        return this.userManager.loadUser(uniqueId);
+        return this.userLoads.load(uniqueId, this.userManager::loadUser);
+    }
+
+    public SingleFlight<UUID, User> getUserLoads() {
+        return this.userLoads;
     }
 
     // POST /user
@@ -101,7 +130,7 @@ public class UserController implements PermissionHolderController {
         CreateReq body = ctx.bodyAsClass(CreateReq.class);
 
         CompletableFuture<PlayerSaveResult> future = this.userManager.savePlayerData(body.uniqueId, body.username);
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (((PlayerSaveResult) result).includes(PlayerSaveResult.Outcome.CLEAN_INSERT)) {
                 ctx.status(201);
             }
@@ -114,20 +143,44 @@ public class UserController implements PermissionHolderController {
     // GET /user
     @Override
     public void getAll(Context ctx) {
+        if (CursorPagination.isRequested(ctx)) {
+            CursorPagination.Request request = CursorPagination.parse(ctx);
+            CompletableFuture<CursorPage<UUID>> future = this.userManager.getUniqueUsers()
+                    .thenApply(uniqueIds -> CursorPagination.page(uniqueIds, uniqueId -> uniqueId, request));
+            Responses.future(ctx, future);
+            return;
+        }
+
         CompletableFuture<Set<UUID>> future = this.userManager.getUniqueUsers();
-        ctx.future(future);
+        Responses.future(ctx, future, result -> JsonStreaming.write(ctx, this.objectMapper, ((Set<?>) result).iterator()));
+    }
+
+    // GET /user/count
+    public void count(Context ctx) {
+        CompletableFuture<Integer> future = this.userManager.getUniqueUsers().thenApply(Set::size);
+        Responses.future(ctx, future);
     }
 
     // GET /user/search
     @Override
     public void search(Context ctx) throws Exception {
         NodeMatcher<? extends Node> matcher = SearchRequest.parse(ctx);
+        if (CursorPagination.isRequested(ctx)) {
+            CursorPagination.Request request = CursorPagination.parse(ctx);
+            CompletableFuture<CursorPage<UserSearchResult>> future = this.userManager.<Node>searchAll(matcher)
+                    .thenApply(map -> CursorPagination.page(map.entrySet(), Map.Entry::getKey, request)
+                            .map(e -> new UserSearchResult(e.getKey(), e.getValue()))
+                    );
+            Responses.future(ctx, future);
+            return;
+        }
+
         CompletableFuture<List<UserSearchResult>> future = this.userManager.<Node>searchAll(matcher)
                 .thenApply(map -> map.entrySet().stream()
                         .map(e -> new UserSearchResult(e.getKey(), e.getValue()))
                         .toList()
                 );
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
     // GET /user/lookup
@@ -153,7 +206,7 @@ public class UserController implements PermissionHolderController {
             throw new IllegalArgumentException("Must specify username or unique id");
         }
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404);
             } else {
@@ -166,10 +219,10 @@ public class UserController implements PermissionHolderController {
     @Override
     public void get(Context ctx) throws JsonProcessingException {
         UUID uniqueId = pathParamAsUuid(ctx);
-        ctx.future(loadUserCached(uniqueId), result -> {
+        Responses.future(ctx, loadUserCached(uniqueId), result -> {
             if (result == null) {
                 ctx.status(404);
-            } else {
+            } else if (!Responses.notModified(ctx, this.entityTags.user(result))) {
                 ctx.json(result);
             }
         });
@@ -180,7 +233,9 @@ public class UserController implements PermissionHolderController {
     public void update(Context ctx) throws JsonProcessingException {
         UUID uniqueId = pathParamAsUuid(ctx);
         UpdateReq body = ctx.bodyAsClass(UpdateReq.class);
-        ctx.future(this.userManager.savePlayerData(uniqueId, body.username), result -> ctx.result("ok"));
+        CompletableFuture<PlayerSaveResult> future = this.userManager.savePlayerData(uniqueId, body.username)
+                .whenComplete((result, ex) -> this.userCache.invalidate(uniqueId));
+        Responses.future(ctx, future, result -> ctx.result("ok"));
     }
 
     record UpdateReq(@JsonProperty(required = true) String username) { }
@@ -191,20 +246,19 @@ public class UserController implements PermissionHolderController {
         UUID uniqueId = pathParamAsUuid(ctx);
         boolean playerDataOnly = ctx.queryParamAsClass("playerDataOnly", Boolean.class).getOrDefault(false);
 
+        Deadline deadline = Responses.deadline(ctx);
         CompletableFuture<Void> future;
         if (playerDataOnly) {
             future = this.userManager.deletePlayerData(uniqueId);
         } else {
-            future = this.userManager.loadUser(uniqueId).thenCompose(user -> {
+            future = this.mutationPipeline.submit(uniqueId, deadline, user -> {
                 user.data().clear();
-                return this.userManager.saveUser(user).thenCompose(ignored -> {
-                    this.messagingService.pushUserUpdate(user);
-                    return this.userManager.deletePlayerData(uniqueId);
-                });
-            });
+                return null;
+            }).thenCompose(deadline.guard(ignored -> this.userManager.deletePlayerData(uniqueId)))
+                    .whenComplete((result, ex) -> this.userCache.invalidate(uniqueId));
         }
 
-        ctx.future(future, result -> ctx.result("ok"));
+        Responses.future(ctx, future, result -> ctx.result("ok"));
     }
 
     // GET /user/{id}/nodes
@@ -212,10 +266,10 @@ public class UserController implements PermissionHolderController {
     public void nodesGet(Context ctx) throws JsonProcessingException {
         UUID uniqueId = pathParamAsUuid(ctx);
         CompletableFuture<Collection<Node>> future = loadUserCached(uniqueId).thenApply(PermissionHolder::getNodes);
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404);
-            } else {
+            } else if (!Responses.notModified(ctx, this.entityTags.nodes(result))) {
                 ctx.json(result);
             }
         });
@@ -225,19 +279,16 @@ public class UserController implements PermissionHolderController {
     @Override
     public void nodesAddMultiple(Context ctx) throws JsonProcessingException {
         UUID uniqueId = pathParamAsUuid(ctx);
-        List<Node> nodes = this.objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+        List<Node> nodes = ParamUtils.bodyAsNodeList(this.objectMapper, ctx);
         TemporaryNodeMergeStrategy mergeStrategy = ParamUtils.queryParamAsTemporaryNodeMergeStrategy(this.objectMapper, ctx);
 
-        CompletableFuture<Collection<Node>> future = this.userManager.loadUser(uniqueId).thenCompose(user -> {
+        CompletableFuture<Collection<Node>> future = this.mutationPipeline.submit(uniqueId, Responses.deadline(ctx), user -> {
             for (Node node : nodes) {
                 user.data().add(node, mergeStrategy);
             }
-            return this.userManager.saveUser(user).thenApply(v -> {
-                this.messagingService.pushUserUpdate(user);
-                return user.getNodes();
-            });
+            return user.getNodes();
         });
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
 
@@ -247,9 +298,9 @@ public class UserController implements PermissionHolderController {
         UUID uniqueId = pathParamAsUuid(ctx);
         List<Node> nodes = ctx.body().isEmpty()
                 ? null
-                : this.objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+                : ParamUtils.bodyAsNodeList(this.objectMapper, ctx);
 
-        CompletableFuture<?> future = this.userManager.loadUser(uniqueId).thenCompose(user -> {
+        CompletableFuture<?> future = this.mutationPipeline.submit(uniqueId, Responses.deadline(ctx), user -> {
             if (nodes == null) {
                 user.data().clear();
             } else {
@@ -257,12 +308,9 @@ public class UserController implements PermissionHolderController {
                     user.data().remove(node);
                 }
             }
-            return this.userManager.saveUser(user).thenApply(v -> {
-                this.messagingService.pushUserUpdate(user);
-                return user.getNodes();
-            });
+            return user.getNodes();
         });
-        ctx.future(future, result -> ctx.result("ok"));
+        Responses.future(ctx, future, result -> ctx.result("ok"));
     }
 
     // POST /user/{id}/nodes
@@ -272,42 +320,37 @@ public class UserController implements PermissionHolderController {
         Node node = ctx.bodyAsClass(Node.class);
         TemporaryNodeMergeStrategy mergeStrategy = ParamUtils.queryParamAsTemporaryNodeMergeStrategy(this.objectMapper, ctx);
 
-        CompletableFuture<Collection<Node>> future = this.userManager.loadUser(uniqueId).thenCompose(user -> {
+        CompletableFuture<Collection<Node>> future = this.mutationPipeline.submit(uniqueId, Responses.deadline(ctx), user -> {
             user.data().add(node, mergeStrategy);
-            return this.userManager.saveUser(user).thenApply(v -> {
-                this.messagingService.pushUserUpdate(user);
-                return user.getNodes();
-            });
+            return user.getNodes();
         });
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
     // PUT /user/{id}/nodes
     @Override
     public void nodesSet(Context ctx) throws JsonProcessingException {
         UUID uniqueId = pathParamAsUuid(ctx);
-        List<Node> nodes = this.objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+        List<Node> nodes = ParamUtils.bodyAsNodeList(this.objectMapper, ctx);
 
-        CompletableFuture<Collection<Node>> future = this.userManager.loadUser(uniqueId).thenCompose(user -> {
+        CompletableFuture<Collection<Node>> future = this.mutationPipeline.submit(uniqueId, Responses.deadline(ctx), user -> {
             user.data().clear();
             for (Node node : nodes) {
                 user.data().add(node);
             }
-            return this.userManager.saveUser(user).thenApply(v -> {
-                this.messagingService.pushUserUpdate(user);
-                return user.getNodes();
-            });
+            return user.getNodes();
         });
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
     // GET /user/{id}/meta
     @Override
     public void metaGet(Context ctx) throws JsonProcessingException {
         UUID uniqueId = pathParamAsUuid(ctx);
+        RequestTimings timings = RequestTimings.get(ctx);
         CompletableFuture<CachedMetaData> future = loadUserCached(uniqueId)
-                .thenApply(user -> user.getCachedData().getMetaData());
-        ctx.future(future);
+                .thenApply(user -> timings.time(RequestTimings.Phase.CACHED_DATA, () -> user.getCachedData().getMetaData()));
+        Responses.future(ctx, future);
     }
 
     // GET /user/{id}/permission-check
@@ -319,11 +362,11 @@ public class UserController implements PermissionHolderController {
             throw new IllegalArgumentException("Missing permission");
         }
 
+        RequestTimings timings = RequestTimings.get(ctx);
         CompletableFuture<PermissionCheckResult> future = loadUserCached(uniqueId)
-                .thenApply(user -> user.getCachedData().getPermissionData().queryPermission(permission))
-                .thenApply(PermissionCheckResult::from);
+                .thenApply(user -> timings.time(RequestTimings.Phase.CACHED_DATA, () -> this.permissionCheckCache.check(user, permission, null)));
 
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
     // POST /user/{id}/permission-check
@@ -335,17 +378,45 @@ public class UserController implements PermissionHolderController {
             throw new IllegalArgumentException("Missing permission");
         }
 
-        CompletableFuture<PermissionCheckResult> future = this.userManager.loadUser(uniqueId)
-                .thenApply(user -> {
-                    QueryOptions options = req.queryOptions();
-                    if (options == null) {
-                        options = user.getQueryOptions();
+        RequestTimings timings = RequestTimings.get(ctx);
+        CompletableFuture<PermissionCheckResult> future = loadUserCached(uniqueId)
+                .thenApply(user -> timings.time(RequestTimings.Phase.CACHED_DATA, () -> this.permissionCheckCache.check(user, req.permission(), req.queryOptions())));
+
+        Responses.future(ctx, future);
+    }
+
+    // POST /user/permission-check/bulk
+    public void permissionCheckBulk(Context ctx) {
+        BulkPermissionCheckRequest req = ctx.bodyAsClass(BulkPermissionCheckRequest.class);
+        if (req.uniqueIds().isEmpty() || req.uniqueIds().contains(null)) {
+            throw new IllegalArgumentException("Missing unique ids");
+        }
+        if (req.permissions().isEmpty() || req.permissions().stream().anyMatch(p -> p == null || p.isEmpty())) {
+            throw new IllegalArgumentException("Missing permission");
+        }
+
+        List<UUID> uniqueIds = req.uniqueIds().stream().distinct().toList();
+        if ((long) uniqueIds.size() * req.permissions().size() > BULK_MAX_CHECKS) {
+            throw new IllegalArgumentException("Too many permission checks, the maximum is " + BULK_MAX_CHECKS);
+        }
+
+        RequestTimings timings = RequestTimings.get(ctx);
+        List<CompletableFuture<User>> users = uniqueIds.stream().map(this::loadUserCached).toList();
+        CompletableFuture<BulkPermissionCheckResult> future = CompletableFuture.allOf(users.toArray(new CompletableFuture[0]))
+                .thenApply(v -> timings.time(RequestTimings.Phase.CACHED_DATA, () -> {
+                    Map<UUID, List<PermissionCheckResult>> results = new LinkedHashMap<>();
+                    for (CompletableFuture<User> userFuture : users) {
+                        User user = userFuture.join();
+                        List<PermissionCheckResult> row = new ArrayList<>(req.permissions().size());
+                        for (String permission : req.permissions()) {
+                            row.add(this.permissionCheckCache.check(user, permission, req.queryOptions()));
+                        }
+                        results.put(user.getUniqueId(), row);
                     }
-                    return user.getCachedData().getPermissionData(options).queryPermission(req.permission());
-                })
-                .thenApply(PermissionCheckResult::from);
+                    return new BulkPermissionCheckResult(req.permissions(), results);
+                }));
 
-        ctx.future(future);
+        Responses.future(ctx, future);
     }
 
     // POST /user/{id}/promote
@@ -359,19 +430,17 @@ public class UserController implements PermissionHolderController {
 
         ContextSet context = req.context() == null ? ImmutableContextSet.empty() : req.context();
 
-        CompletableFuture<PromotionResult> future = this.trackManager.loadTrack(req.track()).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<PromotionResult> future = this.trackManager.loadTrack(req.track()).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Track track = opt.get();
-                return this.userManager.loadUser(uniqueId).thenCompose(user -> {
-                    PromotionResult result = track.promote(user, context);
-                    return this.userManager.saveUser(user).thenApply(x -> result);
-                });
+                return this.mutationPipeline.submit(uniqueId, deadline, user -> track.promote(user, context));
             } else {
                 return CompletableFuture.completedFuture(null);
             }
-        });
+        }));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404);
             } else {
@@ -391,19 +460,17 @@ public class UserController implements PermissionHolderController {
 
         ContextSet context = req.context() == null ? ImmutableContextSet.empty() : req.context();
 
-        CompletableFuture<DemotionResult> future = this.trackManager.loadTrack(req.track()).thenCompose(opt -> {
+        Deadline deadline = Responses.deadline(ctx);
+        CompletableFuture<DemotionResult> future = this.trackManager.loadTrack(req.track()).thenCompose(deadline.guard(opt -> {
             if (opt.isPresent()) {
                 Track track = opt.get();
-                return this.userManager.loadUser(uniqueId).thenCompose(user -> {
-                    DemotionResult result = track.demote(user, context);
-                    return this.userManager.saveUser(user).thenApply(x -> result);
-                });
+                return this.mutationPipeline.submit(uniqueId, deadline, user -> track.demote(user, context));
             } else {
                 return CompletableFuture.completedFuture(null);
             }
-        });
+        }));
 
-        ctx.future(future, result -> {
+        Responses.future(ctx, future, result -> {
             if (result == null) {
                 ctx.status(404);
             } else {
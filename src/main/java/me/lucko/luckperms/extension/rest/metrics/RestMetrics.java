@@ -0,0 +1,251 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.metrics;
+
+import io.javalin.http.Context;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import io.prometheus.client.exporter.common.TextFormat;
+import me.lucko.luckperms.extension.rest.cache.PermissionCheckCache;
+import me.lucko.luckperms.extension.rest.cache.UserCache;
+import me.lucko.luckperms.extension.rest.controller.EventController;
+import me.lucko.luckperms.extension.rest.util.AccessLog;
+import me.lucko.luckperms.extension.rest.util.AdmissionControl;
+import me.lucko.luckperms.extension.rest.util.AdmissionLimiter;
+import me.lucko.luckperms.extension.rest.util.DebouncedMessagingService;
+import me.lucko.luckperms.extension.rest.util.RequestTimings;
+import me.lucko.luckperms.extension.rest.util.RouteClass;
+import me.lucko.luckperms.extension.rest.util.SingleFlight;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects metrics about the REST API and exposes them in the Prometheus format.
+ *
+ * <p>Requests are labelled by the route template they matched (e.g. {@code /user/{id}/nodes})
+ * rather than the raw path, so the number of time series stays bounded.</p>
+ */
+public class RestMetrics {
+    /** The route label used for requests that didn't match any route. */
+    private static final String UNMATCHED_ROUTE = "unmatched";
+
+    private final PrometheusMeterRegistry registry;
+    private final Map<RequestKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<PhaseKey, Timer> phaseTimers = new ConcurrentHashMap<>();
+    private final Map<OutcomeKey, Counter> outcomeCounters = new ConcurrentHashMap<>();
+    private final Map<RouteKey, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public RestMetrics() {
+        this.registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    /**
+     * Called once a request has been matched to a route, just before the route handler runs.
+     *
+     * @param ctx the request context
+     * @param timings the request timings
+     */
+    public void onRouteMatched(Context ctx, RequestTimings timings) {
+        inFlight(new RouteKey(ctx.method(), timings.getRoute())).incrementAndGet();
+    }
+
+    /**
+     * Called after a request has been handled, including any async result.
+     *
+     * @param ctx the request context
+     * @param timings the request timings
+     */
+    public void onRequestEnd(Context ctx, RequestTimings timings) {
+        String route = timings.getRoute();
+        if (route != null) {
+            inFlight(new RouteKey(ctx.method(), route)).decrementAndGet();
+        } else {
+            route = UNMATCHED_ROUTE;
+        }
+
+        RequestKey key = new RequestKey(ctx.method(), route, ctx.status());
+        this.timers.computeIfAbsent(key, k -> Timer.builder("luckperms.rest.requests")
+                .description("The time taken to handle requests")
+                .tags("method", k.method(), "route", k.route(), "status", Integer.toString(k.status()))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(this.registry)
+        ).record(timings.getDuration(), TimeUnit.NANOSECONDS);
+
+        RouteClass routeClass = timings.getRouteClass();
+        if (routeClass != null) {
+            OutcomeKey outcomeKey = new OutcomeKey(routeClass, timings.isTimedOut() ? "timed_out" : "completed");
+            this.outcomeCounters.computeIfAbsent(outcomeKey, k -> Counter.builder("luckperms.rest.requests.outcome")
+                    .description("The number of requests that completed or timed out")
+                    .tags("class", k.routeClass().getId(), "outcome", k.outcome())
+                    .register(this.registry)
+            ).increment();
+        }
+
+        for (RequestTimings.Phase phase : RequestTimings.Phase.values()) {
+            long duration = timings.getPhase(phase);
+            if (duration == 0) {
+                continue;
+            }
+            PhaseKey phaseKey = new PhaseKey(route, phase);
+            this.phaseTimers.computeIfAbsent(phaseKey, k -> Timer.builder("luckperms.rest.requests.phase")
+                    .description("The time spent in each phase of handling requests")
+                    .tags("route", k.route(), "phase", k.phase().getId())
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofNanos(100_000))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(this.registry)
+            ).record(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private AtomicInteger inFlight(RouteKey route) {
+        return this.inFlight.computeIfAbsent(route, k -> {
+            AtomicInteger count = new AtomicInteger();
+            Gauge.builder("luckperms.rest.requests.active", count, AtomicInteger::get)
+                    .description("The number of requests currently being handled")
+                    .tags("method", k.method(), "route", k.route())
+                    .register(this.registry);
+            return count;
+        });
+    }
+
+    // GET /metrics
+    public void scrape(Context ctx) {
+        ctx.contentType(TextFormat.CONTENT_TYPE_004).result(this.registry.scrape());
+    }
+
+    public void bindEvents(EventController eventController) {
+        for (String event : eventController.getClientCounts().keySet()) {
+            Gauge.builder("luckperms.rest.events.clients", eventController, c -> c.getClientCounts().getOrDefault(event, 0))
+                    .description("The number of connected event stream clients")
+                    .tag("event", event)
+                    .register(this.registry);
+        }
+        Gauge.builder("luckperms.rest.events.queued", eventController, EventController::getQueuedEvents)
+                .description("The number of events waiting to be written to clients")
+                .register(this.registry);
+        FunctionCounter.builder("luckperms.rest.events.dropped", eventController, EventController::getDroppedEvents)
+                .description("The number of events dropped because a client's queue was full")
+                .register(this.registry);
+    }
+
+    public void bindUserCache(UserCache userCache) {
+        FunctionCounter.builder("luckperms.rest.cache.hits", userCache, c -> c.getStats().hitCount())
+                .tag("cache", "users")
+                .register(this.registry);
+        FunctionCounter.builder("luckperms.rest.cache.misses", userCache, c -> c.getStats().missCount())
+                .tag("cache", "users")
+                .register(this.registry);
+        FunctionCounter.builder("luckperms.rest.cache.evictions", userCache, c -> c.getStats().evictionCount())
+                .tag("cache", "users")
+                .register(this.registry);
+        Gauge.builder("luckperms.rest.cache.size", userCache, UserCache::getSize)
+                .tag("cache", "users")
+                .register(this.registry);
+    }
+
+    public void bindPermissionCheckCache(PermissionCheckCache permissionCheckCache) {
+        FunctionCounter.builder("luckperms.rest.cache.hits", permissionCheckCache, PermissionCheckCache::getHits)
+                .tag("cache", "permission_checks")
+                .register(this.registry);
+        FunctionCounter.builder("luckperms.rest.cache.misses", permissionCheckCache, PermissionCheckCache::getMisses)
+                .tag("cache", "permission_checks")
+                .register(this.registry);
+        Gauge.builder("luckperms.rest.cache.size", permissionCheckCache, PermissionCheckCache::getSize)
+                .tag("cache", "permission_checks")
+                .register(this.registry);
+    }
+
+    public void bindLoads(String type, SingleFlight<?, ?> loads) {
+        FunctionCounter.builder("luckperms.rest.loads", loads, SingleFlight::getLoads)
+                .description("The number of storage loads started")
+                .tag("type", type)
+                .register(this.registry);
+        FunctionCounter.builder("luckperms.rest.loads.joined", loads, SingleFlight::getJoins)
+                .description("The number of requests that joined a load already in progress")
+                .tag("type", type)
+                .register(this.registry);
+        Gauge.builder("luckperms.rest.loads.active", loads, SingleFlight::getInFlight)
+                .tag("type", type)
+                .register(this.registry);
+    }
+
+    public void bindMessaging(DebouncedMessagingService messagingService) {
+        FunctionCounter.builder("luckperms.rest.messaging.updates.requested", messagingService, DebouncedMessagingService::getRequestedUpdates)
+                .description("The number of network updates requested")
+                .register(this.registry);
+        FunctionCounter.builder("luckperms.rest.messaging.updates.sent", messagingService, DebouncedMessagingService::getSentUpdates)
+                .description("The number of network updates sent, after merging")
+                .register(this.registry);
+    }
+
+    public void bindAdmissionControl(AdmissionControl admissionControl) {
+        for (Map.Entry<RouteClass, AdmissionLimiter> entry : admissionControl.getLimiters().entrySet()) {
+            String routeClass = entry.getKey().getId();
+            AdmissionLimiter limiter = entry.getValue();
+            Gauge.builder("luckperms.rest.limit", limiter, AdmissionLimiter::getLimit)
+                    .description("The current concurrency limit")
+                    .tag("class", routeClass)
+                    .register(this.registry);
+            Gauge.builder("luckperms.rest.limit.active", limiter, AdmissionLimiter::getInFlight)
+                    .description("The number of admitted requests")
+                    .tag("class", routeClass)
+                    .register(this.registry);
+            FunctionCounter.builder("luckperms.rest.limit.rejected", limiter, AdmissionLimiter::getRejected)
+                    .description("The number of requests rejected because the limit was reached")
+                    .tag("class", routeClass)
+                    .register(this.registry);
+        }
+    }
+
+    public void bindAccessLog(AccessLog accessLog) {
+        FunctionCounter.builder("luckperms.rest.accesslog.dropped", accessLog, AccessLog::getDroppedEntries)
+                .description("The number of access log entries dropped because the writer fell behind")
+                .register(this.registry);
+    }
+
+    public void close() {
+        this.registry.close();
+    }
+
+    private record RouteKey(String method, String route) { }
+
+    private record RequestKey(String method, String route, int status) { }
+
+    private record PhaseKey(String route, RequestTimings.Phase phase) { }
+
+    private record OutcomeKey(RouteClass routeClass, String outcome) { }
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import io.javalin.http.Context;
+import org.eclipse.jetty.server.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes an access log to a file without blocking the request threads.
+ *
+ * <p>Requests are recorded into a preallocated ring buffer and formatted and written
+ * by a single background thread. If the writer falls behind and the buffer fills up,
+ * further entries are dropped rather than making requests wait.</p>
+ *
+ * <p>Only a sample of requests is logged, but slow requests and server errors
+ * are always logged.</p>
+ */
+public class AccessLog implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccessLog.class);
+
+    /** How long the writer sleeps for when there is nothing to write */
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Entry[] entries;
+    private final int mask;
+    private final int samplePercent;
+    private final long slowThresholdNanos;
+
+    /** The sequence number of the next entry to be claimed by a request thread */
+    private final AtomicLong claimed = new AtomicLong();
+    /** The sequence number of the next entry to be written by the writer thread */
+    private volatile long written = 0;
+
+    private final LongAdder dropped = new LongAdder();
+    private final Writer writer;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public AccessLog(Path file, int bufferSize, int samplePercent, long slowThresholdMillis) throws IOException {
+        int capacity = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+        this.entries = new Entry[capacity];
+        for (int i = 0; i < capacity; i++) {
+            this.entries[i] = new Entry();
+        }
+        this.mask = capacity - 1;
+        this.samplePercent = samplePercent;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        this.thread = new Thread(this::run, "luckperms-rest-access-log");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param ctx the request context
+     * @param timings the request timings
+     */
+    public void log(Context ctx, RequestTimings timings) {
+        long duration = timings.getDuration();
+        int status = ctx.status();
+        if (duration < this.slowThresholdNanos && status < 500 && !sample()) {
+            return;
+        }
+
+        long sequence;
+        do {
+            sequence = this.claimed.get();
+            if (sequence - this.written >= this.entries.length) {
+                this.dropped.increment();
+                return;
+            }
+        } while (!this.claimed.compareAndSet(sequence, sequence + 1));
+
+        Entry entry = this.entries[(int) (sequence & this.mask)];
+        entry.timestamp = System.currentTimeMillis();
+        entry.method = ctx.method();
+        entry.route = timings.getRoute();
+        entry.path = ctx.path();
+        entry.status = status;
+        entry.bytes = responseBytes(ctx);
+        entry.duration = duration;
+        entry.storageDuration = timings.getPhase(RequestTimings.Phase.STORAGE);
+        entry.slow = duration >= this.slowThresholdNanos;
+        entry.sequence = sequence; // publish
+    }
+
+    private boolean sample() {
+        return this.samplePercent >= 100 || (this.samplePercent > 0 && ThreadLocalRandom.current().nextInt(100) < this.samplePercent);
+    }
+
+    private static long responseBytes(Context ctx) {
+        long bytes = 0;
+        // responses streamed straight to the output (e.g. JsonStreaming) have already been written
+        if (ctx.res instanceof Response response) {
+            bytes += response.getHttpOutput().getWritten();
+        }
+        // everything else is still buffered as the result, waiting to be written
+        InputStream result = ctx.resultStream();
+        if (result != null) {
+            try {
+                bytes += result.available();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        return bytes;
+    }
+
+    private void run() {
+        StringBuilder line = new StringBuilder(256);
+        long next = 0;
+        long reportedDropped = 0;
+
+        while (true) {
+            Entry entry = this.entries[(int) (next & this.mask)];
+            if (entry.sequence != next) {
+                if (!this.running && this.claimed.get() == next) {
+                    break;
+                }
+
+                long dropped = this.dropped.sum();
+                try {
+                    if (dropped != reportedDropped) {
+                        this.writer.write(Instant.now() + " dropped=" + (dropped - reportedDropped) + "\n");
+                        reportedDropped = dropped;
+                    }
+                    this.writer.flush();
+                } catch (IOException e) {
+                    LOGGER.error("[REST] Unable to write to the access log", e);
+                }
+
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                continue;
+            }
+
+            line.setLength(0);
+            entry.format(line);
+            this.written = ++next; // the entry can now be reused
+
+            try {
+                this.writer.append(line);
+            } catch (IOException e) {
+                LOGGER.error("[REST] Unable to write to the access log", e);
+            }
+        }
+
+        try {
+            this.writer.close();
+        } catch (IOException e) {
+            LOGGER.error("[REST] Unable to close the access log", e);
+        }
+    }
+
+    public long getDroppedEntries() {
+        return this.dropped.sum();
+    }
+
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Entry {
+        private volatile long sequence = -1;
+        private long timestamp;
+        private String method;
+        private String route;
+        private String path;
+        private int status;
+        private long bytes;
+        private long duration;
+        private long storageDuration;
+        private boolean slow;
+
+        void format(StringBuilder sb) {
+            sb.append(Instant.ofEpochMilli(this.timestamp))
+                    .append(" method=").append(this.method)
+                    .append(" route=").append(this.route == null ? "-" : this.route)
+                    .append(" path=").append(this.path)
+                    .append(" status=").append(this.status)
+                    .append(" bytes=").append(this.bytes);
+            RequestTimings.appendMillis(sb.append(" duration_ms="), this.duration);
+            RequestTimings.appendMillis(sb.append(" storage_ms="), this.storageDuration);
+            if (this.slow) {
+                sb.append(" slow=true");
+            }
+            sb.append('\n');
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import io.javalin.http.Context;
+import io.javalin.http.HttpCode;
+import me.lucko.luckperms.extension.rest.RestConfig;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Limits the number of concurrent requests for each {@link RouteClass}, so a burst of
+ * one kind of request (e.g. searches) can't starve the others of storage capacity.
+ *
+ * <p>Requests that can't be admitted are rejected with a {@code 503} and a
+ * {@code Retry-After} header.</p>
+ *
+ * <p>Only used if enabled with the {@code limit} option, since any limit can turn away
+ * traffic that a server would otherwise have handled.</p>
+ */
+public class AdmissionControl {
+    private static final String ATTRIBUTE = "admissionLimiter";
+
+    private final Map<RouteClass, AdmissionLimiter> limiters = new EnumMap<>(RouteClass.class);
+    private final String retryAfter;
+
+    public AdmissionControl() {
+        boolean adaptive = RestConfig.getBoolean("limit.adaptive", false);
+        int adaptiveMinConcurrency = RestConfig.getInteger("limit.adaptive.minConcurrency", 1);
+        int adaptiveWindow = RestConfig.getInteger("limit.adaptive.window", 1000);
+
+        // searches scan every user, so are expected to spend much longer waiting for storage
+        addLimiter(RouteClass.READS, 128, 50, adaptive, adaptiveMinConcurrency, adaptiveWindow);
+        addLimiter(RouteClass.WRITES, 32, 100, adaptive, adaptiveMinConcurrency, adaptiveWindow);
+        addLimiter(RouteClass.SEARCH, 4, 2000, adaptive, adaptiveMinConcurrency, adaptiveWindow);
+        // event streams are long-lived, so aren't limited unless configured
+        addLimiter(RouteClass.EVENTS, 0, 0, false, 0, 0);
+
+        this.retryAfter = Integer.toString(RestConfig.getInteger("limit.retryAfter", 1));
+    }
+
+    private void addLimiter(RouteClass routeClass, int defaultConcurrency, int defaultLatencyThreshold, boolean adaptive, int adaptiveMinConcurrency, int adaptiveWindow) {
+        int concurrency = RestConfig.getInteger("limit." + routeClass.getId() + ".concurrency", defaultConcurrency);
+        if (concurrency <= 0) {
+            return;
+        }
+        int latencyThreshold = RestConfig.getInteger("limit." + routeClass.getId() + ".latencyThreshold", defaultLatencyThreshold);
+        this.limiters.put(routeClass, new AdmissionLimiter(concurrency, adaptive, adaptiveMinConcurrency, concurrency, latencyThreshold, adaptiveWindow));
+    }
+
+    /**
+     * Tries to admit a request, responding with a {@code 503} if it can't be.
+     *
+     * @param ctx the request context
+     * @param timings the request timings
+     * @param routeClass the class of the matched route, or null if it isn't limited
+     * @return true if the request was admitted
+     */
+    public boolean admit(Context ctx, RequestTimings timings, RouteClass routeClass) {
+        AdmissionLimiter limiter = routeClass == null ? null : this.limiters.get(routeClass);
+        if (limiter == null) {
+            return true;
+        }
+
+        if (!limiter.tryAcquire()) {
+            ctx.status(HttpCode.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", this.retryAfter)
+                    .result("Too many requests, try again later");
+            return false;
+        }
+
+        ctx.attribute(ATTRIBUTE, limiter);
+        return true;
+    }
+
+    /**
+     * Releases the request's place, if it was admitted.
+     *
+     * @param ctx the request context
+     * @param timings the request timings
+     */
+    public void release(Context ctx, RequestTimings timings) {
+        AdmissionLimiter limiter = ctx.attribute(ATTRIBUTE);
+        if (limiter != null) {
+            ctx.attribute(ATTRIBUTE, null);
+            limiter.release(timings.getPhase(RequestTimings.Phase.STORAGE));
+        }
+    }
+
+    public Map<RouteClass, AdmissionLimiter> getLimiters() {
+        return Collections.unmodifiableMap(this.limiters);
+    }
+}
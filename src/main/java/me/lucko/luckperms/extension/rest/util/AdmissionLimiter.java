@@ -0,0 +1,150 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of requests that can be handled concurrently.
+ *
+ * <p>Requests over the limit are rejected straight away rather than queued, so a burst
+ * of requests never ties up server threads waiting for a slot.</p>
+ *
+ * <p>If adaptive, the limit is adjusted based on the observed storage latency: it is
+ * decreased multiplicatively when a request's storage latency exceeds the threshold,
+ * and increased additively (by roughly one per limit's worth of requests) otherwise.
+ * The limit is decreased at most once per window, since a single slow spell is seen by
+ * every request in flight at the time, and would otherwise collapse the limit.</p>
+ */
+public final class AdmissionLimiter {
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final boolean adaptive;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final long windowNanos;
+
+    private double limit;
+    private int inFlight = 0;
+    private long lastDecrease;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a limiter.
+     *
+     * @param limit the initial concurrency limit
+     * @param adaptive if the limit should be adjusted based on storage latency
+     * @param minLimit the minimum limit, if adaptive
+     * @param maxLimit the maximum limit, if adaptive
+     * @param latencyThresholdMillis the storage latency above which the limit is decreased, if adaptive
+     * @param windowMillis the minimum time between decreases, if adaptive
+     */
+    public AdmissionLimiter(int limit, boolean adaptive, int minLimit, int maxLimit, long latencyThresholdMillis, long windowMillis) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+        this.limit = limit;
+        this.adaptive = adaptive;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.lastDecrease = System.nanoTime() - this.windowNanos;
+    }
+
+    /**
+     * Tries to admit a request, without waiting.
+     *
+     * @return true if admitted, in which case {@link #release(long)} must be called later
+     */
+    public boolean tryAcquire() {
+        this.lock.lock();
+        try {
+            if (this.inFlight < (int) this.limit) {
+                this.inFlight++;
+                return true;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+        this.rejected.increment();
+        return false;
+    }
+
+    /**
+     * Releases a request admitted by {@link #tryAcquire()}.
+     *
+     * @param storageLatencyNanos the time the request spent waiting for storage
+     */
+    public void release(long storageLatencyNanos) {
+        this.lock.lock();
+        try {
+            this.inFlight--;
+            if (this.adaptive) {
+                if (storageLatencyNanos > this.latencyThresholdNanos) {
+                    long now = System.nanoTime();
+                    if (now - this.lastDecrease >= this.windowNanos) {
+                        this.limit = Math.max(this.minLimit, this.limit * DECREASE_FACTOR);
+                        this.lastDecrease = now;
+                    }
+                } else if (this.inFlight + 1 >= (int) this.limit) {
+                    // only grow while the limit is actually being used
+                    this.limit = Math.min(this.maxLimit, this.limit + 1 / this.limit);
+                }
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        this.lock.lock();
+        try {
+            return (int) this.limit;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        this.lock.lock();
+        try {
+            return this.inFlight;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+}
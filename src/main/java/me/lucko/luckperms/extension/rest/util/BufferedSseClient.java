@@ -0,0 +1,256 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.javalin.http.sse.SseClient;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a {@link SseClient} with a bounded outbound queue.
+ *
+ * <p>Events can be submitted from any thread without blocking - they are written
+ * to the client's socket by a writer task running on the provided executor. At most
+ * one writer task is active per client at a time, so a slow or stalled client only
+ * ever occupies a single writer thread.</p>
+ *
+ * <p>The executor should start a new thread rather than queue a write behind others -
+ * see {@link #newWriterPool(int, int)}. If it rejects a write, the client is disconnected.</p>
+ *
+ * <p>Event data is queued in its already serialized form, so the same buffer can be
+ * shared between every client subscribed to an event.</p>
+ */
+public class BufferedSseClient {
+
+    private final Sink sink;
+    private final Executor writer;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder droppedCounter;
+
+    private final Deque<Message> queue = new ArrayDeque<>();
+    private boolean writing = false;
+    private boolean closed = false;
+
+    /**
+     * Creates an executor to write to clients with.
+     *
+     * <p>The pool starts a new thread for each write that can't be given an idle one, up to
+     * the given maximum, and never queues writes. A stalled client can therefore only hold up
+     * its own thread, however many other clients have stalled too.</p>
+     *
+     * @param coreThreads the number of threads to keep alive when idle
+     * @param maxThreads the maximum number of threads
+     * @return the executor
+     */
+    public static ExecutorService newWriterPool(int coreThreads, int maxThreads) {
+        return new ThreadPoolExecutor(coreThreads, Math.max(coreThreads, maxThreads), 60, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactoryBuilder()
+                .setNameFormat("luckperms-rest-event-writer-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    public BufferedSseClient(SseClient client, Executor writer, int capacity, OverflowPolicy overflowPolicy, LongAdder droppedCounter) {
+        this(new Sink() {
+            @Override
+            public void send(String event, byte[] data) {
+                client.sendEvent(event, new ByteArrayInputStream(data));
+            }
+
+            @Override
+            public void close() {
+                client.close();
+            }
+        }, writer, capacity, overflowPolicy, droppedCounter);
+    }
+
+    public BufferedSseClient(Sink sink, Executor writer, int capacity, OverflowPolicy overflowPolicy, LongAdder droppedCounter) {
+        this.sink = sink;
+        this.writer = writer;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.droppedCounter = droppedCounter;
+    }
+
+    /**
+     * Queues an event to be sent to the client.
+     *
+     * @param event the event name
+     * @param data the serialized event data
+     */
+    public void send(String event, byte[] data) {
+        boolean startWriter;
+        boolean disconnect = false;
+
+        synchronized (this.queue) {
+            if (this.closed) {
+                return;
+            }
+
+            if (this.queue.size() >= this.capacity) {
+                switch (this.overflowPolicy) {
+                    case DROP_OLDEST -> {
+                        this.queue.pollFirst();
+                        this.droppedCounter.increment();
+                    }
+                    case COALESCE -> {
+                        this.droppedCounter.add(this.queue.size());
+                        this.queue.clear();
+                    }
+                    case DISCONNECT -> {
+                        this.droppedCounter.add(this.queue.size() + 1);
+                        this.queue.clear();
+                        this.closed = true;
+                        disconnect = true;
+                    }
+                }
+            }
+
+            if (!disconnect) {
+                this.queue.addLast(new Message(event, data));
+            }
+
+            startWriter = !disconnect && !this.writing;
+            if (startWriter) {
+                this.writing = true;
+            }
+        }
+
+        if (disconnect) {
+            execute(this.sink::close);
+        } else if (startWriter) {
+            execute(this::write);
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            this.writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            // every writer thread is taken - shed this client rather than leave its queue undrained
+            synchronized (this.queue) {
+                this.droppedCounter.add(this.queue.size());
+            }
+            disconnect();
+        }
+    }
+
+    /**
+     * Gets the number of events currently waiting to be written.
+     *
+     * @return the queue depth
+     */
+    public int queued() {
+        synchronized (this.queue) {
+            return this.queue.size();
+        }
+    }
+
+    /**
+     * Marks the client as closed, discarding any events that are still queued.
+     */
+    public void close() {
+        synchronized (this.queue) {
+            this.closed = true;
+            this.queue.clear();
+        }
+    }
+
+    /**
+     * Closes the client, and the underlying connection.
+     */
+    public void disconnect() {
+        close();
+        this.sink.close();
+    }
+
+    private void write() {
+        while (true) {
+            Message message;
+            synchronized (this.queue) {
+                message = this.queue.pollFirst();
+                if (message == null) {
+                    this.writing = false;
+                    return;
+                }
+            }
+
+            try {
+                this.sink.send(message.event(), message.data());
+            } catch (Exception e) {
+                disconnect();
+                return;
+            }
+        }
+    }
+
+    private record Message(String event, byte[] data) { }
+
+    /**
+     * The connection events are written to.
+     */
+    public interface Sink {
+        void send(String event, byte[] data) throws Exception;
+
+        void close();
+    }
+
+    /**
+     * Determines what happens when an event is sent to a client whose queue is full.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Discard the oldest queued event to make room for the new one.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Discard all queued events, so that only the most recent event is delivered.
+         */
+        COALESCE,
+
+        /**
+         * Disconnect the client.
+         */
+        DISCONNECT;
+
+        public static OverflowPolicy parse(String value) {
+            return valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+}
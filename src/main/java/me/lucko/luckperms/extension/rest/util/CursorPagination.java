@@ -0,0 +1,138 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import io.javalin.http.Context;
+import me.lucko.luckperms.extension.rest.RestConfig;
+import me.lucko.luckperms.extension.rest.model.CursorPage;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cursor based pagination over collections keyed by unique id.
+ *
+ * <p>Entries are ordered by their unique id, and the cursor encodes the last unique id
+ * of the previous page. Each page is selected in a single pass using a heap bounded by
+ * the page size, so fetching a page costs the same wherever the cursor is, and only
+ * the page itself is ever copied.</p>
+ */
+public final class CursorPagination {
+    private CursorPagination() {}
+
+    private static final int DEFAULT_LIMIT = RestConfig.getInteger("pagination.defaultLimit", 100);
+    private static final int MAX_LIMIT = RestConfig.getInteger("pagination.maxLimit", 1000);
+
+    /**
+     * The parameters of a page request.
+     *
+     * @param after the unique id to start after, or null to start from the beginning
+     * @param limit the maximum number of entries in the page
+     */
+    public record Request(UUID after, int limit) { }
+
+    public static boolean isRequested(Context ctx) {
+        return ctx.queryParam("limit") != null || ctx.queryParam("cursor") != null;
+    }
+
+    public static Request parse(Context ctx) {
+        int limit = ctx.queryParamAsClass("limit", Integer.class).getOrDefault(DEFAULT_LIMIT);
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1");
+        }
+
+        String cursor = ctx.queryParam("cursor");
+        UUID after = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor);
+        return new Request(after, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Selects a page of entries from the given collection.
+     *
+     * @param entries the entries to select from
+     * @param keyFunction the function used to get the unique id of an entry
+     * @param request the page request
+     * @param <T> the entry type
+     * @return the page
+     */
+    public static <T> CursorPage<T> page(Collection<? extends T> entries, Function<? super T, UUID> keyFunction, Request request) {
+        Comparator<T> order = Comparator.comparing(keyFunction);
+        PriorityQueue<T> heap = new PriorityQueue<>(request.limit() + 1, order.reversed());
+        boolean more = false;
+
+        for (T entry : entries) {
+            UUID key = keyFunction.apply(entry);
+            if (request.after() != null && key.compareTo(request.after()) <= 0) {
+                continue;
+            }
+
+            if (heap.size() < request.limit()) {
+                heap.add(entry);
+            } else {
+                more = true;
+                if (key.compareTo(keyFunction.apply(heap.peek())) < 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+        }
+
+        List<T> page = new ArrayList<>(heap);
+        page.sort(order);
+
+        String nextCursor = more ? encodeCursor(keyFunction.apply(page.get(page.size() - 1))) : null;
+        return new CursorPage<>(page, nextCursor);
+    }
+
+    public static String encodeCursor(UUID uniqueId) {
+        ByteBuffer buf = ByteBuffer.allocate(16);
+        buf.putLong(uniqueId.getMostSignificantBits());
+        buf.putLong(uniqueId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    public static UUID decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            bytes = null;
+        }
+        if (bytes == null || bytes.length != 16) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        return new UUID(buf.getLong(), buf.getLong());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * The point in time by which a request must have completed.
+ *
+ * <p>{@link Responses#future} fails the response once the deadline passes, but it can't
+ * stop work that was chained onto the handler's future. Writes check the deadline before
+ * each step instead, so a request that has already failed with a {@code 504} doesn't go
+ * on to change any data.</p>
+ */
+public final class Deadline {
+
+    /** A deadline that never passes. */
+    public static final Deadline NONE = new Deadline(0);
+
+    /**
+     * Creates a deadline the given number of nanoseconds from now.
+     *
+     * @param nanos the time remaining
+     * @return the deadline
+     */
+    public static Deadline after(long nanos) {
+        return new Deadline(System.nanoTime() + nanos);
+    }
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Gets if the deadline has passed.
+     *
+     * @return true if the deadline has passed
+     */
+    public boolean hasPassed() {
+        return this != NONE && System.nanoTime() - this.nanoTime >= 0;
+    }
+
+    /**
+     * Wraps a step of a chain of futures, so that it fails with a {@link TimeoutException}
+     * instead of running if the deadline has passed by the time it is reached.
+     *
+     * @param step the step
+     * @param <T> the input type
+     * @param <R> the result type
+     * @return the wrapped step, for use with {@link CompletableFuture#thenCompose}
+     */
+    public <T, R> Function<T, CompletableFuture<R>> guard(Function<? super T, ? extends CompletableFuture<R>> step) {
+        return value -> hasPassed()
+                ? CompletableFuture.failedFuture(new TimeoutException())
+                : step.apply(value);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.luckperms.api.messaging.MessagingService;
+import net.luckperms.api.model.user.User;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MessagingService} that coalesces {@link #pushUpdate()} calls.
+ *
+ * <p>The first call to {@link #pushUpdate()} schedules a broadcast after the debounce
+ * window has elapsed. Any further calls made before then are merged into that same
+ * broadcast. Other messages are passed straight through to the delegate.</p>
+ */
+public class DebouncedMessagingService implements MessagingService, AutoCloseable {
+
+    private final MessagingService delegate;
+    private final long debounceMillis;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final LongAdder requestedUpdates = new LongAdder();
+    private final LongAdder sentUpdates = new LongAdder();
+
+    public DebouncedMessagingService(MessagingService delegate, long debounceMillis) {
+        this.delegate = delegate;
+        this.debounceMillis = debounceMillis;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("luckperms-rest-messaging-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    @Override
+    public void pushUpdate() {
+        this.requestedUpdates.increment();
+
+        if (this.debounceMillis <= 0) {
+            send();
+            return;
+        }
+
+        if (this.pending.compareAndSet(false, true)) {
+            try {
+                this.executor.schedule(this::flush, this.debounceMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // shutting down - don't hold on to the update
+                flush();
+            }
+        }
+    }
+
+    @Override
+    public void pushUserUpdate(User user) {
+        this.delegate.pushUserUpdate(user);
+    }
+
+    @Override
+    public void sendCustomMessage(String channelId, String payload) {
+        this.delegate.sendCustomMessage(channelId, payload);
+    }
+
+    /**
+     * Immediately sends the pending update, if there is one.
+     */
+    public void flush() {
+        if (this.pending.compareAndSet(true, false)) {
+            send();
+        }
+    }
+
+    private void send() {
+        this.sentUpdates.increment();
+        this.delegate.pushUpdate();
+    }
+
+    /**
+     * Gets the number of times {@link #pushUpdate()} has been called.
+     *
+     * @return the requested update count
+     */
+    public long getRequestedUpdates() {
+        return this.requestedUpdates.sum();
+    }
+
+    /**
+     * Gets the number of updates that have actually been pushed to the delegate.
+     *
+     * @return the sent update count
+     */
+    public long getSentUpdates() {
+        return this.sentUpdates.sum();
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+        flush();
+    }
+}
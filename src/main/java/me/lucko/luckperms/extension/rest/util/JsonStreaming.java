@@ -0,0 +1,105 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.http.Context;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Writes collections directly to the response as they are serialized, instead of
+ * building the whole response body in memory first.
+ *
+ * <p>Values are written as a JSON array by default, or as newline-delimited JSON when
+ * the client asks for it with {@code ?format=ndjson} or an {@code Accept: application/x-ndjson}
+ * header.</p>
+ */
+public final class JsonStreaming {
+    private JsonStreaming() {}
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    public static boolean isNdjson(Context ctx) {
+        String format = ctx.queryParam("format");
+        if (format != null && !format.isEmpty()) {
+            return format.equalsIgnoreCase("ndjson");
+        }
+        String accept = ctx.header("Accept");
+        return accept != null && accept.contains(NDJSON);
+    }
+
+    /**
+     * Writes the given values to the response.
+     *
+     * @param ctx the request context
+     * @param objectMapper the object mapper used to serialize each value
+     * @param values the values to write
+     */
+    public static void write(Context ctx, ObjectMapper objectMapper, Iterator<?> values) {
+        write(ctx, objectMapper, values, (value, gen) -> gen.writeObject(value));
+    }
+
+    /**
+     * Writes the given values to the response, using a custom writer for each value.
+     *
+     * @param ctx the request context
+     * @param objectMapper the object mapper used to create the generator
+     * @param values the values to write
+     * @param writer the writer used to serialize each value
+     * @param <T> the value type
+     */
+    public static <T> void write(Context ctx, ObjectMapper objectMapper, Iterator<? extends T> values, ValueWriter<T> writer) {
+        boolean ndjson = isNdjson(ctx);
+        ctx.contentType(ndjson ? NDJSON : "application/json");
+
+        try (JsonGenerator gen = objectMapper.createGenerator(ctx.res.getOutputStream())) {
+            gen.setRootValueSeparator(null);
+            if (!ndjson) {
+                gen.writeStartArray();
+            }
+            while (values.hasNext()) {
+                writer.write(values.next(), gen);
+                if (ndjson) {
+                    gen.writeRaw('\n');
+                }
+            }
+            if (!ndjson) {
+                gen.writeEndArray();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ValueWriter<T> {
+        void write(T value, JsonGenerator gen) throws IOException;
+    }
+}
@@ -26,9 +26,13 @@
 package me.lucko.luckperms.extension.rest.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.javalin.http.Context;
 import net.luckperms.api.model.data.TemporaryNodeMergeStrategy;
+import net.luckperms.api.node.Node;
+
+import java.util.List;
 
 /**
  * Parameter reading utilities.
@@ -47,4 +51,13 @@ public final class ParamUtils {
             return objectMapper.readValue("\"" + string + "\"", TemporaryNodeMergeStrategy.class);
         }
     }
+
+    public static List<Node> bodyAsNodeList(ObjectMapper objectMapper, Context ctx) throws JsonProcessingException {
+        long start = System.nanoTime();
+        try {
+            return objectMapper.readValue(ctx.body(), new TypeReference<>(){});
+        } finally {
+            RequestTimings.recordCurrent(RequestTimings.Phase.PARSE, start);
+        }
+    }
 }
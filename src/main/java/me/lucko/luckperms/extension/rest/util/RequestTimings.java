@@ -0,0 +1,327 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import io.javalin.http.Context;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Tracks the timings of a single request as it passes through the server.
+ *
+ * <p>An instance is attached to each request by a before handler, and read by the
+ * metrics and access log once the request has completed.</p>
+ *
+ * <p>The time spent in each {@link Phase} is recorded as well. Code that can't see the
+ * request context records phases against the {@link #current() current} instance, which
+ * is set while the route handler and the response callback are running.</p>
+ */
+public final class RequestTimings {
+    private static final String ATTRIBUTE = "requestTimings";
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+
+    /**
+     * Attaches a new instance to the given request.
+     *
+     * @param ctx the request context
+     */
+    public static void start(Context ctx) {
+        ctx.attribute(ATTRIBUTE, new RequestTimings(System.nanoTime()));
+    }
+
+    /**
+     * Gets the instance attached to the given request.
+     *
+     * @param ctx the request context
+     * @return the timings, or null if the request was never started
+     */
+    public static RequestTimings get(Context ctx) {
+        return ctx.attribute(ATTRIBUTE);
+    }
+
+    /**
+     * Gets the instance for the request being handled by the current thread.
+     *
+     * @return the timings, or null if the thread isn't handling a request
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the instance for the request being handled by the current thread.
+     *
+     * @param timings the timings, or null to clear
+     */
+    public static void setCurrent(RequestTimings timings) {
+        if (timings == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timings);
+        }
+    }
+
+    /**
+     * Records time spent in a phase against the {@link #current() current} request, if any.
+     *
+     * @param phase the phase
+     * @param startTime the {@link System#nanoTime()} the phase started at
+     */
+    public static void recordCurrent(Phase phase, long startTime) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.record(phase, System.nanoTime() - startTime);
+        }
+    }
+
+    private final long startTime;
+    private final AtomicLongArray phases = new AtomicLongArray(PHASES.length);
+    private String route;
+    private RouteClass routeClass;
+    private long routeMatchedTime;
+    private long handlerEndTime;
+    private boolean async;
+    private long futureCompleteTime;
+    private long endTime;
+    private boolean timedOut;
+
+    private RequestTimings(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Called when the request has been matched to a route.
+     *
+     * @param route the route template, e.g. {@code /user/{id}/nodes}
+     * @param routeClass the class of the route, or null if it isn't limited
+     */
+    public void onRouteMatched(String route, RouteClass routeClass) {
+        this.route = route;
+        this.routeClass = routeClass;
+        this.routeMatchedTime = System.nanoTime();
+    }
+
+    /**
+     * Called when the request has been authorized.
+     */
+    public void onAuthorized() {
+        record(Phase.AUTH, System.nanoTime() - this.routeMatchedTime);
+    }
+
+    /**
+     * Called when the route handler returns.
+     *
+     * @param async if the handler deferred its result to a future
+     */
+    public void onHandlerReturned(boolean async) {
+        this.handlerEndTime = System.nanoTime();
+        this.async = async;
+    }
+
+    /**
+     * Called when the future the handler deferred to has completed.
+     */
+    public void onFutureComplete() {
+        this.futureCompleteTime = System.nanoTime();
+        // cached data computed by the future's stages isn't storage time
+        long wait = this.futureCompleteTime - this.handlerEndTime - this.phases.get(Phase.CACHED_DATA.ordinal());
+        record(Phase.STORAGE, Math.max(0, wait));
+    }
+
+    /**
+     * Called when the request's deadline passed before its future completed.
+     */
+    public void onTimedOut() {
+        this.timedOut = true;
+    }
+
+    /**
+     * Called once the request has completed, including any async result.
+     */
+    public void onRequestEnd() {
+        this.endTime = System.nanoTime();
+        if (this.async && this.futureCompleteTime == 0) {
+            // the future failed, so the response callback never ran
+            record(Phase.STORAGE, this.endTime - this.handlerEndTime);
+        }
+    }
+
+    /**
+     * Adds time spent in a phase.
+     *
+     * @param phase the phase
+     * @param nanos the time spent, in nanoseconds
+     */
+    public void record(Phase phase, long nanos) {
+        this.phases.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Runs an action, recording the time it takes against a phase.
+     *
+     * @param phase the phase
+     * @param action the action
+     * @param <T> the result type
+     * @return the result of the action
+     */
+    public <T> T time(Phase phase, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gets the route template the request matched.
+     *
+     * @return the route, or null if the request didn't match a route
+     */
+    public String getRoute() {
+        return this.route;
+    }
+
+    /**
+     * Gets the class of the route the request matched.
+     *
+     * @return the route class, or null if the request didn't match a limited route
+     */
+    public RouteClass getRouteClass() {
+        return this.routeClass;
+    }
+
+    /**
+     * Gets if the request's deadline passed before its future completed.
+     *
+     * @return if the request timed out
+     */
+    public boolean isTimedOut() {
+        return this.timedOut;
+    }
+
+    /**
+     * Gets the time elapsed since the request started.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsed() {
+        return System.nanoTime() - this.startTime;
+    }
+
+    /**
+     * Gets the total time taken to handle the request.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getDuration() {
+        return this.endTime - this.startTime;
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase the phase
+     * @return the duration in nanoseconds
+     */
+    public long getPhase(Phase phase) {
+        return this.phases.get(phase.ordinal());
+    }
+
+    /**
+     * Formats the phase timings as a {@code Server-Timing} header value.
+     *
+     * <p>Should only be called once the request has ended.</p>
+     *
+     * @return the header value
+     */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : PHASES) {
+            long nanos = this.phases.get(phase.ordinal());
+            if (nanos != 0) {
+                appendMetric(sb, phase.getId(), nanos);
+            }
+        }
+        appendMetric(sb, "total", getDuration());
+        return sb.toString();
+    }
+
+    private static void appendMetric(StringBuilder sb, String name, long nanos) {
+        if (!sb.isEmpty()) {
+            sb.append(", ");
+        }
+        appendMillis(sb.append(name).append(";dur="), nanos);
+    }
+
+    /**
+     * Appends a duration in milliseconds, to microsecond precision (e.g. {@code 12.034}).
+     *
+     * @param sb the builder to append to
+     * @param nanos the duration, in nanoseconds
+     */
+    static void appendMillis(StringBuilder sb, long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        sb.append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            sb.append('0');
+        }
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+    }
+
+    /**
+     * A phase of handling a request.
+     */
+    public enum Phase {
+        /** Checking the API key */
+        AUTH("auth"),
+        /** Parsing the request body */
+        PARSE("parse"),
+        /** Waiting for LuckPerms to load or save data */
+        STORAGE("storage"),
+        /** Computing cached permission and meta data */
+        CACHED_DATA("cache"),
+        /** Serializing (and, for streamed responses, writing) the response */
+        SERIALIZE("serialize");
+
+        private final String id;
+
+        Phase(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return this.id;
+        }
+    }
+}
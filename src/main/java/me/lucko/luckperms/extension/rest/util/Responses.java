@@ -0,0 +1,174 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import io.javalin.http.Context;
+import me.lucko.luckperms.extension.rest.RestConfig;
+
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hands futures to Javalin as the response to a request.
+ *
+ * <p>Handlers should use this instead of {@link Context#future(CompletableFuture, Consumer)}
+ * directly, so the time spent waiting for the future and running the callback can be
+ * recorded in the request's {@link RequestTimings}, and so the request's deadline can be
+ * enforced.</p>
+ *
+ * <p>Each {@link RouteClass} has a deadline, measured from the start of the request. If the
+ * future hasn't completed by then, it is completed with a {@link java.util.concurrent.TimeoutException}
+ * (and the request fails with a {@code 504}). The timeout is applied to a copy of the future,
+ * so futures shared with other requests (e.g. cached loads) are never completed by it. Work
+ * that has already been scheduled keeps running after the deadline - writes that must not be
+ * applied late should check the request's {@link #deadline(Context) deadline} themselves.</p>
+ */
+public final class Responses {
+    private Responses() {}
+
+    private static final Map<RouteClass, Long> TIMEOUTS = new EnumMap<>(RouteClass.class);
+
+    static {
+        TIMEOUTS.put(RouteClass.READS, TimeUnit.MILLISECONDS.toNanos(RestConfig.getInteger("timeout.read", 10000)));
+        TIMEOUTS.put(RouteClass.WRITES, TimeUnit.MILLISECONDS.toNanos(RestConfig.getInteger("timeout.write", 30000)));
+        TIMEOUTS.put(RouteClass.SEARCH, TimeUnit.MILLISECONDS.toNanos(RestConfig.getInteger("timeout.search", 60000)));
+    }
+
+    /**
+     * Responds with the result of the given future, once it completes.
+     *
+     * @param ctx the request context
+     * @param future the future
+     */
+    public static void future(Context ctx, CompletableFuture<?> future) {
+        future(ctx, future, result -> defaultResult(ctx, result));
+    }
+
+    /**
+     * Calls the given callback with the result of the given future, once it completes.
+     *
+     * @param ctx the request context
+     * @param future the future
+     * @param callback the callback used to set the response
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void future(Context ctx, CompletableFuture<T> future, Consumer<? super T> callback) {
+        RequestTimings timings = RequestTimings.get(ctx);
+        if (timings == null) {
+            ctx.future(future, result -> callback.accept((T) result));
+            return;
+        }
+
+        Long timeout = TIMEOUTS.get(timings.getRouteClass());
+        if (timeout != null && timeout > 0) {
+            // never complete the caller's future - it may be shared with other requests
+            future = future.copy();
+            future.orTimeout(Math.max(0, timeout - timings.getElapsed()), TimeUnit.NANOSECONDS);
+        }
+
+        ctx.future(future, result -> {
+            timings.onFutureComplete();
+            long start = System.nanoTime();
+            long cachedData = timings.getPhase(RequestTimings.Phase.CACHED_DATA);
+
+            RequestTimings.setCurrent(timings);
+            try {
+                callback.accept((T) result);
+            } finally {
+                RequestTimings.setCurrent(null);
+                long cachedDataDuration = timings.getPhase(RequestTimings.Phase.CACHED_DATA) - cachedData;
+                timings.record(RequestTimings.Phase.SERIALIZE, System.nanoTime() - start - cachedDataDuration);
+            }
+        });
+    }
+
+    /**
+     * Gets the deadline of the given request.
+     *
+     * @param ctx the request context
+     * @return the deadline, or {@link Deadline#NONE} if the request's route class has none
+     */
+    public static Deadline deadline(Context ctx) {
+        RequestTimings timings = RequestTimings.get(ctx);
+        if (timings == null) {
+            return Deadline.NONE;
+        }
+        Long timeout = TIMEOUTS.get(timings.getRouteClass());
+        if (timeout == null || timeout <= 0) {
+            return Deadline.NONE;
+        }
+        return Deadline.after(timeout - timings.getElapsed());
+    }
+
+    /**
+     * Sets the {@code ETag} of the response, and checks it against the request's
+     * {@code If-None-Match} header.
+     *
+     * <p>If the client already has the current version, the response is set to
+     * {@code 304 Not Modified} and nothing else should be written.</p>
+     *
+     * @param ctx the request context
+     * @param etag the entity tag of the current version
+     * @return true if the client's copy is current
+     */
+    public static boolean notModified(Context ctx, String etag) {
+        ctx.header("ETag", etag);
+        String ifNoneMatch = ctx.header("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        // If-None-Match uses weak comparison, so W/ prefixes are ignored
+        String opaqueTag = stripWeak(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || stripWeak(candidate).equals(opaqueTag)) {
+                ctx.status(304);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    // mirrors what Javalin does with the result of a future when no callback is given
+    private static void defaultResult(Context ctx, Object result) {
+        if (result instanceof InputStream stream) {
+            ctx.result(stream);
+        } else if (result instanceof String string) {
+            ctx.result(string);
+        } else if (result != null) {
+            ctx.json(result);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import java.util.Locale;
+
+/**
+ * A class of routes that share a concurrency limit and deadline.
+ */
+public enum RouteClass {
+    /** Routes that read a single user, group or track */
+    READS,
+    /** Routes that modify data */
+    WRITES,
+    /** Routes that search or scan all users, groups, tracks or actions */
+    SEARCH,
+    /** Event stream routes */
+    EVENTS;
+
+    private final String id = name().toLowerCase(Locale.ROOT);
+
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Classifies a route.
+     *
+     * @param method the request method
+     * @param route the route template, e.g. {@code /user/{id}/nodes}
+     * @return the route class, or null if the route isn't limited
+     */
+    public static RouteClass of(String method, String route) {
+        if (route == null) {
+            return null;
+        }
+        if (route.startsWith("/event/")) {
+            return EVENTS;
+        }
+        if (route.equals("/") || route.startsWith("/docs") || route.equals("/health") || route.equals("/metrics")) {
+            return null;
+        }
+
+        boolean get = method.equals("GET");
+        // group members are found with a storage search the first time they're requested
+        if (route.endsWith("/search") || route.equals("/user/count") || route.contains("/members")) {
+            return SEARCH;
+        }
+        if (get && (route.equals("/user") || route.equals("/group") || route.equals("/track") || route.equals("/action"))) {
+            return SEARCH;
+        }
+
+        // permission checks are POSTed when they have a body, but don't modify anything
+        if (get || route.contains("/permission-check") || route.contains("/permissioncheck")) {
+            return READS;
+        }
+        return WRITES;
+    }
+}
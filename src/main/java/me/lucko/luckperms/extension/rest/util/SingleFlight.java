@@ -0,0 +1,101 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Deduplicates concurrent loads of the same key.
+ *
+ * <p>While a load for a key is in flight, further requests for that key join
+ * the existing load instead of starting a new one. Once the load completes the
+ * key is forgotten, so the next request will load it again.</p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+
+    /**
+     * Loads the value for the given key, or joins a load already in progress.
+     *
+     * @param key the key
+     * @param loader the function used to start a new load
+     * @return a future encapsulating the loaded value
+     */
+    public CompletableFuture<V> load(K key, Function<? super K, ? extends CompletableFuture<V>> loader) {
+        CompletableFuture<V> existing = this.inFlight.get(key);
+        if (existing == null) {
+            CompletableFuture<V> promise = new CompletableFuture<>();
+            existing = this.inFlight.putIfAbsent(key, promise);
+            if (existing == null) {
+                this.loads.increment();
+                start(key, loader, promise);
+                return promise.copy();
+            }
+        }
+
+        this.joins.increment();
+        return existing.copy();
+    }
+
+    private void start(K key, Function<? super K, ? extends CompletableFuture<V>> loader, CompletableFuture<V> promise) {
+        CompletableFuture<V> source;
+        try {
+            source = loader.apply(key);
+        } catch (Throwable e) {
+            source = CompletableFuture.failedFuture(e);
+        }
+
+        source.whenComplete((value, ex) -> {
+            this.inFlight.remove(key, promise);
+            if (ex != null) {
+                promise.completeExceptionally(ex);
+            } else {
+                promise.complete(value);
+            }
+        });
+    }
+
+    public int getInFlight() {
+        return this.inFlight.size();
+    }
+
+    public long getLoads() {
+        return this.loads.sum();
+    }
+
+    public long getJoins() {
+        return this.joins.sum();
+    }
+}
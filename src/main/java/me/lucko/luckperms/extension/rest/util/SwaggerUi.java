@@ -32,16 +32,18 @@ import io.javalin.plugin.openapi.ui.SwaggerOptions;
 import io.swagger.v3.oas.models.OpenAPI;
 import me.lucko.luckperms.extension.rest.RestServer;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.Objects;
 
 public class SwaggerUi {
 
     public static void setup(JavalinConfig config) {
         // override the /docs/openapi endpoint to return our own schema
+        byte[] schema = loadSchema();
         config.registerPlugin(app ->
-                app.get("/docs/openapi",
-                        ctx -> ctx.result(Objects.requireNonNull(RestServer.class.getClassLoader().getResourceAsStream("luckperms-openapi.yml")))
-                )
+                app.get("/docs/openapi", ctx -> ctx.result(schema))
         );
 
         // configure the javalin handler
@@ -53,4 +55,13 @@ public class SwaggerUi {
         config.registerPlugin(new OpenApiPlugin(opts));
     }
 
+    private static byte[] loadSchema() {
+        // read once, rather than streaming it from the jar on every request
+        try (InputStream in = Objects.requireNonNull(RestServer.class.getClassLoader().getResourceAsStream("luckperms-openapi.yml"))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 }
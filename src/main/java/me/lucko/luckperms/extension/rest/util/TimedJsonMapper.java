@@ -0,0 +1,71 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import io.javalin.plugin.json.JsonMapper;
+
+import java.io.InputStream;
+
+/**
+ * A {@link JsonMapper} that records the time spent parsing request bodies.
+ */
+public class TimedJsonMapper implements JsonMapper {
+    private final JsonMapper delegate;
+
+    public TimedJsonMapper(JsonMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String toJsonString(Object obj) {
+        return this.delegate.toJsonString(obj);
+    }
+
+    @Override
+    public InputStream toJsonStream(Object obj) {
+        return this.delegate.toJsonStream(obj);
+    }
+
+    @Override
+    public <T> T fromJsonString(String json, Class<T> targetClass) {
+        long start = System.nanoTime();
+        try {
+            return this.delegate.fromJsonString(json, targetClass);
+        } finally {
+            RequestTimings.recordCurrent(RequestTimings.Phase.PARSE, start);
+        }
+    }
+
+    @Override
+    public <T> T fromJsonStream(InputStream json, Class<T> targetClass) {
+        long start = System.nanoTime();
+        try {
+            return this.delegate.fromJsonStream(json, targetClass);
+        } finally {
+            RequestTimings.recordCurrent(RequestTimings.Phase.PARSE, start);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import me.lucko.luckperms.extension.rest.cache.UserCache;
+import net.luckperms.api.messaging.MessagingService;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.node.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Serializes and batches mutations to user data.
+ *
+ * <p>Mutations are queued per user. While a batch for a user is being applied,
+ * any further mutations for the same user are held back, and then applied together
+ * as the next batch: the user is loaded once, every mutation is applied in order,
+ * and the user is saved and an update is pushed once for the whole batch.</p>
+ *
+ * <p>The user is removed from the {@link UserCache} once each batch has been saved.</p>
+ *
+ * <p>Each mutation's future is completed with the value returned by that mutation,
+ * once the batch it was part of has been saved.</p>
+ *
+ * <p>A mutation that throws is rolled back before the next one is applied, so only
+ * the mutations that succeeded are saved, and a failed request leaves no trace on the
+ * user. If the save itself fails, the whole batch is rolled back.</p>
+ *
+ * <p>Each mutation carries the {@link Deadline} of the request that submitted it. If the
+ * deadline has passed by the time its batch is applied, the mutation is skipped and fails
+ * with a {@link TimeoutException}, so a request that has already timed out never changes
+ * the user. If every mutation in a batch is skipped or fails, the user isn't saved at all.</p>
+ */
+public class UserMutationPipeline {
+    private static final int STRIPES = 64;
+
+    private final UserManager userManager;
+    private final MessagingService messagingService;
+    private final UserCache userCache;
+    private final Stripe[] stripes;
+
+    public UserMutationPipeline(UserManager userManager, MessagingService messagingService, UserCache userCache) {
+        this.userManager = userManager;
+        this.messagingService = messagingService;
+        this.userCache = userCache;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Submits a mutation for the given user.
+     *
+     * @param uniqueId the unique id of the user
+     * @param deadline the deadline after which the mutation must not be applied
+     * @param action the mutation to apply, returning the result for the caller
+     * @param <T> the result type
+     * @return a future encapsulating the result of the mutation
+     */
+    public <T> CompletableFuture<T> submit(UUID uniqueId, Deadline deadline, Function<? super User, ? extends T> action) {
+        if (deadline.hasPassed()) {
+            return CompletableFuture.failedFuture(new TimeoutException());
+        }
+
+        Mutation<T> mutation = new Mutation<>(deadline, action);
+        Stripe stripe = this.stripes[Math.floorMod(uniqueId.hashCode(), STRIPES)];
+
+        boolean startBatch;
+        synchronized (stripe) {
+            stripe.pending.computeIfAbsent(uniqueId, x -> new ArrayList<>()).add(mutation);
+            startBatch = stripe.running.add(uniqueId);
+        }
+
+        if (startBatch) {
+            runBatch(stripe, uniqueId);
+        }
+        return mutation.future;
+    }
+
+    private void runBatch(Stripe stripe, UUID uniqueId) {
+        List<Mutation<?>> batch;
+        synchronized (stripe) {
+            batch = stripe.pending.remove(uniqueId);
+            if (batch == null) {
+                stripe.running.remove(uniqueId);
+                return;
+            }
+        }
+
+        this.userManager.loadUser(uniqueId)
+                .thenCompose(user -> {
+                    List<Node> original = checkpoint(user);
+                    boolean applied = false;
+                    for (Mutation<?> mutation : batch) {
+                        applied |= mutation.apply(user);
+                    }
+                    if (!applied) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    return this.userManager.saveUser(user).handle((v, ex) -> {
+                        if (ex != null) {
+                            // the batch wasn't persisted, so don't leave it applied in memory either
+                            restore(user, original);
+                            throw ex instanceof CompletionException ? (CompletionException) ex : new CompletionException(ex);
+                        }
+                        return user;
+                    });
+                })
+                .whenComplete((user, ex) -> {
+                    try {
+                        this.userCache.invalidate(uniqueId);
+                        if (ex == null && user != null) {
+                            this.messagingService.pushUserUpdate(user);
+                        }
+                        for (Mutation<?> mutation : batch) {
+                            mutation.complete(ex);
+                        }
+                    } finally {
+                        // process anything that was submitted while this batch was in flight
+                        runBatch(stripe, uniqueId);
+                    }
+                });
+    }
+
+    private static List<Node> checkpoint(User user) {
+        return List.copyOf(user.data().toCollection());
+    }
+
+    private static void restore(User user, List<Node> nodes) {
+        if (nodes.equals(checkpoint(user))) {
+            // nothing was changed, so avoid posting events for the clear and re-add
+            return;
+        }
+        user.data().clear();
+        for (Node node : nodes) {
+            user.data().add(node);
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<UUID, List<Mutation<?>>> pending = new HashMap<>();
+        private final Set<UUID> running = new HashSet<>();
+    }
+
+    private static final class Mutation<T> {
+        private final Deadline deadline;
+        private final Function<? super User, ? extends T> action;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Throwable error;
+
+        Mutation(Deadline deadline, Function<? super User, ? extends T> action) {
+            this.deadline = deadline;
+            this.action = action;
+        }
+
+        boolean apply(User user) {
+            // the request has already failed with a 504, so mustn't change anything
+            if (this.deadline.hasPassed()) {
+                this.error = new TimeoutException();
+                return false;
+            }
+            List<Node> checkpoint = checkpoint(user);
+            try {
+                this.result = this.action.apply(user);
+            } catch (Throwable e) {
+                // undo whatever the mutation changed before it failed
+                restore(user, checkpoint);
+                this.error = e;
+                return false;
+            }
+            return true;
+        }
+
+        void complete(Throwable batchError) {
+            if (this.future.isDone()) {
+                return;
+            }
+            if (this.error != null) {
+                this.future.completeExceptionally(this.error);
+            } else if (batchError != null) {
+                this.future.completeExceptionally(batchError);
+            } else {
+                this.future.complete(this.result);
+            }
+        }
+    }
+}
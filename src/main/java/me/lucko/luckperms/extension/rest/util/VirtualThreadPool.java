@@ -0,0 +1,128 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Jetty {@link ThreadPool} that runs every task on a new virtual thread.
+ *
+ * <p>Blocking in a handler (e.g. waiting on a health check or recalculating cached data)
+ * then only parks a virtual thread, instead of tying up one of a fixed number of
+ * platform threads.</p>
+ *
+ * <p>Virtual threads need Java 21. The extension itself targets Java 17, so they are
+ * created reflectively - use {@link #isSupported()} to check they are available.</p>
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+    private static final ThreadFactory FACTORY = createFactory();
+
+    private static ThreadFactory createFactory() {
+        try {
+            // Thread.ofVirtual().name("luckperms-rest-", 0).factory()
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method name = builderClass.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "luckperms-rest-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets if virtual threads are supported by the running JVM.
+     *
+     * @return true if supported
+     */
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    public VirtualThreadPool() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        super.doStop();
+        this.stopped.countDown();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (this.stopped.getCount() == 0) {
+            throw new RejectedExecutionException("Thread pool has been stopped");
+        }
+
+        this.threads.incrementAndGet();
+        try {
+            FACTORY.newThread(() -> {
+                try {
+                    task.run();
+                } finally {
+                    this.threads.decrementAndGet();
+                }
+            }).start();
+        } catch (Throwable e) {
+            this.threads.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        this.stopped.await();
+    }
+
+    @Override
+    public int getThreads() {
+        return this.threads.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        // threads are created on demand, so none are ever idle
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import me.lucko.luckperms.extension.rest.TestServer;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+public class EntityTagsTest {
+    private static TestServer server;
+
+    @BeforeAll
+    public static void setup() {
+        server = TestServer.start();
+    }
+
+    @AfterAll
+    public static void teardown() {
+        server.close();
+    }
+
+    private static HttpResponse<String> getIfNoneMatch(String path, String etag) {
+        return server.send(server.request(path).header("If-None-Match", etag).GET().build());
+    }
+
+    @Test
+    public void testNotModified() {
+        server.luckPerms().createGroup("etag", 10);
+
+        HttpResponse<String> first = server.get("/group/etag");
+        assertEquals(200, first.statusCode());
+        String etag = first.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag);
+
+        HttpResponse<String> second = getIfNoneMatch("/group/etag", etag);
+        assertEquals(304, second.statusCode());
+        assertEquals("", second.body());
+        assertEquals(etag, second.headers().firstValue("ETag").orElse(null));
+
+        // a list of tags, and *, also match
+        assertEquals(304, getIfNoneMatch("/group/etag", "W/\"other\", " + etag).statusCode());
+        assertEquals(304, getIfNoneMatch("/group/etag", "*").statusCode());
+    }
+
+    @Test
+    public void testModifiedAfterChange() {
+        server.luckPerms().createGroup("etag-change", 10);
+        String etag = server.get("/group/etag-change").headers().firstValue("ETag").orElseThrow();
+
+        int status = server.post("/group/etag-change/nodes", """
+                {"key": "etag.test", "value": true}""").statusCode();
+        assertEquals(200, status);
+
+        HttpResponse<String> response = getIfNoneMatch("/group/etag-change", etag);
+        assertEquals(200, response.statusCode());
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Test
+    public void testHashCodeCollisionsChangeTag() {
+        // "Aa" and "BB" have the same String.hashCode
+        FakeUser user = server.luckPerms().createUser(0);
+        user.setUsername("Aa");
+        String path = "/user/" + user.getUniqueId();
+        String etag = server.get(path).headers().firstValue("ETag").orElseThrow();
+
+        user.setUsername("BB");
+
+        HttpResponse<String> response = getIfNoneMatch(path, etag);
+        assertEquals(200, response.statusCode());
+        assertNotEquals(etag, response.headers().firstValue("ETag").orElse(null));
+    }
+
+    @Test
+    public void testListNotModified() {
+        HttpResponse<String> first = server.get("/group");
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertEquals(304, getIfNoneMatch("/group", etag).statusCode());
+
+        server.post("/group", """
+                {"name": "etag-list-created"}""");
+        assertEquals(200, getIfNoneMatch("/group", etag).statusCode());
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import me.lucko.luckperms.extension.rest.fake.FakeContextSet;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.fake.FakeNode;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class MembershipIndexTest {
+    private static FakeLuckPerms luckPerms;
+    private static MembershipIndex index;
+
+    @BeforeAll
+    public static void setup() {
+        luckPerms = FakeLuckPerms.install();
+        index = new MembershipIndex(luckPerms.getUserManager(), luckPerms.getGroupManager(), luckPerms.getEventBus());
+    }
+
+    @AfterAll
+    public static void teardown() {
+        index.close();
+    }
+
+    private static FakeUser member(String group) {
+        FakeUser user = luckPerms.createUser(0);
+        user.data().add(FakeNode.create("group." + group));
+        return user;
+    }
+
+    @Test
+    public void testSearch() {
+        luckPerms.createGroup("search", 0);
+        FakeUser member = member("search");
+        FakeUser negated = luckPerms.createUser(0);
+        negated.data().add(FakeNode.create("group.search", false, FakeContextSet.EMPTY, null));
+        luckPerms.createUser(0);
+
+        assertEquals(Set.of(member.getUniqueId()), index.getDirectMembers("search").join());
+    }
+
+    @Test
+    public void testUpdatedByNodeChanges() {
+        luckPerms.createGroup("updates", 0);
+        FakeUser first = member("updates");
+        FakeUser second = luckPerms.createUser(0);
+        assertEquals(Set.of(first.getUniqueId()), index.getDirectMembers("updates").join());
+
+        second.data().add(FakeNode.create("group.updates"));
+        assertEquals(Set.of(first.getUniqueId(), second.getUniqueId()), index.getDirectMembers("updates").join());
+
+        first.data().remove(FakeNode.create("group.updates"));
+        assertEquals(Set.of(second.getUniqueId()), index.getDirectMembers("updates").join());
+
+        second.data().clear();
+        assertEquals(Set.of(), index.getDirectMembers("updates").join());
+    }
+
+    @Test
+    public void testInheritedMembers() {
+        luckPerms.createGroup("parent", 0);
+        luckPerms.createGroup("child", 0).data().add(FakeNode.create("group.parent"));
+        FakeUser direct = member("parent");
+        FakeUser inherited = member("child");
+
+        assertEquals(Set.of(direct.getUniqueId()), index.getDirectMembers("parent").join());
+        assertEquals(Set.of(direct.getUniqueId(), inherited.getUniqueId()), index.getMembers("parent").join());
+    }
+
+    @Test
+    public void testConcurrentRequestsShareSearch() {
+        luckPerms.createGroup("shared", 0);
+        FakeUser member = member("shared");
+        index.invalidateAll();
+
+        luckPerms.storage().setLatency(Duration.ofMillis(200), Duration.ZERO);
+        try {
+            CompletableFuture<Set<UUID>> first = index.getDirectMembers("shared");
+            CompletableFuture<Set<UUID>> second = index.getDirectMembers("shared");
+            assertSame(first, second);
+            assertEquals(Set.of(member.getUniqueId()), first.join());
+        } finally {
+            luckPerms.storage().setLatency(Duration.ZERO, Duration.ZERO);
+        }
+    }
+}
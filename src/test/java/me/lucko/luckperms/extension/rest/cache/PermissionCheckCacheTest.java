@@ -0,0 +1,104 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import me.lucko.luckperms.extension.rest.fake.FakeGroup;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.fake.FakeNode;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PermissionCheckCacheTest {
+    private static FakeLuckPerms luckPerms;
+    private static PermissionCheckCache cache;
+
+    @BeforeAll
+    public static void setup() {
+        luckPerms = FakeLuckPerms.install();
+        cache = new PermissionCheckCache(luckPerms.getEventBus());
+    }
+
+    @AfterAll
+    public static void teardown() {
+        cache.close();
+    }
+
+    private static String check(FakeUser user, String permission) {
+        return cache.check(user, permission, null).result();
+    }
+
+    @Test
+    public void testCached() {
+        FakeUser user = luckPerms.createUser(0);
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+
+        assertEquals("undefined", check(user, "cached.permission"));
+        assertEquals("undefined", check(user, "cached.permission"));
+        assertEquals(1, cache.getHits() - hits);
+        assertEquals(1, cache.getMisses() - misses);
+    }
+
+    @Test
+    public void testInvalidatedByUserChanges() {
+        FakeUser user = luckPerms.createUser(0);
+        FakeUser other = luckPerms.createUser(0);
+        assertEquals("undefined", check(user, "user.permission"));
+        assertEquals("undefined", check(other, "user.permission"));
+
+        long misses = cache.getMisses();
+        user.data().add(FakeNode.create("user.permission"));
+        assertEquals("true", check(user, "user.permission"));
+        assertEquals(1, cache.getMisses() - misses);
+
+        // only the changed user's results are dropped
+        long hits = cache.getHits();
+        assertEquals("undefined", check(other, "user.permission"));
+        assertEquals(1, cache.getHits() - hits);
+
+        user.data().clear();
+        assertEquals("undefined", check(user, "user.permission"));
+        assertEquals(2, cache.getMisses() - misses);
+    }
+
+    @Test
+    public void testInvalidatedByGroupChanges() {
+        FakeGroup group = luckPerms.createGroup("checked", 0);
+        FakeUser user = luckPerms.createUser(0);
+        user.data().add(FakeNode.create("group.checked"));
+        assertEquals("undefined", check(user, "inherited.permission"));
+
+        // the user inherits the change, without their own data changing
+        long misses = cache.getMisses();
+        group.data().add(FakeNode.create("inherited.permission"));
+        assertEquals("true", check(user, "inherited.permission"));
+        assertEquals(1, cache.getMisses() - misses);
+    }
+}
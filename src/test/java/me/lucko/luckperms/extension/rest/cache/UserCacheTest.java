@@ -0,0 +1,109 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.cache;
+
+import me.lucko.luckperms.extension.rest.fake.FakeEvents;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.fake.FakeNode;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.user.User;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UserCacheTest {
+    private static FakeLuckPerms luckPerms;
+    private static UserCache cache;
+
+    @BeforeAll
+    public static void setup() {
+        System.setProperty("luckperms.rest.cache.users.maxSize", "100");
+        luckPerms = FakeLuckPerms.install();
+        cache = new UserCache(luckPerms.getEventBus());
+    }
+
+    @AfterAll
+    public static void teardown() {
+        cache.close();
+    }
+
+    private static final class CountingLoader implements Function<UUID, CompletableFuture<User>> {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public CompletableFuture<User> apply(UUID uniqueId) {
+            this.loads.incrementAndGet();
+            return luckPerms.getUserManager().loadUser(uniqueId);
+        }
+    }
+
+    @Test
+    public void testCached() {
+        FakeUser user = luckPerms.createUser(0);
+        CountingLoader loader = new CountingLoader();
+
+        cache.get(user.getUniqueId(), loader).join();
+        cache.get(user.getUniqueId(), loader).join();
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void testNotInvalidatedByRecalculation() {
+        FakeUser user = luckPerms.createUser(0);
+        CountingLoader loader = new CountingLoader();
+        cache.get(user.getUniqueId(), loader).join();
+
+        luckPerms.events().post(UserDataRecalculateEvent.class, FakeEvents.userDataRecalculate(luckPerms, user));
+        cache.get(user.getUniqueId(), loader).join();
+        assertEquals(1, loader.loads.get());
+    }
+
+    @Test
+    public void testInvalidatedByNodeChanges() {
+        FakeUser user = luckPerms.createUser(0);
+        FakeUser other = luckPerms.createUser(0);
+        CountingLoader loader = new CountingLoader();
+        cache.get(user.getUniqueId(), loader).join();
+        cache.get(other.getUniqueId(), loader).join();
+
+        user.data().add(FakeNode.create("test.permission"));
+        cache.get(user.getUniqueId(), loader).join();
+        cache.get(other.getUniqueId(), loader).join();
+        assertEquals(3, loader.loads.get());
+
+        user.data().clear();
+        cache.get(user.getUniqueId(), loader).join();
+        assertEquals(4, loader.loads.get());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionLimiterTest {
+
+    @Test
+    public void testRejectsOverLimitWithoutWaiting() {
+        AdmissionLimiter limiter = new AdmissionLimiter(2, false, 1, 2, 50, 1000);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+
+        long start = System.nanoTime();
+        assertFalse(limiter.tryAcquire());
+        assertTrue(System.nanoTime() - start < 50_000_000L, "tryAcquire shouldn't block");
+        assertEquals(1, limiter.getRejected());
+
+        limiter.release(0);
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    public void testDecreasesAtMostOncePerWindow() {
+        AdmissionLimiter limiter = new AdmissionLimiter(10, true, 1, 10, 50, 60_000);
+        long slow = TimeUnit.MILLISECONDS.toNanos(200);
+
+        // a slow spell is seen by every request in flight at the time
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int i = 0; i < 10; i++) {
+            limiter.release(slow);
+        }
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    public void testDecreasesAgainAfterWindow() throws InterruptedException {
+        AdmissionLimiter limiter = new AdmissionLimiter(10, true, 1, 10, 50, 100);
+        long slow = TimeUnit.MILLISECONDS.toNanos(200);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(slow);
+        assertEquals(9, limiter.getLimit());
+
+        Thread.sleep(150);
+        assertTrue(limiter.tryAcquire());
+        limiter.release(slow);
+        // 9 * 0.9
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    public void testIncreasesWhileFastAndBusy() {
+        AdmissionLimiter limiter = new AdmissionLimiter(10, true, 1, 20, 50, 60_000);
+        long slow = TimeUnit.MILLISECONDS.toNanos(200);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+
+        assertTrue(limiter.tryAcquire());
+        limiter.release(slow);
+        assertEquals(9, limiter.getLimit());
+
+        // roughly one per limit's worth of requests, while the limit is in use
+        for (int round = 0; round < 20; round++) {
+            int limit = limiter.getLimit();
+            for (int i = 0; i < limit; i++) {
+                limiter.tryAcquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.release(fast);
+            }
+        }
+        assertTrue(limiter.getLimit() > 9);
+        assertTrue(limiter.getLimit() <= 20);
+    }
+
+    @Test
+    public void testLatencyBelowThresholdDoesNotDecrease() {
+        AdmissionLimiter limiter = new AdmissionLimiter(4, true, 1, 4, 2000, 0);
+        assertTrue(limiter.tryAcquire());
+        // e.g. a search scanning every user
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(4, limiter.getLimit());
+    }
+}
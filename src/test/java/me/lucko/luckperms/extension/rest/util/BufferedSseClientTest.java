@@ -0,0 +1,226 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BufferedSseClientTest {
+
+    @Test
+    public void testDropOldest() {
+        TestSink sink = new TestSink();
+        ManualExecutor writer = new ManualExecutor();
+        LongAdder dropped = new LongAdder();
+        BufferedSseClient client = new BufferedSseClient(sink, writer, 3, BufferedSseClient.OverflowPolicy.DROP_OLDEST, dropped);
+
+        sendAll(client, 5);
+        assertEquals(3, client.queued());
+        writer.runAll();
+
+        assertEquals(List.of("2", "3", "4"), sink.received);
+        assertEquals(2, dropped.sum());
+        assertFalse(sink.closed);
+    }
+
+    @Test
+    public void testCoalesce() {
+        TestSink sink = new TestSink();
+        ManualExecutor writer = new ManualExecutor();
+        LongAdder dropped = new LongAdder();
+        BufferedSseClient client = new BufferedSseClient(sink, writer, 3, BufferedSseClient.OverflowPolicy.COALESCE, dropped);
+
+        sendAll(client, 4);
+        writer.runAll();
+
+        assertEquals(List.of("3"), sink.received);
+        assertEquals(3, dropped.sum());
+        assertFalse(sink.closed);
+    }
+
+    @Test
+    public void testDisconnect() {
+        TestSink sink = new TestSink();
+        ManualExecutor writer = new ManualExecutor();
+        LongAdder dropped = new LongAdder();
+        BufferedSseClient client = new BufferedSseClient(sink, writer, 3, BufferedSseClient.OverflowPolicy.DISCONNECT, dropped);
+
+        sendAll(client, 4);
+        writer.runAll();
+
+        assertTrue(sink.closed);
+        assertEquals(List.of(), sink.received);
+        assertEquals(4, dropped.sum());
+
+        // nothing more is queued once disconnected
+        sendAll(client, 1);
+        assertEquals(0, client.queued());
+    }
+
+    @Test
+    public void testOneWriterPerClient() {
+        TestSink sink = new TestSink();
+        ManualExecutor writer = new ManualExecutor();
+        BufferedSseClient client = new BufferedSseClient(sink, writer, 10, BufferedSseClient.OverflowPolicy.DROP_OLDEST, new LongAdder());
+
+        sendAll(client, 5);
+        // the first send starts a writer, which drains everything queued after it
+        assertEquals(1, writer.tasks.size());
+        writer.runAll();
+        assertEquals(List.of("0", "1", "2", "3", "4"), sink.received);
+
+        // once drained, the next send starts a new one
+        sendAll(client, 1);
+        assertEquals(1, writer.tasks.size());
+    }
+
+    @Test
+    public void testFailedWriteDisconnects() {
+        TestSink sink = new TestSink();
+        sink.fail = true;
+        ManualExecutor writer = new ManualExecutor();
+        BufferedSseClient client = new BufferedSseClient(sink, writer, 10, BufferedSseClient.OverflowPolicy.DROP_OLDEST, new LongAdder());
+
+        sendAll(client, 3);
+        writer.runAll();
+
+        assertTrue(sink.closed);
+        assertEquals(0, client.queued());
+    }
+
+    @Test
+    public void testStalledClientsDoNotHoldUpOthers() throws InterruptedException {
+        int writerThreads = 2;
+        ExecutorService writer = BufferedSseClient.newWriterPool(writerThreads, 64);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // more stalled clients than there are core writer threads
+            for (int i = 0; i < writerThreads + 1; i++) {
+                BufferedSseClient.Sink stalled = new BufferedSseClient.Sink() {
+                    @Override
+                    public void send(String event, byte[] data) throws Exception {
+                        release.await();
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+                sendAll(new BufferedSseClient(stalled, writer, 10, BufferedSseClient.OverflowPolicy.DROP_OLDEST, new LongAdder()), 1);
+            }
+
+            CountDownLatch received = new CountDownLatch(1);
+            BufferedSseClient.Sink healthy = new BufferedSseClient.Sink() {
+                @Override
+                public void send(String event, byte[] data) {
+                    received.countDown();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            sendAll(new BufferedSseClient(healthy, writer, 10, BufferedSseClient.OverflowPolicy.DROP_OLDEST, new LongAdder()), 1);
+
+            assertTrue(received.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void testRejectedWriteDisconnects() {
+        TestSink sink = new TestSink();
+        Executor writer = command -> {
+            throw new RejectedExecutionException();
+        };
+        LongAdder dropped = new LongAdder();
+        BufferedSseClient client = new BufferedSseClient(sink, writer, 10, BufferedSseClient.OverflowPolicy.DROP_OLDEST, dropped);
+
+        sendAll(client, 3);
+
+        assertTrue(sink.closed);
+        assertEquals(0, client.queued());
+        assertEquals(1, dropped.sum());
+    }
+
+    private static void sendAll(BufferedSseClient client, int count) {
+        for (int i = 0; i < count; i++) {
+            client.send("message", Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class TestSink implements BufferedSseClient.Sink {
+        private final List<String> received = new ArrayList<>();
+        private boolean fail = false;
+        private boolean closed = false;
+
+        @Override
+        public void send(String event, byte[] data) throws Exception {
+            if (this.fail) {
+                throw new Exception("write failed");
+            }
+            this.received.add(new String(data, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
+
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = this.tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+}
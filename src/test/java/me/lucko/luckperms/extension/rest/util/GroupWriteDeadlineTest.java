@@ -0,0 +1,117 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import me.lucko.luckperms.extension.rest.TestServer;
+import me.lucko.luckperms.extension.rest.fake.FakeGroup;
+import me.lucko.luckperms.extension.rest.fake.FakeTrack;
+import net.luckperms.api.node.Node;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GroupWriteDeadlineTest {
+    private static TestServer server;
+
+    @BeforeAll
+    public static void setup() {
+        System.setProperty("luckperms.rest.timeout.write", "500");
+        server = TestServer.start();
+    }
+
+    @AfterAll
+    public static void teardown() {
+        server.close();
+    }
+
+    @AfterEach
+    public void resetLatency() {
+        server.luckPerms().storage().setLatency(Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    public void testTimedOutGroupWriteIsNotApplied() throws InterruptedException {
+        FakeGroup group = server.luckPerms().createGroup("deadline-write", 0);
+        // loading the group takes longer than the request's deadline
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1000), Duration.ZERO);
+
+        int status = server.post("/group/deadline-write/nodes", """
+                {"key": "deadline.test", "value": true}""").statusCode();
+        assertEquals(504, status);
+
+        // wait for the load to complete, and for the group to have been changed and saved if it was going to be
+        Thread.sleep(1500);
+        assertTrue(group.data().toCollection().stream().map(Node::getKey).noneMatch("deadline.test"::equals));
+    }
+
+    @Test
+    public void testTimedOutGroupDeleteIsNotApplied() throws InterruptedException {
+        server.luckPerms().createGroup("deadline-delete", 0);
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1000), Duration.ZERO);
+
+        int status = server.delete("/group/deadline-delete").statusCode();
+        assertEquals(504, status);
+
+        Thread.sleep(1500);
+        assertNotNull(server.luckPerms().groups().getFake("deadline-delete"));
+    }
+
+    @Test
+    public void testTimedOutTrackUpdateIsNotApplied() throws InterruptedException {
+        FakeGroup first = server.luckPerms().createGroup("deadline-first", 0);
+        server.luckPerms().createGroup("deadline-second", 0);
+        FakeTrack track = server.luckPerms().tracks().createTrack("deadline-track");
+        track.appendGroup(first);
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1000), Duration.ZERO);
+
+        int status = server.patch("/track/deadline-track", """
+                {"groups": ["deadline-second"]}""").statusCode();
+        assertEquals(504, status);
+
+        Thread.sleep(1500);
+        assertEquals(List.of("deadline-first"), track.getGroups());
+    }
+
+    @Test
+    public void testTimedOutTrackDeleteIsNotApplied() throws InterruptedException {
+        server.luckPerms().tracks().createTrack("deadline-delete-track");
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1000), Duration.ZERO);
+
+        int status = server.delete("/track/deadline-delete-track").statusCode();
+        assertEquals(504, status);
+
+        Thread.sleep(1500);
+        assertNotNull(server.luckPerms().tracks().getFake("deadline-delete-track"));
+    }
+}
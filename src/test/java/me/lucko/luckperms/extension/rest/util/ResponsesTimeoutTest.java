@@ -0,0 +1,89 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import me.lucko.luckperms.extension.rest.TestServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ResponsesTimeoutTest {
+    private static TestServer server;
+
+    @BeforeAll
+    public static void setup() {
+        System.setProperty("luckperms.rest.timeout.read", "1000");
+        // listing the groups is a search
+        System.setProperty("luckperms.rest.timeout.search", "1000");
+        // load groups from (slow) storage rather than memory
+        System.setProperty("luckperms.rest.cache.groups", "false");
+        server = TestServer.start();
+    }
+
+    @AfterAll
+    public static void teardown() {
+        server.close();
+    }
+
+    @AfterEach
+    public void resetLatency() {
+        server.luckPerms().storage().setLatency(Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    public void testReadTimesOut() {
+        server.luckPerms().createGroup("slow", 10);
+        server.luckPerms().storage().setLatency(Duration.ofMillis(2000), Duration.ZERO);
+
+        HttpResponse<String> response = server.get("/group/slow");
+        assertEquals(504, response.statusCode());
+    }
+
+    @Test
+    public void testTimeoutDoesNotFailSharedFuture() throws InterruptedException {
+        // warm up the server first, so the timings below only depend on the storage latency
+        assertEquals(404, server.get("/group/warmup").statusCode());
+
+        // both requests wait on the same group list snapshot, which takes 1500ms to load
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1500), Duration.ZERO);
+
+        CompletableFuture<HttpResponse<String>> first = server.getAsync("/group");
+        Thread.sleep(700);
+        CompletableFuture<HttpResponse<String>> second = server.getAsync("/group");
+
+        // the first request's deadline passes before the snapshot loads...
+        assertEquals(504, first.join().statusCode());
+        // ...but that mustn't fail the snapshot for the second, which is still within its own
+        assertEquals(200, second.join().statusCode());
+    }
+}
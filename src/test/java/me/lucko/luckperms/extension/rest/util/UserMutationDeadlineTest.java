@@ -0,0 +1,97 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import me.lucko.luckperms.extension.rest.TestServer;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import net.luckperms.api.node.Node;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UserMutationDeadlineTest {
+    private static TestServer server;
+
+    @BeforeAll
+    public static void setup() {
+        System.setProperty("luckperms.rest.timeout.write", "500");
+        server = TestServer.start();
+    }
+
+    @AfterAll
+    public static void teardown() {
+        server.close();
+    }
+
+    @AfterEach
+    public void resetLatency() {
+        server.luckPerms().storage().setLatency(Duration.ZERO, Duration.ZERO);
+    }
+
+    @Test
+    public void testTimedOutWriteIsNotApplied() throws InterruptedException {
+        FakeUser user = server.luckPerms().createUser(0);
+        // loading the user takes longer than the request's deadline
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1000), Duration.ZERO);
+
+        int status = server.post("/user/" + user.getUniqueId() + "/nodes", """
+                {"key": "deadline.test", "value": true}""").statusCode();
+        assertEquals(504, status);
+
+        // wait for the load to complete, and for the mutation to have been applied if it was going to be
+        Thread.sleep(1500);
+        assertTrue(user.data().toCollection().stream().map(Node::getKey).noneMatch("deadline.test"::equals));
+    }
+
+    @Test
+    public void testWriteWithinDeadlineIsApplied() {
+        FakeUser user = server.luckPerms().createUser(0);
+        server.luckPerms().storage().setLatency(Duration.ofMillis(100), Duration.ZERO);
+
+        int status = server.post("/user/" + user.getUniqueId() + "/nodes", """
+                {"key": "deadline.test", "value": true}""").statusCode();
+        assertEquals(200, status);
+        assertTrue(user.data().toCollection().stream().map(Node::getKey).anyMatch("deadline.test"::equals));
+    }
+
+    @Test
+    public void testTimedOutDeleteIsNotApplied() throws InterruptedException {
+        FakeUser user = server.luckPerms().createUser(10);
+        server.luckPerms().storage().setLatency(Duration.ofMillis(1000), Duration.ZERO);
+
+        int status = server.delete("/user/" + user.getUniqueId()).statusCode();
+        assertEquals(504, status);
+
+        Thread.sleep(1500);
+        assertEquals(10, user.data().toCollection().size());
+    }
+}
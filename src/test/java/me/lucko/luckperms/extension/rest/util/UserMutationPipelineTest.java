@@ -0,0 +1,133 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.util;
+
+import me.lucko.luckperms.extension.rest.cache.UserCache;
+import me.lucko.luckperms.extension.rest.fake.FakeLuckPerms;
+import me.lucko.luckperms.extension.rest.fake.FakeNode;
+import me.lucko.luckperms.extension.rest.fake.FakeUser;
+import net.luckperms.api.node.Node;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UserMutationPipelineTest {
+    private static FakeLuckPerms luckPerms;
+    private static UserCache userCache;
+    private static UserMutationPipeline pipeline;
+
+    @BeforeAll
+    public static void setup() {
+        luckPerms = FakeLuckPerms.install();
+        userCache = new UserCache(luckPerms.getEventBus());
+        pipeline = new UserMutationPipeline(luckPerms.getUserManager(), luckPerms.getMessagingService().orElseThrow(), userCache);
+    }
+
+    @AfterAll
+    public static void teardown() {
+        userCache.close();
+    }
+
+    @AfterEach
+    public void resetLatency() {
+        luckPerms.storage().setLatency(Duration.ZERO, Duration.ZERO);
+    }
+
+    private static Set<String> keys(FakeUser user) {
+        return user.data().toCollection().stream().map(Node::getKey).collect(Collectors.toSet());
+    }
+
+    private static CompletableFuture<Void> add(FakeUser user, String key) {
+        return pipeline.submit(user.getUniqueId(), Deadline.NONE, u -> {
+            u.data().add(FakeNode.create(key));
+            return null;
+        });
+    }
+
+    private static CompletableFuture<Void> addAndFail(FakeUser user, String key) {
+        return pipeline.submit(user.getUniqueId(), Deadline.NONE, u -> {
+            u.data().add(FakeNode.create(key));
+            throw new IllegalStateException("failed after changing the user");
+        });
+    }
+
+    @Test
+    public void testConcurrentMutationsAreBatched() {
+        FakeUser user = luckPerms.createUser(0);
+        long updates = luckPerms.messaging().getUserUpdates();
+        luckPerms.storage().setLatency(Duration.ofMillis(200), Duration.ZERO);
+
+        // the first mutation starts a batch, the rest queue up behind it and are applied together
+        List<CompletableFuture<Void>> futures = List.of(
+                add(user, "batch.a"),
+                add(user, "batch.b"),
+                add(user, "batch.c"),
+                add(user, "batch.d")
+        );
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(Set.of("batch.a", "batch.b", "batch.c", "batch.d"), keys(user));
+        assertEquals(2, luckPerms.messaging().getUserUpdates() - updates);
+    }
+
+    @Test
+    public void testFailedMutationLeavesNoTrace() {
+        FakeUser user = luckPerms.createUser(0);
+        luckPerms.storage().setLatency(Duration.ofMillis(200), Duration.ZERO);
+
+        CompletableFuture<Void> first = add(user, "first");
+        CompletableFuture<Void> failed = addAndFail(user, "failed");
+        CompletableFuture<Void> second = add(user, "second");
+
+        first.join();
+        second.join();
+        CompletionException ex = assertThrows(CompletionException.class, failed::join);
+        assertEquals(IllegalStateException.class, ex.getCause().getClass());
+        assertEquals(Set.of("first", "second"), keys(user));
+    }
+
+    @Test
+    public void testFailedBatchIsNotSaved() {
+        FakeUser user = luckPerms.createUser(0);
+        user.data().add(FakeNode.create("existing"));
+        long updates = luckPerms.messaging().getUserUpdates();
+
+        assertThrows(CompletionException.class, addAndFail(user, "failed")::join);
+        assertEquals(Set.of("existing"), keys(user));
+        assertEquals(0, luckPerms.messaging().getUserUpdates() - updates);
+    }
+}
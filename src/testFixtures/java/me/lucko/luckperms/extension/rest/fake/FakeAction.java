@@ -0,0 +1,136 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.actionlog.Action;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * An in-memory {@link Action}.
+ */
+public record FakeAction(Instant getTimestamp, Source getSource, Target getTarget, String getDescription) implements Action {
+    private static final Comparator<Action> COMPARATOR = Comparator.comparing(Action::getTimestamp)
+            .thenComparing(action -> action.getSource().getUniqueId())
+            .thenComparing(Action::getDescription);
+
+    public static Action create(UUID source, String sourceName, UUID target, String targetName, Action.Target.Type targetType, String description) {
+        return new Builder()
+                .source(source)
+                .sourceName(sourceName)
+                .target(target)
+                .targetName(targetName)
+                .targetType(targetType)
+                .description(description)
+                .build();
+    }
+
+    @Override
+    public int compareTo(Action other) {
+        return COMPARATOR.compare(this, other);
+    }
+
+    public record Source(UUID getUniqueId, String getName) implements Action.Source {
+    }
+
+    public record Target(UUID uniqueId, String getName, Action.Target.Type getType) implements Action.Target {
+        @Override
+        public Optional<UUID> getUniqueId() {
+            return Optional.ofNullable(this.uniqueId);
+        }
+    }
+
+    /**
+     * An in-memory {@link Action.Builder}.
+     */
+    public static final class Builder implements Action.Builder {
+        private Instant timestamp = Instant.now();
+        private UUID source;
+        private String sourceName;
+        private UUID target;
+        private String targetName;
+        private Action.Target.Type targetType;
+        private String description;
+
+        @Override
+        public Builder timestamp(Instant timestamp) {
+            this.timestamp = timestamp;
+            return this;
+        }
+
+        @Override
+        public Builder source(UUID source) {
+            this.source = source;
+            return this;
+        }
+
+        @Override
+        public Builder sourceName(String sourceName) {
+            this.sourceName = sourceName;
+            return this;
+        }
+
+        @Override
+        public Builder target(UUID target) {
+            this.target = target;
+            return this;
+        }
+
+        @Override
+        public Builder targetName(String targetName) {
+            this.targetName = targetName;
+            return this;
+        }
+
+        @Override
+        public Builder targetType(Action.Target.Type targetType) {
+            this.targetType = targetType;
+            return this;
+        }
+
+        @Override
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        @Override
+        public Action build() {
+            if (this.source == null || this.sourceName == null || this.targetName == null || this.targetType == null || this.description == null) {
+                throw new IllegalStateException("Missing required action field");
+            }
+            return new FakeAction(
+                    this.timestamp,
+                    new Source(this.source, this.sourceName),
+                    new Target(this.target, this.targetName, this.targetType),
+                    this.description
+            );
+        }
+    }
+}
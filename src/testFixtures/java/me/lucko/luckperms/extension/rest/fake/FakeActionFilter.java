@@ -0,0 +1,90 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.actionlog.Action;
+import net.luckperms.api.actionlog.filter.ActionFilter;
+import net.luckperms.api.actionlog.filter.ActionFilterFactory;
+
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory {@link ActionFilter}.
+ */
+public record FakeActionFilter(Predicate<Action> predicate) implements ActionFilter {
+
+    @Override
+    public boolean matches(Action action) {
+        return this.predicate.test(action);
+    }
+
+    /**
+     * An in-memory {@link ActionFilterFactory}.
+     */
+    public static final class Factory implements ActionFilterFactory {
+
+        @Override
+        public FakeActionFilter any() {
+            return new FakeActionFilter(action -> true);
+        }
+
+        @Override
+        public FakeActionFilter source(UUID uniqueId) {
+            return new FakeActionFilter(action -> action.getSource().getUniqueId().equals(uniqueId));
+        }
+
+        @Override
+        public FakeActionFilter user(UUID uniqueId) {
+            return new FakeActionFilter(action -> action.getTarget().getType() == Action.Target.Type.USER
+                    && action.getTarget().getUniqueId().filter(uniqueId::equals).isPresent());
+        }
+
+        @Override
+        public FakeActionFilter group(String name) {
+            return target(Action.Target.Type.GROUP, name);
+        }
+
+        @Override
+        public FakeActionFilter track(String name) {
+            return target(Action.Target.Type.TRACK, name);
+        }
+
+        @Override
+        public FakeActionFilter search(String query) {
+            String lowerQuery = query.toLowerCase(Locale.ROOT);
+            return new FakeActionFilter(action -> action.getSource().getName().toLowerCase(Locale.ROOT).contains(lowerQuery)
+                    || action.getTarget().getName().toLowerCase(Locale.ROOT).contains(lowerQuery)
+                    || action.getDescription().toLowerCase(Locale.ROOT).contains(lowerQuery));
+        }
+
+        private static FakeActionFilter target(Action.Target.Type type, String name) {
+            return new FakeActionFilter(action -> action.getTarget().getType() == type
+                    && action.getTarget().getName().equalsIgnoreCase(name));
+        }
+    }
+}
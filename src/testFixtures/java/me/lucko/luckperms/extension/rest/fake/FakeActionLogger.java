@@ -0,0 +1,122 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.actionlog.Action;
+import net.luckperms.api.actionlog.ActionLog;
+import net.luckperms.api.actionlog.ActionLogger;
+import net.luckperms.api.actionlog.filter.ActionFilter;
+import net.luckperms.api.event.log.LogBroadcastEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An in-memory {@link ActionLogger}.
+ */
+public final class FakeActionLogger implements ActionLogger {
+    private final FakeLuckPerms luckPerms;
+    private final List<Action> actions = new ArrayList<>();
+
+    public FakeActionLogger(FakeLuckPerms luckPerms) {
+        this.luckPerms = luckPerms;
+    }
+
+    // fixture methods
+
+    public void addAll(List<Action> actions) {
+        synchronized (this.actions) {
+            this.actions.addAll(actions);
+        }
+    }
+
+    // ActionLogger
+
+    @Override
+    public FakeAction.Builder actionBuilder() {
+        return new FakeAction.Builder();
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<ActionLog> getLog() {
+        throw new UnsupportedOperationException("Use queryActions instead");
+    }
+
+    @Override
+    public CompletableFuture<List<Action>> queryActions(ActionFilter filter) {
+        return this.luckPerms.storage().call(() -> query(filter));
+    }
+
+    @Override
+    public CompletableFuture<net.luckperms.api.util.Page<Action>> queryActions(ActionFilter filter, int pageSize, int pageNumber) {
+        return this.luckPerms.storage().call(() -> {
+            List<Action> matches = query(filter);
+            int from = Math.min(matches.size(), (pageNumber - 1) * pageSize);
+            int to = Math.min(matches.size(), from + pageSize);
+            return new Page(List.copyOf(matches.subList(from, to)), matches.size());
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> submit(Action action) {
+        return submitToStorage(action).thenCompose(v -> broadcastAction(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> submitToStorage(Action action) {
+        return this.luckPerms.storage().call(() -> {
+            synchronized (this.actions) {
+                this.actions.add(action);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> broadcastAction(Action action) {
+        this.luckPerms.events().post(LogBroadcastEvent.class, FakeEvents.logBroadcast(this.luckPerms, action, LogBroadcastEvent.Origin.LOCAL_API));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private List<Action> query(ActionFilter filter) {
+        List<Action> matches = new ArrayList<>();
+        synchronized (this.actions) {
+            for (Action action : this.actions) {
+                if (filter.matches(action)) {
+                    matches.add(action);
+                }
+            }
+        }
+        // newest first, like LuckPerms
+        matches.sort(Comparator.comparing(Action::getTimestamp).reversed());
+        return matches;
+    }
+
+    public record Page(List<Action> entries, int overallSize) implements net.luckperms.api.util.Page<Action> { }
+}
@@ -0,0 +1,244 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.cacheddata.CachedDataManager;
+import net.luckperms.api.cacheddata.CachedMetaData;
+import net.luckperms.api.cacheddata.CachedPermissionData;
+import net.luckperms.api.metastacking.MetaStackDefinition;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.types.MetaNode;
+import net.luckperms.api.node.types.PermissionNode;
+import net.luckperms.api.node.types.PrefixNode;
+import net.luckperms.api.node.types.SuffixNode;
+import net.luckperms.api.query.QueryOptions;
+import net.luckperms.api.util.Tristate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An in-memory {@link CachedDataManager}.
+ *
+ * <p>Permission and meta data is calculated from the holder's resolved nodes the first
+ * time it is requested for a set of query options, and cached until the holder changes.</p>
+ */
+public final class FakeCachedDataManager implements CachedDataManager {
+    private final FakePermissionHolder holder;
+    private final Map<QueryOptions, CachedPermissionData> permissionData = new ConcurrentHashMap<>();
+    private final Map<QueryOptions, CachedMetaData> metaData = new ConcurrentHashMap<>();
+    private volatile long groupGeneration;
+
+    FakeCachedDataManager(FakePermissionHolder holder) {
+        this.holder = holder;
+    }
+
+    @Override
+    public Container<CachedPermissionData> permissionData() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Container<CachedMetaData> metaData() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CachedPermissionData getPermissionData() {
+        return getPermissionData(this.holder.getQueryOptions());
+    }
+
+    @Override
+    public CachedPermissionData getPermissionData(QueryOptions options) {
+        checkGroupGeneration();
+        return this.permissionData.computeIfAbsent(options, o -> new PermissionData(this.holder.resolveInheritedNodes(o), o));
+    }
+
+    @Override
+    public CachedMetaData getMetaData() {
+        return getMetaData(this.holder.getQueryOptions());
+    }
+
+    @Override
+    public CachedMetaData getMetaData(QueryOptions options) {
+        checkGroupGeneration();
+        return this.metaData.computeIfAbsent(options, o -> new MetaData(this.holder.resolveInheritedNodes(o), o, this.holder.getPrimaryGroupName()));
+    }
+
+    private void checkGroupGeneration() {
+        long generation = this.holder.luckPerms.groups().getGeneration();
+        if (generation != this.groupGeneration) {
+            invalidate();
+            this.groupGeneration = generation;
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        this.permissionData.clear();
+        this.metaData.clear();
+    }
+
+    @Override
+    public void invalidatePermissionCalculators() {
+        this.permissionData.clear();
+    }
+
+    public static final class PermissionData implements CachedPermissionData {
+        private final Map<String, Node> permissions = new HashMap<>();
+        private final QueryOptions queryOptions;
+
+        PermissionData(List<Node> nodes, QueryOptions queryOptions) {
+            for (Node node : nodes) {
+                if (node instanceof PermissionNode) {
+                    this.permissions.putIfAbsent(node.getKey().toLowerCase(Locale.ROOT), node);
+                }
+            }
+            this.queryOptions = queryOptions;
+        }
+
+        @Override
+        public QueryOptions getQueryOptions() {
+            return this.queryOptions;
+        }
+
+        @Override
+        public Result<Tristate, Node> queryPermission(String permission) {
+            Node node = this.permissions.get(permission.toLowerCase(Locale.ROOT));
+            return node == null
+                    ? new Result<>(Tristate.UNDEFINED, null)
+                    : new Result<>(Tristate.of(node.getValue()), node);
+        }
+
+        @Override
+        public Map<String, Boolean> getPermissionMap() {
+            Map<String, Boolean> map = new HashMap<>();
+            this.permissions.forEach((key, node) -> map.put(key, node.getValue()));
+            return map;
+        }
+
+        @Override
+        public void invalidateCache() {
+            // nothing to invalidate
+        }
+    }
+
+    public record Result<T, N extends Node>(T result, N node) implements net.luckperms.api.cacheddata.Result<T, N> { }
+
+    public static final class MetaData implements CachedMetaData {
+        private final Map<String, List<String>> meta = new LinkedHashMap<>();
+        private final Map<String, MetaNode> metaNodes = new HashMap<>();
+        private final SortedMap<Integer, String> prefixes = new TreeMap<>(Collections.reverseOrder());
+        private final SortedMap<Integer, String> suffixes = new TreeMap<>(Collections.reverseOrder());
+        private PrefixNode prefix;
+        private SuffixNode suffix;
+        private final String primaryGroup;
+        private final QueryOptions queryOptions;
+
+        MetaData(List<Node> nodes, QueryOptions queryOptions, String primaryGroup) {
+            for (Node node : nodes) {
+                if (!node.getValue()) {
+                    continue;
+                }
+                if (node instanceof MetaNode meta) {
+                    this.meta.computeIfAbsent(meta.getMetaKey(), k -> new ArrayList<>()).add(meta.getMetaValue());
+                    this.metaNodes.putIfAbsent(meta.getMetaKey(), meta);
+                } else if (node instanceof PrefixNode prefix) {
+                    this.prefixes.putIfAbsent(prefix.getPriority(), prefix.getMetaValue());
+                    if (this.prefix == null || prefix.getPriority() > this.prefix.getPriority()) {
+                        this.prefix = prefix;
+                    }
+                } else if (node instanceof SuffixNode suffix) {
+                    this.suffixes.putIfAbsent(suffix.getPriority(), suffix.getMetaValue());
+                    if (this.suffix == null || suffix.getPriority() > this.suffix.getPriority()) {
+                        this.suffix = suffix;
+                    }
+                }
+            }
+            this.primaryGroup = primaryGroup;
+            this.queryOptions = queryOptions;
+        }
+
+        @Override
+        public QueryOptions getQueryOptions() {
+            return this.queryOptions;
+        }
+
+        @Override
+        public Map<String, List<String>> getMeta() {
+            return this.meta;
+        }
+
+        @Override
+        public Result<String, MetaNode> queryMetaValue(String key) {
+            MetaNode node = this.metaNodes.get(key);
+            return new Result<>(node == null ? null : node.getMetaValue(), node);
+        }
+
+        @Override
+        public Result<String, PrefixNode> queryPrefix() {
+            return new Result<>(this.prefix == null ? null : this.prefix.getMetaValue(), this.prefix);
+        }
+
+        @Override
+        public Result<String, SuffixNode> querySuffix() {
+            return new Result<>(this.suffix == null ? null : this.suffix.getMetaValue(), this.suffix);
+        }
+
+        @Override
+        public SortedMap<Integer, String> getPrefixes() {
+            return this.prefixes;
+        }
+
+        @Override
+        public SortedMap<Integer, String> getSuffixes() {
+            return this.suffixes;
+        }
+
+        @Override
+        public MetaStackDefinition getPrefixStackDefinition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MetaStackDefinition getSuffixStackDefinition() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getPrimaryGroup() {
+            return this.primaryGroup;
+        }
+    }
+}
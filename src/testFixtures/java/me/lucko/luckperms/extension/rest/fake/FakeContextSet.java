@@ -0,0 +1,209 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.context.Context;
+import net.luckperms.api.context.ContextSatisfyMode;
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.context.MutableContextSet;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * An in-memory {@link ImmutableContextSet}.
+ */
+public final class FakeContextSet implements ImmutableContextSet {
+    public static final ImmutableContextSet EMPTY = create(Collections.emptySet());
+
+    public static ImmutableContextSet create(Set<Context> contexts) {
+        return new FakeContextSet(contexts);
+    }
+
+    public static Context context(String key, String value) {
+        return new FakeContext(key, value);
+    }
+
+    private final Set<Context> contexts;
+
+    private FakeContextSet(Set<Context> contexts) {
+        this.contexts = Collections.unmodifiableSet(new LinkedHashSet<>(contexts));
+    }
+
+    @Override
+    public Iterator<Context> iterator() {
+        return this.contexts.iterator();
+    }
+
+    @Override
+    public Set<Context> toSet() {
+        return this.contexts;
+    }
+
+    @Override
+    public Map<String, Set<String>> toMap() {
+        Map<String, Set<String>> map = new LinkedHashMap<>();
+        for (Context context : this.contexts) {
+            map.computeIfAbsent(context.getKey(), k -> new TreeSet<>()).add(context.getValue());
+        }
+        return map;
+    }
+
+    @Override
+    @Deprecated
+    public Map<String, String> toFlattenedMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Context context : this.contexts) {
+            map.putIfAbsent(context.getKey(), context.getValue());
+        }
+        return map;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    @Override
+    @Deprecated
+    public ImmutableContextSet immutableCopy() {
+        return this;
+    }
+
+    @Override
+    public MutableContextSet mutableCopy() {
+        throw new UnsupportedOperationException("Mutable context sets aren't supported");
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.contexts.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return this.contexts.size();
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        for (Context context : this.contexts) {
+            if (context.getKey().equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<String> getValues(String key) {
+        Set<String> values = new TreeSet<>();
+        for (Context context : this.contexts) {
+            if (context.getKey().equals(key)) {
+                values.add(context.getValue());
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public boolean contains(String key, String value) {
+        return this.contexts.contains(context(key, value));
+    }
+
+    @Override
+    public boolean isSatisfiedBy(ContextSet other, ContextSatisfyMode mode) {
+        if (mode == ContextSatisfyMode.ALL_VALUES_PER_KEY) {
+            for (Context context : this.contexts) {
+                if (!other.contains(context.getKey(), context.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        for (Map.Entry<String, Set<String>> entry : toMap().entrySet()) {
+            if (!other.containsAny(entry.getKey(), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FakeContextSet other && this.contexts.equals(other.contexts);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.contexts.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ContextSet" + this.contexts;
+    }
+
+    private record FakeContext(String getKey, String getValue) implements Context {
+        @Override
+        public String toString() {
+            return this.getKey + "=" + this.getValue;
+        }
+    }
+
+    /**
+     * An in-memory {@link ImmutableContextSet.Builder}.
+     */
+    public static final class Builder implements ImmutableContextSet.Builder {
+        private final Set<Context> contexts = new LinkedHashSet<>();
+
+        @Override
+        public Builder add(String key, String value) {
+            this.contexts.add(context(key, value));
+            return this;
+        }
+
+        @Override
+        public Builder addAll(ContextSet contextSet) {
+            for (Context context : contextSet) {
+                add(context.getKey(), context.getValue());
+            }
+            return this;
+        }
+
+        @Override
+        public ImmutableContextSet build() {
+            return create(this.contexts);
+        }
+    }
+}
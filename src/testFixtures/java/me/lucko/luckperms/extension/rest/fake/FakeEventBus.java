@@ -0,0 +1,97 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.LuckPermsEvent;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory {@link EventBus}.
+ *
+ * <p>Events are posted synchronously on the calling thread with {@link #post(Class, LuckPermsEvent)}.</p>
+ */
+public final class FakeEventBus implements EventBus {
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    @Override
+    public <T extends LuckPermsEvent> EventSubscription<T> subscribe(Class<T> eventClass, Consumer<? super T> handler) {
+        Subscription<T> subscription = new Subscription<>(this, eventClass, handler);
+        this.subscriptions.add(subscription);
+        return subscription;
+    }
+
+    @Override
+    public <T extends LuckPermsEvent> EventSubscription<T> subscribe(Object plugin, Class<T> eventClass, Consumer<? super T> handler) {
+        return subscribe(eventClass, handler);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends LuckPermsEvent> Set<EventSubscription<T>> getSubscriptions(Class<T> eventClass) {
+        return this.subscriptions.stream()
+                .filter(subscription -> subscription.getEventClass() == eventClass)
+                .map(subscription -> (EventSubscription<T>) subscription)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Posts an event to every subscription for the event type or one of its supertypes.
+     *
+     * @param eventType the event interface
+     * @param event the event
+     * @param <T> the event type
+     */
+    public <T extends LuckPermsEvent> void post(Class<T> eventType, T event) {
+        for (Subscription<?> subscription : this.subscriptions) {
+            if (subscription.getEventClass().isAssignableFrom(eventType)) {
+                subscription.accept(event);
+            }
+        }
+    }
+
+    public record Subscription<T extends LuckPermsEvent>(FakeEventBus bus, Class<T> getEventClass, Consumer<? super T> getHandler) implements EventSubscription<T> {
+        @Override
+        public boolean isActive() {
+            return this.bus.subscriptions.contains(this);
+        }
+
+        @Override
+        public void close() {
+            this.bus.subscriptions.remove(this);
+        }
+
+        void accept(LuckPermsEvent event) {
+            this.getHandler.accept(this.getEventClass.cast(event));
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.actionlog.Action;
+import net.luckperms.api.cacheddata.CachedDataManager;
+import net.luckperms.api.event.LuckPermsEvent;
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.event.log.LogBroadcastEvent;
+import net.luckperms.api.event.node.NodeAddEvent;
+import net.luckperms.api.event.node.NodeClearEvent;
+import net.luckperms.api.event.node.NodeRemoveEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.PermissionHolder;
+import net.luckperms.api.model.data.DataType;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.Node;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory implementations of the events posted by the fakes.
+ */
+public final class FakeEvents {
+    private FakeEvents() {}
+
+    public static UserDataRecalculateEvent userDataRecalculate(LuckPerms luckPerms, FakeUser user) {
+        return new UserDataRecalculate(luckPerms, user, user.getCachedData());
+    }
+
+    public static GroupDataRecalculateEvent groupDataRecalculate(LuckPerms luckPerms, FakeGroup group) {
+        return new GroupDataRecalculate(luckPerms, group, group.getCachedData());
+    }
+
+    public static LogBroadcastEvent logBroadcast(LuckPerms luckPerms, Action action, LogBroadcastEvent.Origin origin) {
+        return new LogBroadcast(luckPerms, action, origin, new AtomicBoolean());
+    }
+
+    public static NodeAddEvent nodeAdd(LuckPerms luckPerms, PermissionHolder target, Set<Node> before, Set<Node> after, Node node) {
+        return new NodeAdd(luckPerms, target, before, after, node);
+    }
+
+    public static NodeRemoveEvent nodeRemove(LuckPerms luckPerms, PermissionHolder target, Set<Node> before, Set<Node> after, Node node) {
+        return new NodeRemove(luckPerms, target, before, after, node);
+    }
+
+    public static NodeClearEvent nodeClear(LuckPerms luckPerms, PermissionHolder target, Set<Node> before, Set<Node> after) {
+        return new NodeClear(luckPerms, target, before, after);
+    }
+
+    public record UserDataRecalculate(LuckPerms getLuckPerms, User getUser, CachedDataManager getData) implements UserDataRecalculateEvent {
+        @Override
+        public Class<? extends LuckPermsEvent> getEventType() {
+            return UserDataRecalculateEvent.class;
+        }
+    }
+
+    public record GroupDataRecalculate(LuckPerms getLuckPerms, Group getGroup, CachedDataManager getData) implements GroupDataRecalculateEvent {
+        @Override
+        public Class<? extends LuckPermsEvent> getEventType() {
+            return GroupDataRecalculateEvent.class;
+        }
+    }
+
+    public record LogBroadcast(LuckPerms getLuckPerms, Action getEntry, LogBroadcastEvent.Origin getOrigin, AtomicBoolean cancellationState) implements LogBroadcastEvent {
+        @Override
+        public Class<? extends LuckPermsEvent> getEventType() {
+            return LogBroadcastEvent.class;
+        }
+    }
+
+    public record NodeAdd(LuckPerms getLuckPerms, PermissionHolder getTarget, Set<Node> getDataBefore, Set<Node> getDataAfter, Node getNode) implements NodeAddEvent {
+        @Override
+        public DataType getDataType() {
+            return DataType.NORMAL;
+        }
+
+        @Override
+        public Class<? extends LuckPermsEvent> getEventType() {
+            return NodeAddEvent.class;
+        }
+    }
+
+    public record NodeRemove(LuckPerms getLuckPerms, PermissionHolder getTarget, Set<Node> getDataBefore, Set<Node> getDataAfter, Node getNode) implements NodeRemoveEvent {
+        @Override
+        public DataType getDataType() {
+            return DataType.NORMAL;
+        }
+
+        @Override
+        public Class<? extends LuckPermsEvent> getEventType() {
+            return NodeRemoveEvent.class;
+        }
+    }
+
+    public record NodeClear(LuckPerms getLuckPerms, PermissionHolder getTarget, Set<Node> getDataBefore, Set<Node> getDataAfter) implements NodeClearEvent {
+        @Override
+        public DataType getDataType() {
+            return DataType.NORMAL;
+        }
+
+        @Override
+        public Set<Node> getNodes() {
+            Set<Node> nodes = new HashSet<>(this.getDataBefore);
+            nodes.removeAll(this.getDataAfter);
+            return nodes;
+        }
+
+        @Override
+        public Class<? extends LuckPermsEvent> getEventType() {
+            return NodeClearEvent.class;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.event.group.GroupDataRecalculateEvent;
+import net.luckperms.api.model.PermissionHolder;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.types.DisplayNameNode;
+import net.luckperms.api.node.types.WeightNode;
+import net.luckperms.api.query.QueryOptions;
+
+import java.util.OptionalInt;
+
+/**
+ * An in-memory {@link Group}.
+ */
+public final class FakeGroup extends FakePermissionHolder implements Group {
+    private final String name;
+
+    public FakeGroup(FakeLuckPerms luckPerms, String name) {
+        super(luckPerms);
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public String getDisplayName() {
+        for (Node node : getNodes()) {
+            if (node instanceof DisplayNameNode displayName && node.getContexts().isEmpty()) {
+                return displayName.getDisplayName();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String getDisplayName(QueryOptions queryOptions) {
+        return getDisplayName();
+    }
+
+    @Override
+    public OptionalInt getWeight() {
+        for (Node node : getNodes()) {
+            if (node instanceof WeightNode weight && node.getValue()) {
+                return OptionalInt.of(weight.getWeight());
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    @Override
+    public String getPrimaryGroupName() {
+        return null;
+    }
+
+    @Override
+    public PermissionHolder.Identifier getIdentifier() {
+        return new HolderIdentifier(PermissionHolder.Identifier.GROUP_TYPE, this.name);
+    }
+
+    @Override
+    public String getFriendlyName() {
+        String displayName = getDisplayName();
+        return displayName == null ? this.name : displayName;
+    }
+
+    @Override
+    protected void onDataChange() {
+        super.onDataChange();
+        this.luckPerms.groups().onGroupChange();
+        this.luckPerms.events().post(GroupDataRecalculateEvent.class, FakeEvents.groupDataRecalculate(this.luckPerms, this));
+    }
+
+    @Override
+    public String toString() {
+        return "Group(" + this.name + ")";
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.group.GroupManager;
+import net.luckperms.api.node.HeldNode;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.matcher.NodeMatcher;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory {@link GroupManager}.
+ */
+public final class FakeGroupManager implements GroupManager {
+    private final FakeLuckPerms luckPerms;
+    private final Map<String, FakeGroup> groups = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public FakeGroupManager(FakeLuckPerms luckPerms) {
+        this.luckPerms = luckPerms;
+    }
+
+    // fixture methods
+
+    public FakeGroup createGroup(String name) {
+        return this.groups.computeIfAbsent(name.toLowerCase(Locale.ROOT), n -> new FakeGroup(this.luckPerms, n));
+    }
+
+    public FakeGroup getFake(String name) {
+        return this.groups.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets a counter that is incremented whenever any group changes, so that data
+     * calculated from inherited groups can tell when it is stale.
+     *
+     * @return the generation
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    void onGroupChange() {
+        this.generation.incrementAndGet();
+    }
+
+    private <T> CompletableFuture<T> storage(Supplier<T> supplier) {
+        return this.luckPerms.storage().call(supplier);
+    }
+
+    // GroupManager
+
+    @Override
+    public CompletableFuture<Group> createAndLoadGroup(String name) {
+        return storage(() -> createGroup(name));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Group>> loadGroup(String name) {
+        return storage(() -> Optional.ofNullable(getFake(name)));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveGroup(Group group) {
+        return storage(() -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteGroup(Group group) {
+        return storage(() -> {
+            if (this.groups.remove(group.getName()) != null) {
+                onGroupChange();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> modifyGroup(String name, Consumer<? super Group> action) {
+        return createAndLoadGroup(name).thenCompose(group -> {
+            action.accept(group);
+            return saveGroup(group);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> loadAllGroups() {
+        return storage(() -> null);
+    }
+
+    @Override
+    public <T extends Node> CompletableFuture<Map<String, Collection<T>>> searchAll(NodeMatcher<? extends T> matcher) {
+        return storage(() -> {
+            Map<String, Collection<T>> results = new HashMap<>();
+            for (FakeGroup group : this.groups.values()) {
+                Collection<T> matches = FakeNodeMatcher.filter(matcher, group.getNodes());
+                if (!matches.isEmpty()) {
+                    results.put(group.getName(), matches);
+                }
+            }
+            return results;
+        });
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<List<HeldNode<String>>> getWithPermission(String permission) {
+        throw new UnsupportedOperationException("Use searchAll instead");
+    }
+
+    @Override
+    public Group getGroup(String name) {
+        return getFake(name);
+    }
+
+    @Override
+    public Set<Group> getLoadedGroups() {
+        return Set.copyOf(this.groups.values());
+    }
+
+    @Override
+    public boolean isLoaded(String name) {
+        return this.groups.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.context.ContextCalculator;
+import net.luckperms.api.context.ContextManager;
+import net.luckperms.api.context.ContextSetFactory;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.context.MutableContextSet;
+import net.luckperms.api.messaging.MessagingService;
+import net.luckperms.api.messenger.MessengerProvider;
+import net.luckperms.api.metastacking.MetaStackFactory;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.NodeBuilder;
+import net.luckperms.api.node.NodeBuilderRegistry;
+import net.luckperms.api.node.NodeEqualityPredicate;
+import net.luckperms.api.node.NodeType;
+import net.luckperms.api.node.matcher.NodeMatcher;
+import net.luckperms.api.node.matcher.NodeMatcherFactory;
+import net.luckperms.api.node.types.MetaNode;
+import net.luckperms.api.platform.Health;
+import net.luckperms.api.platform.Platform;
+import net.luckperms.api.platform.PlayerAdapter;
+import net.luckperms.api.platform.PluginMetadata;
+import net.luckperms.api.query.QueryMode;
+import net.luckperms.api.query.QueryOptions;
+import net.luckperms.api.query.QueryOptionsRegistry;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An in-memory implementation of the parts of the LuckPerms API used by the REST API.
+ *
+ * <p>{@link #install()} registers the fake with {@link LuckPermsProvider}, so the static
+ * factory methods in the API (e.g. {@code Node.builder}, {@code QueryOptions.builder})
+ * work outside of a LuckPerms server.</p>
+ *
+ * <p>All data is held in memory. The managers' storage calls can be slowed down with
+ * {@link FakeStorage#setLatency} to simulate a remote database.</p>
+ */
+public final class FakeLuckPerms implements LuckPerms {
+    private static FakeLuckPerms installed;
+
+    private final FakeStorage storage = new FakeStorage();
+    private final FakeEventBus eventBus = new FakeEventBus();
+    private final FakeGroupManager groupManager = new FakeGroupManager(this);
+    private final FakeUserManager userManager = new FakeUserManager(this);
+    private final FakeTrackManager trackManager = new FakeTrackManager(this);
+    private final FakeActionLogger actionLogger = new FakeActionLogger(this);
+    private final FakeMessagingService messagingService = new FakeMessagingService();
+
+    private final Contexts contextManager = new Contexts();
+    private final NodeBuilders nodeBuilderRegistry = new NodeBuilders();
+    private final NodeMatchers nodeMatcherFactory = new NodeMatchers();
+    private final QueryOptionsDefaults queryOptionsRegistry = new QueryOptionsDefaults();
+    private final FakeActionFilter.Factory actionFilterFactory = new FakeActionFilter.Factory();
+
+    /**
+     * Gets the installed fake, creating and registering it with {@link LuckPermsProvider}
+     * on the first call.
+     *
+     * @return the fake
+     */
+    public static synchronized FakeLuckPerms install() {
+        if (installed == null) {
+            FakeLuckPerms luckPerms = new FakeLuckPerms();
+            try {
+                Method register = LuckPermsProvider.class.getDeclaredMethod("register", LuckPerms.class);
+                register.setAccessible(true);
+                register.invoke(null, luckPerms);
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Unable to register fake LuckPerms instance", e);
+            }
+            installed = luckPerms;
+        }
+        return installed;
+    }
+
+    public FakeUserManager users() {
+        return this.userManager;
+    }
+
+    public FakeGroupManager groups() {
+        return this.groupManager;
+    }
+
+    public FakeTrackManager tracks() {
+        return this.trackManager;
+    }
+
+    public FakeActionLogger actions() {
+        return this.actionLogger;
+    }
+
+    public FakeMessagingService messaging() {
+        return this.messagingService;
+    }
+
+    public FakeEventBus events() {
+        return this.eventBus;
+    }
+
+    public FakeStorage storage() {
+        return this.storage;
+    }
+
+    // fixtures
+
+    /**
+     * Creates a user with the given number of nodes.
+     *
+     * @param nodeCount the number of nodes
+     * @return the user
+     */
+    public FakeUser createUser(int nodeCount) {
+        UUID uniqueId = UUID.randomUUID();
+        FakeUser user = this.userManager.createUser(uniqueId, "user" + Long.toHexString(uniqueId.getMostSignificantBits()));
+        user.data().addAll(fixtureNodes(nodeCount));
+        this.userManager.setOnline(uniqueId, true);
+        return user;
+    }
+
+    /**
+     * Creates a group with the given number of nodes.
+     *
+     * @param name the group name
+     * @param nodeCount the number of nodes
+     * @return the group
+     */
+    public FakeGroup createGroup(String name, int nodeCount) {
+        FakeGroup group = this.groupManager.createGroup(name);
+        group.data().addAll(fixtureNodes(nodeCount));
+        return group;
+    }
+
+    /**
+     * Creates a realistic mix of nodes - mostly permissions, some with contexts,
+     * plus a few parent groups, meta, prefixes and suffixes.
+     *
+     * @param count the number of nodes
+     * @return the nodes
+     */
+    public static List<Node> fixtureNodes(int count) {
+        ImmutableContextSet serverContext = FakeContextSet.create(Set.of(FakeContextSet.context("server", "survival")));
+
+        List<Node> nodes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String key = switch (i % 20) {
+                case 0 -> "group.fixture" + i;
+                case 1 -> "meta.key" + i + ".value" + i;
+                case 2 -> "prefix." + i + ".&7[Prefix " + i + "]";
+                case 3 -> "suffix." + i + ".&7[Suffix " + i + "]";
+                default -> "fixture.permission." + (i / 20) + ".node" + i;
+            };
+            ImmutableContextSet contexts = i % 4 == 0 ? serverContext : FakeContextSet.EMPTY;
+            nodes.add(FakeNode.create(key, i % 10 != 9, contexts, null));
+        }
+        return nodes;
+    }
+
+    // LuckPerms
+
+    @Override
+    public String getServerName() {
+        return "benchmark";
+    }
+
+    @Override
+    public FakeUserManager getUserManager() {
+        return this.userManager;
+    }
+
+    @Override
+    public FakeGroupManager getGroupManager() {
+        return this.groupManager;
+    }
+
+    @Override
+    public FakeTrackManager getTrackManager() {
+        return this.trackManager;
+    }
+
+    @Override
+    public <T> PlayerAdapter<T> getPlayerAdapter(Class<T> playerClass) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Platform getPlatform() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public PluginMetadata getPluginMetadata() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public FakeEventBus getEventBus() {
+        return this.eventBus;
+    }
+
+    @Override
+    public Optional<MessagingService> getMessagingService() {
+        return Optional.of(this.messagingService);
+    }
+
+    @Override
+    public FakeActionLogger getActionLogger() {
+        return this.actionLogger;
+    }
+
+    @Override
+    public Contexts getContextManager() {
+        return this.contextManager;
+    }
+
+    @Override
+    public MetaStackFactory getMetaStackFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<Void> runUpdateTask() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public Health runHealthCheck() {
+        // like the real health check, this pings the storage synchronously
+        return this.storage.callBlocking(() -> new HealthCheck(true, Map.of("storage", "fake", "latency", this.storage.getLatency().toMillis())));
+    }
+
+    @Override
+    public void registerMessengerProvider(MessengerProvider messengerProvider) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public NodeBuilders getNodeBuilderRegistry() {
+        return this.nodeBuilderRegistry;
+    }
+
+    @Override
+    public QueryOptionsDefaults getQueryOptionsRegistry() {
+        return this.queryOptionsRegistry;
+    }
+
+    @Override
+    public NodeMatchers getNodeMatcherFactory() {
+        return this.nodeMatcherFactory;
+    }
+
+    @Override
+    public FakeActionFilter.Factory getActionFilterFactory() {
+        return this.actionFilterFactory;
+    }
+
+    private record HealthCheck(boolean isHealthy, Map<String, Object> getDetails) implements Health { }
+
+    /**
+     * An in-memory {@link ContextManager}.
+     */
+    public static final class Contexts implements ContextManager {
+        private final ContextSets contextSetFactory = new ContextSets();
+
+        @Override
+        public ContextSets getContextSetFactory() {
+            return this.contextSetFactory;
+        }
+
+        @Override
+        public ImmutableContextSet getContext(Object subject) {
+            return FakeContextSet.EMPTY;
+        }
+
+        @Override
+        public Optional<ImmutableContextSet> getContext(User user) {
+            return Optional.of(FakeContextSet.EMPTY);
+        }
+
+        @Override
+        public ImmutableContextSet getStaticContext() {
+            return FakeContextSet.EMPTY;
+        }
+
+        @Override
+        public QueryOptions getQueryOptions(Object subject) {
+            return FakeQueryOptions.DEFAULT_CONTEXTUAL;
+        }
+
+        @Override
+        public Optional<QueryOptions> getQueryOptions(User user) {
+            return Optional.of(FakeQueryOptions.DEFAULT_CONTEXTUAL);
+        }
+
+        @Override
+        public QueryOptions getStaticQueryOptions() {
+            return FakeQueryOptions.DEFAULT_CONTEXTUAL;
+        }
+
+        @Override
+        public FakeQueryOptions.Builder queryOptionsBuilder(QueryMode mode) {
+            return new FakeQueryOptions.Builder(mode);
+        }
+
+        @Override
+        public void registerCalculator(ContextCalculator<?> calculator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void unregisterCalculator(ContextCalculator<?> calculator) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void signalContextUpdate(Object subject) {
+            // contexts never change
+        }
+    }
+
+    /**
+     * An in-memory {@link ContextSetFactory}.
+     */
+    public static final class ContextSets implements ContextSetFactory {
+
+        @Override
+        public FakeContextSet.Builder immutableBuilder() {
+            return new FakeContextSet.Builder();
+        }
+
+        @Override
+        public ImmutableContextSet immutableOf(String key, String value) {
+            return FakeContextSet.create(Set.of(FakeContextSet.context(key, value)));
+        }
+
+        @Override
+        public ImmutableContextSet immutableEmpty() {
+            return FakeContextSet.EMPTY;
+        }
+
+        @Override
+        public MutableContextSet mutable() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * An in-memory {@link NodeBuilderRegistry}.
+     */
+    public static final class NodeBuilders implements NodeBuilderRegistry {
+
+        @Override
+        public NodeBuilder<?, ?> forKey(String key) {
+            return FakeNode.builder(key);
+        }
+
+        @Override
+        public FakeNode.PermissionBuilder forPermission() {
+            return new FakeNode.PermissionBuilder(null);
+        }
+
+        @Override
+        public FakeNode.RegexPermissionBuilder forRegexPermission() {
+            return new FakeNode.RegexPermissionBuilder(null);
+        }
+
+        @Override
+        public FakeNode.InheritanceBuilder forInheritance() {
+            return new FakeNode.InheritanceBuilder(null);
+        }
+
+        @Override
+        public FakeNode.PrefixBuilder forPrefix() {
+            return new FakeNode.PrefixBuilder(null);
+        }
+
+        @Override
+        public FakeNode.SuffixBuilder forSuffix() {
+            return new FakeNode.SuffixBuilder(null);
+        }
+
+        @Override
+        public FakeNode.MetaBuilder forMeta() {
+            return new FakeNode.MetaBuilder(null);
+        }
+
+        @Override
+        public FakeNode.WeightBuilder forWeight() {
+            return new FakeNode.WeightBuilder(null);
+        }
+
+        @Override
+        public FakeNode.DisplayNameBuilder forDisplayName() {
+            return new FakeNode.DisplayNameBuilder(null);
+        }
+    }
+
+    /**
+     * An in-memory {@link NodeMatcherFactory}.
+     */
+    public static final class NodeMatchers implements NodeMatcherFactory {
+
+        @Override
+        public NodeMatcher<Node> key(String key) {
+            return new FakeNodeMatcher<>(node -> node.getKey().equalsIgnoreCase(key));
+        }
+
+        @Override
+        public <T extends Node> NodeMatcher<T> key(T other) {
+            return new FakeNodeMatcher<>(node -> node.getKey().equals(other.getKey()));
+        }
+
+        @Override
+        public NodeMatcher<Node> keyStartsWith(String startingWith) {
+            String lowerStartingWith = startingWith.toLowerCase(Locale.ROOT);
+            return new FakeNodeMatcher<>(node -> node.getKey().startsWith(lowerStartingWith));
+        }
+
+        @Override
+        public <T extends Node> NodeMatcher<T> equals(T other, NodeEqualityPredicate equalityPredicate) {
+            return new FakeNodeMatcher<>(node -> other.equals(node, equalityPredicate));
+        }
+
+        @Override
+        public NodeMatcher<MetaNode> metaKey(String metaKey) {
+            String prefix = "meta." + metaKey.toLowerCase(Locale.ROOT) + ".";
+            return new FakeNodeMatcher<>(node -> node.getKey().startsWith(prefix));
+        }
+
+        @Override
+        public <T extends Node> NodeMatcher<T> type(NodeType<? extends T> type) {
+            return new FakeNodeMatcher<>(type::matches);
+        }
+    }
+
+    /**
+     * An in-memory {@link QueryOptionsRegistry}.
+     */
+    public static final class QueryOptionsDefaults implements QueryOptionsRegistry {
+
+        @Override
+        public QueryOptions defaultContextualOptions() {
+            return FakeQueryOptions.DEFAULT_CONTEXTUAL;
+        }
+
+        @Override
+        public QueryOptions defaultNonContextualOptions() {
+            return FakeQueryOptions.NON_CONTEXTUAL;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.messaging.MessagingService;
+import net.luckperms.api.model.user.User;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An in-memory {@link MessagingService} that counts the
+ * messages it is asked to send.
+ */
+public final class FakeMessagingService implements MessagingService {
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder userUpdates = new LongAdder();
+    private final LongAdder customMessages = new LongAdder();
+
+    @Override
+    public String getName() {
+        return "fake";
+    }
+
+    @Override
+    public void pushUpdate() {
+        this.updates.increment();
+    }
+
+    @Override
+    public void pushUserUpdate(User user) {
+        this.userUpdates.increment();
+    }
+
+    @Override
+    public void sendCustomMessage(String channelId, String payload) {
+        this.customMessages.increment();
+    }
+
+    public long getUpdates() {
+        return this.updates.sum();
+    }
+
+    public long getUserUpdates() {
+        return this.userUpdates.sum();
+    }
+
+    public long getCustomMessages() {
+        return this.customMessages.sum();
+    }
+}
@@ -0,0 +1,759 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.node.ChatMetaType;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.NodeBuilder;
+import net.luckperms.api.node.NodeEqualityPredicate;
+import net.luckperms.api.node.ScopedNode;
+import net.luckperms.api.node.metadata.NodeMetadataKey;
+import net.luckperms.api.node.types.ChatMetaNode;
+import net.luckperms.api.node.types.DisplayNameNode;
+import net.luckperms.api.node.types.InheritanceNode;
+import net.luckperms.api.node.types.MetaNode;
+import net.luckperms.api.node.types.PermissionNode;
+import net.luckperms.api.node.types.PrefixNode;
+import net.luckperms.api.node.types.RegexPermissionNode;
+import net.luckperms.api.node.types.SuffixNode;
+import net.luckperms.api.node.types.WeightNode;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An in-memory {@link Node}.
+ *
+ * <p>The node type is worked out from the key, using the same key formats as LuckPerms.
+ * Node metadata isn't supported, and expiry times are ignored when comparing nodes with
+ * a {@link NodeEqualityPredicate}.</p>
+ *
+ * @param <N> the node type
+ * @param <B> the node builder type
+ */
+public abstract class FakeNode<N extends ScopedNode<N, B>, B extends NodeBuilder<N, B>> implements ScopedNode<N, B> {
+    private final String key;
+    private final boolean value;
+    private final ImmutableContextSet contexts;
+    private final Instant expiry;
+
+    FakeNode(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+        this.key = key;
+        this.value = value;
+        this.contexts = contexts;
+        this.expiry = expiry;
+    }
+
+    public static Node create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+        String lowerKey = key.toLowerCase(Locale.ROOT);
+        if (lowerKey.startsWith("group.")) {
+            return new Inheritance(lowerKey, value, contexts, expiry);
+        } else if (lowerKey.startsWith("meta.")) {
+            return new Meta(lowerKey, value, contexts, expiry);
+        } else if (lowerKey.startsWith("prefix.")) {
+            return new Prefix(lowerKey, value, contexts, expiry);
+        } else if (lowerKey.startsWith("suffix.")) {
+            return new Suffix(lowerKey, value, contexts, expiry);
+        } else if (lowerKey.startsWith("weight.")) {
+            return new Weight(lowerKey, value, contexts, expiry);
+        } else if (lowerKey.startsWith("displayname.")) {
+            return new DisplayName(lowerKey, value, contexts, expiry);
+        } else if (lowerKey.startsWith("r=")) {
+            return new RegexPermission(lowerKey, value, contexts, expiry);
+        } else {
+            return new Permission(lowerKey, value, contexts, expiry);
+        }
+    }
+
+    public static Node create(String key) {
+        return create(key, true, FakeContextSet.EMPTY, null);
+    }
+
+    /**
+     * Creates a builder for a node with the given key, of the type worked out from the key.
+     *
+     * @param key the node key
+     * @return the builder
+     */
+    public static NodeBuilder<?, ?> builder(String key) {
+        return create(key).toBuilder();
+    }
+
+    @Override
+    public String getKey() {
+        return this.key;
+    }
+
+    @Override
+    public boolean getValue() {
+        return this.value;
+    }
+
+    @Override
+    public ImmutableContextSet getContexts() {
+        return this.contexts;
+    }
+
+    @Override
+    public Instant getExpiry() {
+        return this.expiry;
+    }
+
+    @Override
+    public boolean hasExpiry() {
+        return this.expiry != null;
+    }
+
+    @Override
+    public boolean hasExpired() {
+        return this.expiry != null && this.expiry.isBefore(Instant.now());
+    }
+
+    @Override
+    public Duration getExpiryDuration() {
+        return this.expiry == null ? null : Duration.between(Instant.now(), this.expiry);
+    }
+
+    @Override
+    public <T> Optional<T> getMetadata(NodeMetadataKey<T> key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public Collection<String> resolveShorthand() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean equals(Node other, NodeEqualityPredicate equalityPredicate) {
+        if (equalityPredicate == NodeEqualityPredicate.ONLY_KEY) {
+            return this.key.equals(other.getKey());
+        }
+        boolean ignoreValue = equalityPredicate == NodeEqualityPredicate.IGNORE_VALUE
+                || equalityPredicate == NodeEqualityPredicate.IGNORE_EXPIRY_TIME_AND_VALUE
+                || equalityPredicate == NodeEqualityPredicate.IGNORE_VALUE_OR_IF_TEMPORARY;
+        return this.key.equals(other.getKey())
+                && (ignoreValue || this.value == other.getValue())
+                && this.contexts.equals(other.getContexts());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FakeNode<?, ?> other
+                && this.key.equals(other.key)
+                && this.value == other.value
+                && this.contexts.equals(other.contexts)
+                && Objects.equals(this.expiry, other.expiry);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.key, this.value, this.contexts, this.expiry);
+    }
+
+    @Override
+    public String toString() {
+        return "Node(" + this.key + "=" + this.value + ", " + this.contexts + ")";
+    }
+
+    String[] parts() {
+        return this.key.split("\\.", 3);
+    }
+
+    /**
+     * A {@link PermissionNode}.
+     */
+    public static final class Permission extends FakeNode<PermissionNode, PermissionNode.Builder> implements PermissionNode {
+        Permission(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public String getPermission() {
+            return getKey();
+        }
+
+        @Override
+        public boolean isWildcard() {
+            return getKey().endsWith(".*") || getKey().equals("*");
+        }
+
+        @Override
+        public OptionalInt getWildcardLevel() {
+            return isWildcard() ? OptionalInt.of((int) getKey().chars().filter(c -> c == '.').count()) : OptionalInt.empty();
+        }
+
+        @Override
+        public PermissionBuilder toBuilder() {
+            return new PermissionBuilder(this);
+        }
+    }
+
+    /**
+     * A {@link RegexPermissionNode}.
+     */
+    public static final class RegexPermission extends FakeNode<RegexPermissionNode, RegexPermissionNode.Builder> implements RegexPermissionNode {
+        RegexPermission(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public String getPatternString() {
+            return getKey().substring("r=".length());
+        }
+
+        @Override
+        public Optional<Pattern> getPattern() {
+            try {
+                return Optional.of(Pattern.compile(getPatternString(), Pattern.CASE_INSENSITIVE));
+            } catch (PatternSyntaxException e) {
+                return Optional.empty();
+            }
+        }
+
+        @Override
+        public RegexPermissionBuilder toBuilder() {
+            return new RegexPermissionBuilder(this);
+        }
+    }
+
+    /**
+     * An {@link InheritanceNode}.
+     */
+    public static final class Inheritance extends FakeNode<InheritanceNode, InheritanceNode.Builder> implements InheritanceNode {
+        Inheritance(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public String getGroupName() {
+            return getKey().substring("group.".length());
+        }
+
+        @Override
+        public InheritanceBuilder toBuilder() {
+            return new InheritanceBuilder(this);
+        }
+    }
+
+    /**
+     * A {@link MetaNode}.
+     */
+    public static final class Meta extends FakeNode<MetaNode, MetaNode.Builder> implements MetaNode {
+        Meta(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public String getMetaKey() {
+            return parts()[1];
+        }
+
+        @Override
+        public String getMetaValue() {
+            String[] parts = parts();
+            return parts.length > 2 ? parts[2] : "";
+        }
+
+        @Override
+        public MetaBuilder toBuilder() {
+            return new MetaBuilder(this);
+        }
+    }
+
+    /**
+     * Shared implementation of {@link Prefix} and {@link Suffix}.
+     */
+    abstract static class ChatMeta<N extends ChatMetaNode<N, B>, B extends ChatMetaNode.Builder<N, B>> extends FakeNode<N, B> implements ChatMetaNode<N, B> {
+        ChatMeta(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public int getPriority() {
+            return Integer.parseInt(parts()[1]);
+        }
+
+        @Override
+        public String getMetaValue() {
+            String[] parts = parts();
+            return parts.length > 2 ? parts[2] : "";
+        }
+    }
+
+    /**
+     * A {@link PrefixNode}.
+     */
+    public static final class Prefix extends ChatMeta<PrefixNode, PrefixNode.Builder> implements PrefixNode {
+        Prefix(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public ChatMetaType getMetaType() {
+            return ChatMetaType.PREFIX;
+        }
+
+        @Override
+        public PrefixBuilder toBuilder() {
+            return new PrefixBuilder(this);
+        }
+    }
+
+    /**
+     * A {@link SuffixNode}.
+     */
+    public static final class Suffix extends ChatMeta<SuffixNode, SuffixNode.Builder> implements SuffixNode {
+        Suffix(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public ChatMetaType getMetaType() {
+            return ChatMetaType.SUFFIX;
+        }
+
+        @Override
+        public SuffixBuilder toBuilder() {
+            return new SuffixBuilder(this);
+        }
+    }
+
+    /**
+     * A {@link WeightNode}.
+     */
+    public static final class Weight extends FakeNode<WeightNode, WeightNode.Builder> implements WeightNode {
+        Weight(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public int getWeight() {
+            return Integer.parseInt(getKey().substring("weight.".length()));
+        }
+
+        @Override
+        public WeightBuilder toBuilder() {
+            return new WeightBuilder(this);
+        }
+    }
+
+    /**
+     * A {@link DisplayNameNode}.
+     */
+    public static final class DisplayName extends FakeNode<DisplayNameNode, DisplayNameNode.Builder> implements DisplayNameNode {
+        DisplayName(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            super(key, value, contexts, expiry);
+        }
+
+        @Override
+        public String getDisplayName() {
+            return getKey().substring("displayname.".length());
+        }
+
+        @Override
+        public DisplayNameBuilder toBuilder() {
+            return new DisplayNameBuilder(this);
+        }
+    }
+
+    /**
+     * An in-memory {@link NodeBuilder}.
+     *
+     * @param <N> the node type
+     * @param <B> the node builder type
+     */
+    public abstract static class Builder<N extends ScopedNode<N, B>, B extends NodeBuilder<N, B>> implements NodeBuilder<N, B> {
+        private boolean value = true;
+        private FakeContextSet.Builder contexts = new FakeContextSet.Builder();
+        private Instant expiry;
+
+        Builder(FakeNode<N, B> node) {
+            if (node != null) {
+                this.value = node.value;
+                this.contexts.addAll(node.contexts);
+                this.expiry = node.expiry;
+            }
+        }
+
+        /**
+         * Gets the key of the node being built.
+         *
+         * @return the key, or null if it hasn't been set
+         */
+        protected abstract String key();
+
+        protected abstract N create(String key, boolean value, ImmutableContextSet contexts, Instant expiry);
+
+        @SuppressWarnings("unchecked")
+        private B self() {
+            return (B) this;
+        }
+
+        @Override
+        public B value(boolean value) {
+            this.value = value;
+            return self();
+        }
+
+        @Override
+        public B negated(boolean negated) {
+            this.value = !negated;
+            return self();
+        }
+
+        @Override
+        public B context(ContextSet contextSet) {
+            this.contexts = new FakeContextSet.Builder().addAll(contextSet);
+            return self();
+        }
+
+        @Override
+        public B withContext(String key, String value) {
+            this.contexts.add(key, value);
+            return self();
+        }
+
+        @Override
+        public B withContext(ContextSet contextSet) {
+            this.contexts.addAll(contextSet);
+            return self();
+        }
+
+        @Override
+        public B expiry(long expiryEpochSeconds) {
+            this.expiry = expiryEpochSeconds == 0 ? null : Instant.ofEpochSecond(expiryEpochSeconds);
+            return self();
+        }
+
+        @Override
+        public B expiry(TemporalAccessor expiry) {
+            this.expiry = expiry == null ? null : Instant.from(expiry);
+            return self();
+        }
+
+        @Override
+        public B expiry(TemporalAmount duration) {
+            this.expiry = duration == null ? null : Instant.now().plus(duration);
+            return self();
+        }
+
+        @Override
+        public B clearExpiry() {
+            this.expiry = null;
+            return self();
+        }
+
+        @Override
+        public <T> B withMetadata(NodeMetadataKey<T> key, T metadata) {
+            throw new UnsupportedOperationException("Node metadata isn't supported");
+        }
+
+        @Override
+        public N build() {
+            String key = key();
+            if (key == null) {
+                throw new IllegalStateException("Missing node key");
+            }
+            return create(key.toLowerCase(Locale.ROOT), this.value, this.contexts.build(), this.expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link PermissionNode.Builder}.
+     */
+    public static final class PermissionBuilder extends Builder<PermissionNode, PermissionNode.Builder> implements PermissionNode.Builder {
+        private String permission;
+
+        PermissionBuilder(Permission node) {
+            super(node);
+            this.permission = node == null ? null : node.getPermission();
+        }
+
+        @Override
+        public PermissionBuilder permission(String permission) {
+            this.permission = permission;
+            return this;
+        }
+
+        @Override
+        protected String key() {
+            return this.permission;
+        }
+
+        @Override
+        protected PermissionNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new Permission(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link RegexPermissionNode.Builder}.
+     */
+    public static final class RegexPermissionBuilder extends Builder<RegexPermissionNode, RegexPermissionNode.Builder> implements RegexPermissionNode.Builder {
+        private String pattern;
+
+        RegexPermissionBuilder(RegexPermission node) {
+            super(node);
+            this.pattern = node == null ? null : node.getPatternString();
+        }
+
+        @Override
+        public RegexPermissionBuilder pattern(String pattern) {
+            this.pattern = pattern;
+            return this;
+        }
+
+        @Override
+        public RegexPermissionBuilder pattern(Pattern pattern) {
+            return pattern(pattern.pattern());
+        }
+
+        @Override
+        protected String key() {
+            return this.pattern == null ? null : "r=" + this.pattern;
+        }
+
+        @Override
+        protected RegexPermissionNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new RegexPermission(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link InheritanceNode.Builder}.
+     */
+    public static final class InheritanceBuilder extends Builder<InheritanceNode, InheritanceNode.Builder> implements InheritanceNode.Builder {
+        private String group;
+
+        InheritanceBuilder(Inheritance node) {
+            super(node);
+            this.group = node == null ? null : node.getGroupName();
+        }
+
+        @Override
+        public InheritanceBuilder group(String group) {
+            this.group = group;
+            return this;
+        }
+
+        @Override
+        public InheritanceBuilder group(Group group) {
+            return group(group.getName());
+        }
+
+        @Override
+        protected String key() {
+            return this.group == null ? null : "group." + this.group;
+        }
+
+        @Override
+        protected InheritanceNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new Inheritance(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link MetaNode.Builder}.
+     */
+    public static final class MetaBuilder extends Builder<MetaNode, MetaNode.Builder> implements MetaNode.Builder {
+        private String metaKey;
+        private String metaValue;
+
+        MetaBuilder(Meta node) {
+            super(node);
+            if (node != null) {
+                this.metaKey = node.getMetaKey();
+                this.metaValue = node.getMetaValue();
+            }
+        }
+
+        @Override
+        public MetaBuilder key(String key) {
+            this.metaKey = key;
+            return this;
+        }
+
+        @Override
+        public MetaBuilder value(String value) {
+            this.metaValue = value;
+            return this;
+        }
+
+        @Override
+        protected String key() {
+            return this.metaKey == null || this.metaValue == null ? null : "meta." + this.metaKey + "." + this.metaValue;
+        }
+
+        @Override
+        protected MetaNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new Meta(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * Shared implementation of {@link PrefixBuilder} and {@link SuffixBuilder}.
+     */
+    abstract static class ChatMetaBuilder<N extends ChatMetaNode<N, B>, B extends ChatMetaNode.Builder<N, B>> extends Builder<N, B> implements ChatMetaNode.Builder<N, B> {
+        private final String type;
+        private int priority;
+        private String metaValue;
+
+        ChatMetaBuilder(String type, ChatMeta<N, B> node) {
+            super(node);
+            this.type = type;
+            if (node != null) {
+                this.priority = node.getPriority();
+                this.metaValue = node.getMetaValue();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public B priority(int priority) {
+            this.priority = priority;
+            return (B) this;
+        }
+
+        void metaValue(String metaValue) {
+            this.metaValue = metaValue;
+        }
+
+        @Override
+        protected String key() {
+            return this.metaValue == null ? null : this.type + "." + this.priority + "." + this.metaValue;
+        }
+    }
+
+    /**
+     * An in-memory {@link PrefixNode.Builder}.
+     */
+    public static final class PrefixBuilder extends ChatMetaBuilder<PrefixNode, PrefixNode.Builder> implements PrefixNode.Builder {
+        PrefixBuilder(Prefix node) {
+            super("prefix", node);
+        }
+
+        @Override
+        public PrefixBuilder prefix(String prefix) {
+            metaValue(prefix);
+            return this;
+        }
+
+        @Override
+        protected PrefixNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new Prefix(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link SuffixNode.Builder}.
+     */
+    public static final class SuffixBuilder extends ChatMetaBuilder<SuffixNode, SuffixNode.Builder> implements SuffixNode.Builder {
+        SuffixBuilder(Suffix node) {
+            super("suffix", node);
+        }
+
+        @Override
+        public SuffixBuilder suffix(String suffix) {
+            metaValue(suffix);
+            return this;
+        }
+
+        @Override
+        protected SuffixNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new Suffix(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link WeightNode.Builder}.
+     */
+    public static final class WeightBuilder extends Builder<WeightNode, WeightNode.Builder> implements WeightNode.Builder {
+        private Integer weight;
+
+        WeightBuilder(Weight node) {
+            super(node);
+            this.weight = node == null ? null : node.getWeight();
+        }
+
+        @Override
+        public WeightBuilder weight(int weight) {
+            this.weight = weight;
+            return this;
+        }
+
+        @Override
+        protected String key() {
+            return this.weight == null ? null : "weight." + this.weight;
+        }
+
+        @Override
+        protected WeightNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new Weight(key, value, contexts, expiry);
+        }
+    }
+
+    /**
+     * An in-memory {@link DisplayNameNode.Builder}.
+     */
+    public static final class DisplayNameBuilder extends Builder<DisplayNameNode, DisplayNameNode.Builder> implements DisplayNameNode.Builder {
+        private String displayName;
+
+        DisplayNameBuilder(DisplayName node) {
+            super(node);
+            this.displayName = node == null ? null : node.getDisplayName();
+        }
+
+        @Override
+        public DisplayNameBuilder displayName(String displayName) {
+            this.displayName = displayName;
+            return this;
+        }
+
+        @Override
+        protected String key() {
+            return this.displayName == null ? null : "displayname." + this.displayName;
+        }
+
+        @Override
+        protected DisplayNameNode create(String key, boolean value, ImmutableContextSet contexts, Instant expiry) {
+            return new DisplayName(key, value, contexts, expiry);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.event.node.NodeAddEvent;
+import net.luckperms.api.event.node.NodeClearEvent;
+import net.luckperms.api.event.node.NodeRemoveEvent;
+import net.luckperms.api.model.data.DataMutateResult;
+import net.luckperms.api.model.data.NodeMap;
+import net.luckperms.api.model.data.TemporaryNodeMergeStrategy;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.NodeEqualityPredicate;
+import net.luckperms.api.util.Tristate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory {@link NodeMap}.
+ *
+ * <p>Like LuckPerms, a holder can only have one node with a given key and context set.</p>
+ *
+ * <p>Adding, removing and clearing nodes posts the matching {@link net.luckperms.api.event.node.NodeMutateEvent},
+ * apart from {@link #addAll(Collection)}, which is only used to set up fixtures.</p>
+ */
+public final class FakeNodeMap implements NodeMap {
+    private final FakePermissionHolder holder;
+    private final Map<NodeKey, Node> nodes = new LinkedHashMap<>();
+    private volatile List<Node> view = List.of();
+
+    FakeNodeMap(FakePermissionHolder holder) {
+        this.holder = holder;
+    }
+
+    @Override
+    public Collection<Node> toCollection() {
+        List<Node> view = this.view;
+        if (view == null) {
+            synchronized (this) {
+                view = this.view;
+                if (view == null) {
+                    view = this.view = List.copyOf(this.nodes.values());
+                }
+            }
+        }
+        return view;
+    }
+
+    @Override
+    public DataMutateResult add(Node node) {
+        Set<Node> before;
+        Set<Node> after;
+        synchronized (this) {
+            before = Set.copyOf(this.nodes.values());
+            if (this.nodes.putIfAbsent(NodeKey.of(node), node) != null) {
+                return DataMutateResult.FAIL_ALREADY_HAS;
+            }
+            after = Set.copyOf(this.nodes.values());
+            this.view = null;
+        }
+        this.holder.onDataChange();
+        this.holder.onNodeMutate(NodeAddEvent.class, before, after, node);
+        return DataMutateResult.SUCCESS;
+    }
+
+    @Override
+    public MergedResult add(Node node, TemporaryNodeMergeStrategy mergeStrategy) {
+        return new MergedResult(add(node), node);
+    }
+
+    /**
+     * Adds many nodes at once, without notifying the holder for each one.
+     *
+     * @param nodes the nodes to add
+     */
+    public void addAll(Collection<? extends Node> nodes) {
+        synchronized (this) {
+            for (Node node : nodes) {
+                this.nodes.putIfAbsent(NodeKey.of(node), node);
+            }
+            this.view = null;
+        }
+        this.holder.onDataChange();
+    }
+
+    @Override
+    public DataMutateResult remove(Node node) {
+        Set<Node> before;
+        Set<Node> after;
+        Node removed;
+        synchronized (this) {
+            before = Set.copyOf(this.nodes.values());
+            removed = this.nodes.remove(NodeKey.of(node));
+            if (removed == null) {
+                return DataMutateResult.FAIL_LACKS;
+            }
+            after = Set.copyOf(this.nodes.values());
+            this.view = null;
+        }
+        this.holder.onDataChange();
+        this.holder.onNodeMutate(NodeRemoveEvent.class, before, after, removed);
+        return DataMutateResult.SUCCESS;
+    }
+
+    @Override
+    public Map<ImmutableContextSet, Collection<Node>> toMap() {
+        Map<ImmutableContextSet, Collection<Node>> map = new LinkedHashMap<>();
+        for (Node node : toCollection()) {
+            map.computeIfAbsent(node.getContexts(), k -> new ArrayList<>()).add(node);
+        }
+        return map;
+    }
+
+    @Override
+    public void clear() {
+        Set<Node> before;
+        synchronized (this) {
+            before = Set.copyOf(this.nodes.values());
+            this.nodes.clear();
+            this.view = null;
+        }
+        this.holder.onDataChange();
+        this.holder.onNodeMutate(NodeClearEvent.class, before, Set.of(), null);
+    }
+
+    @Override
+    public void clear(ContextSet contextSet) {
+        clear(node -> node.getContexts().equals(contextSet));
+    }
+
+    @Override
+    public void clear(ContextSet contextSet, Predicate<? super Node> predicate) {
+        clear(node -> node.getContexts().equals(contextSet) && predicate.test(node));
+    }
+
+    @Override
+    public void clear(Predicate<? super Node> predicate) {
+        Set<Node> before;
+        Set<Node> after;
+        synchronized (this) {
+            before = Set.copyOf(this.nodes.values());
+            this.nodes.values().removeIf(predicate);
+            after = Set.copyOf(this.nodes.values());
+            this.view = null;
+        }
+        this.holder.onDataChange();
+        this.holder.onNodeMutate(NodeClearEvent.class, before, after, null);
+    }
+
+    @Override
+    public Tristate contains(Node node, NodeEqualityPredicate equalityPredicate) {
+        Node existing;
+        synchronized (this) {
+            existing = this.nodes.get(NodeKey.of(node));
+        }
+        return existing == null ? Tristate.UNDEFINED : Tristate.of(existing.getValue());
+    }
+
+    private record NodeKey(String key, ImmutableContextSet contexts) {
+        static NodeKey of(Node node) {
+            return new NodeKey(node.getKey(), node.getContexts());
+        }
+    }
+
+    public record MergedResult(DataMutateResult getResult, Node getMergedNode) implements DataMutateResult.WithMergedNode { }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.matcher.NodeMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * An in-memory {@link NodeMatcher}.
+ *
+ * @param <T> the node type
+ */
+public record FakeNodeMatcher<T extends Node>(Predicate<Node> predicate) implements NodeMatcher<T> {
+
+    @Override
+    public boolean test(Node node) {
+        return this.predicate.test(node);
+    }
+
+    /**
+     * Gets the nodes accepted by a matcher.
+     *
+     * @param matcher the matcher
+     * @param nodes the nodes to filter
+     * @param <T> the node type
+     * @return the matching nodes
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Node> List<T> filter(NodeMatcher<? extends T> matcher, Collection<Node> nodes) {
+        List<T> matches = new ArrayList<>();
+        for (Node node : nodes) {
+            if (matcher.test(node)) {
+                matches.add((T) node);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.event.node.NodeAddEvent;
+import net.luckperms.api.event.node.NodeClearEvent;
+import net.luckperms.api.event.node.NodeMutateEvent;
+import net.luckperms.api.event.node.NodeRemoveEvent;
+import net.luckperms.api.model.PermissionHolder;
+import net.luckperms.api.model.data.DataType;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.NodeType;
+import net.luckperms.api.node.types.InheritanceNode;
+import net.luckperms.api.query.Flag;
+import net.luckperms.api.query.QueryOptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+
+/**
+ * Shared implementation of the fake users and groups.
+ */
+public abstract class FakePermissionHolder implements PermissionHolder {
+    protected final FakeLuckPerms luckPerms;
+    private final FakeNodeMap data = new FakeNodeMap(this);
+    private final FakeCachedDataManager cachedData = new FakeCachedDataManager(this);
+
+    protected FakePermissionHolder(FakeLuckPerms luckPerms) {
+        this.luckPerms = luckPerms;
+    }
+
+    public abstract String getPrimaryGroupName();
+
+    @Override
+    public FakeNodeMap data() {
+        return this.data;
+    }
+
+    @Override
+    public FakeNodeMap getData(DataType dataType) {
+        if (dataType != DataType.NORMAL) {
+            throw new UnsupportedOperationException("Only normal data is supported");
+        }
+        return this.data;
+    }
+
+    @Override
+    public FakeNodeMap transientData() {
+        throw new UnsupportedOperationException("Only normal data is supported");
+    }
+
+    @Override
+    public FakeCachedDataManager getCachedData() {
+        return this.cachedData;
+    }
+
+    @Override
+    public Collection<Node> getNodes() {
+        return this.data.toCollection();
+    }
+
+    @Override
+    public <T extends Node> Collection<T> getNodes(NodeType<T> type) {
+        List<T> nodes = new ArrayList<>();
+        for (Node node : this.data.toCollection()) {
+            if (type.matches(node)) {
+                nodes.add(type.cast(node));
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public SortedSet<Node> getDistinctNodes() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public QueryOptions getQueryOptions() {
+        return FakeQueryOptions.DEFAULT_CONTEXTUAL;
+    }
+
+    @Override
+    public Collection<Group> getInheritedGroups(QueryOptions options) {
+        Set<FakeGroup> groups = new LinkedHashSet<>();
+        collectGroups(options, groups);
+        return List.copyOf(groups);
+    }
+
+    private void collectGroups(QueryOptions options, Set<FakeGroup> groups) {
+        for (Node node : this.data.toCollection()) {
+            if (node instanceof InheritanceNode inheritance && node.getValue() && options.satisfies(node.getContexts())) {
+                FakeGroup group = this.luckPerms.groups().getFake(inheritance.getGroupName());
+                if (group != null && group != this && groups.add(group) && options.flag(Flag.RESOLVE_INHERITANCE)) {
+                    ((FakePermissionHolder) group).collectGroups(options, groups);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the nodes that apply with the given query options, including those inherited
+     * from groups. The holder's own nodes come first.
+     *
+     * @param options the query options
+     * @return the resolved nodes
+     */
+    @Override
+    public List<Node> resolveInheritedNodes(QueryOptions options) {
+        List<Node> nodes = new ArrayList<>();
+        for (Node node : this.data.toCollection()) {
+            if (options.satisfies(node.getContexts())) {
+                nodes.add(node);
+            }
+        }
+
+        Set<FakeGroup> groups = new LinkedHashSet<>();
+        collectGroups(options, groups);
+        for (FakeGroup group : groups) {
+            for (Node node : group.data().toCollection()) {
+                if (options.satisfies(node.getContexts())) {
+                    nodes.add(node);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    @Override
+    public SortedSet<Node> resolveDistinctInheritedNodes(QueryOptions options) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void auditTemporaryNodes() {
+        // nodes never expire
+    }
+
+    /**
+     * Called when the holder's nodes have changed.
+     */
+    protected void onDataChange() {
+        this.cachedData.invalidate();
+    }
+
+    /**
+     * Called when nodes have been added, removed or cleared through the API, after
+     * {@link #onDataChange()}, to post the matching {@link NodeMutateEvent}.
+     *
+     * @param event the event type
+     * @param before the nodes before the change
+     * @param after the nodes after the change
+     * @param node the node added or removed, or null if cleared
+     */
+    void onNodeMutate(Class<? extends NodeMutateEvent> event, Set<Node> before, Set<Node> after, Node node) {
+        FakeEventBus events = this.luckPerms.events();
+        if (event == NodeAddEvent.class) {
+            events.post(NodeAddEvent.class, FakeEvents.nodeAdd(this.luckPerms, this, before, after, node));
+        } else if (event == NodeRemoveEvent.class) {
+            events.post(NodeRemoveEvent.class, FakeEvents.nodeRemove(this.luckPerms, this, before, after, node));
+        } else {
+            events.post(NodeClearEvent.class, FakeEvents.nodeClear(this.luckPerms, this, before, after));
+        }
+    }
+
+    protected record HolderIdentifier(String getType, String getName) implements PermissionHolder.Identifier { }
+}
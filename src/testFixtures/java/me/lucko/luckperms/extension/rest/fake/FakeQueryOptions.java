@@ -0,0 +1,138 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.context.ContextSatisfyMode;
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.query.Flag;
+import net.luckperms.api.query.OptionKey;
+import net.luckperms.api.query.QueryMode;
+import net.luckperms.api.query.QueryOptions;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An in-memory {@link QueryOptions}.
+ */
+public record FakeQueryOptions(QueryMode mode, Set<Flag> flags, ImmutableContextSet context, Map<OptionKey<?>, Object> options) implements QueryOptions {
+    public static final QueryOptions DEFAULT_CONTEXTUAL = new Builder(QueryMode.CONTEXTUAL).build();
+    public static final QueryOptions NON_CONTEXTUAL = new Builder(QueryMode.NON_CONTEXTUAL).build();
+
+    @Override
+    public boolean flag(Flag flag) {
+        return this.flags.contains(flag);
+    }
+
+    @Override
+    public <O> Optional<O> option(OptionKey<O> key) {
+        //noinspection unchecked
+        return Optional.ofNullable((O) this.options.get(key));
+    }
+
+    @Override
+    public boolean satisfies(ContextSet contextSet, ContextSatisfyMode defaultContextSatisfyMode) {
+        return this.mode == QueryMode.NON_CONTEXTUAL
+                || contextSet.isSatisfiedBy(this.context, option(ContextSatisfyMode.KEY).orElse(defaultContextSatisfyMode));
+    }
+
+    @Override
+    public Builder toBuilder() {
+        Builder builder = new Builder(this.mode);
+        builder.flags = EnumSet.copyOf(this.flags);
+        builder.context = this.context;
+        builder.options.putAll(this.options);
+        return builder;
+    }
+
+    /**
+     * An in-memory {@link QueryOptions.Builder}.
+     */
+    public static final class Builder implements QueryOptions.Builder {
+        private QueryMode mode;
+        private EnumSet<Flag> flags = EnumSet.allOf(Flag.class);
+        private ImmutableContextSet context = FakeContextSet.EMPTY;
+        private final Map<OptionKey<?>, Object> options = new HashMap<>();
+
+        public Builder(QueryMode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public Builder mode(QueryMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        @Override
+        public Builder context(ContextSet context) {
+            this.context = new FakeContextSet.Builder().addAll(context).build();
+            return this;
+        }
+
+        @Override
+        public Builder flag(Flag flag, boolean value) {
+            if (value) {
+                this.flags.add(flag);
+            } else {
+                this.flags.remove(flag);
+            }
+            return this;
+        }
+
+        @Override
+        public Builder flags(Set<Flag> flags) {
+            this.flags = flags.isEmpty() ? EnumSet.noneOf(Flag.class) : EnumSet.copyOf(flags);
+            return this;
+        }
+
+        @Override
+        public <O> Builder option(OptionKey<O> key, O value) {
+            if (value == null) {
+                this.options.remove(key);
+            } else {
+                this.options.put(key, value);
+            }
+            return this;
+        }
+
+        @Override
+        public QueryOptions build() {
+            ImmutableContextSet context = this.mode == QueryMode.CONTEXTUAL ? this.context : FakeContextSet.EMPTY;
+            return new FakeQueryOptions(
+                    this.mode,
+                    Collections.unmodifiableSet(EnumSet.copyOf(this.flags)),
+                    context,
+                    Map.copyOf(this.options)
+            );
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Simulates the storage backend behind the fake managers.
+ *
+ * <p>With no latency configured, every storage call completes immediately on the calling
+ * thread. Otherwise each call completes asynchronously after the configured latency
+ * (plus up to the configured jitter), like a call to a remote database would.</p>
+ *
+ * <p>{@link #callBlocking(Supplier)} instead blocks the calling thread for the latency.</p>
+ */
+public final class FakeStorage {
+    private final Executor executor = ForkJoinPool.commonPool();
+    private volatile long latencyNanos = 0;
+    private volatile long jitterNanos = 0;
+
+    /**
+     * Sets the artificial latency added to every storage call.
+     *
+     * @param latency the fixed latency
+     * @param jitter the maximum random latency added on top
+     */
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latencyNanos = latency.toNanos();
+        this.jitterNanos = jitter.toNanos();
+    }
+
+    public Duration getLatency() {
+        return Duration.ofNanos(this.latencyNanos);
+    }
+
+    /**
+     * Runs a storage call.
+     *
+     * @param supplier the call
+     * @param <T> the result type
+     * @return a future encapsulating the result
+     */
+    public <T> CompletableFuture<T> call(Supplier<T> supplier) {
+        long delay = nextDelay();
+        if (delay <= 0) {
+            try {
+                return CompletableFuture.completedFuture(supplier.get());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(supplier, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, this.executor));
+    }
+
+    /**
+     * Runs a storage call that blocks the calling thread for the configured latency,
+     * like LuckPerms' synchronous calls (e.g. the health check) do.
+     *
+     * @param supplier the call
+     * @param <T> the result type
+     * @return the result
+     */
+    public <T> T callBlocking(Supplier<T> supplier) {
+        long delay = nextDelay();
+        if (delay > 0) {
+            LockSupport.parkNanos(delay);
+        }
+        return supplier.get();
+    }
+
+    private long nextDelay() {
+        long delay = this.latencyNanos;
+        long jitter = this.jitterNanos;
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        return delay;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.context.ContextSet;
+import net.luckperms.api.context.ImmutableContextSet;
+import net.luckperms.api.model.data.DataMutateResult;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.types.InheritanceNode;
+import net.luckperms.api.track.DemotionResult;
+import net.luckperms.api.track.PromotionResult;
+import net.luckperms.api.track.Track;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * An in-memory {@link Track}.
+ *
+ * <p>Promotions and demotions follow the same rules as LuckPerms: a user must be in
+ * exactly one of the track's groups in the given context to be moved along it.</p>
+ */
+public final class FakeTrack implements Track {
+    private final String name;
+    private final List<String> groups = new ArrayList<>();
+
+    public FakeTrack(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public synchronized List<String> getGroups() {
+        return List.copyOf(this.groups);
+    }
+
+    @Override
+    public boolean containsGroup(Group group) {
+        return containsGroup(group.getName());
+    }
+
+    @Override
+    public synchronized boolean containsGroup(String group) {
+        return this.groups.contains(group);
+    }
+
+    @Override
+    public synchronized String getNext(Group current) {
+        int index = this.groups.indexOf(current.getName());
+        return index == -1 || index == this.groups.size() - 1 ? null : this.groups.get(index + 1);
+    }
+
+    @Override
+    public synchronized String getPrevious(Group current) {
+        int index = this.groups.indexOf(current.getName());
+        return index <= 0 ? null : this.groups.get(index - 1);
+    }
+
+    @Override
+    public synchronized DataMutateResult appendGroup(Group group) {
+        if (this.groups.contains(group.getName())) {
+            return DataMutateResult.FAIL_ALREADY_HAS;
+        }
+        this.groups.add(group.getName());
+        return DataMutateResult.SUCCESS;
+    }
+
+    @Override
+    public synchronized DataMutateResult insertGroup(Group group, int position) {
+        if (this.groups.contains(group.getName())) {
+            return DataMutateResult.FAIL_ALREADY_HAS;
+        }
+        this.groups.add(position, group.getName());
+        return DataMutateResult.SUCCESS;
+    }
+
+    @Override
+    public DataMutateResult removeGroup(Group group) {
+        return removeGroup(group.getName());
+    }
+
+    @Override
+    public synchronized DataMutateResult removeGroup(String group) {
+        return this.groups.remove(group) ? DataMutateResult.SUCCESS : DataMutateResult.FAIL_LACKS;
+    }
+
+    @Override
+    public synchronized void clearGroups() {
+        this.groups.clear();
+    }
+
+    @Override
+    public PromotionResult promote(User user, ContextSet contexts) {
+        List<String> groups = getGroups();
+        if (groups.size() <= 1) {
+            return promotion(PromotionResult.Status.MALFORMED_TRACK, null, null);
+        }
+
+        FakeNodeMap data = holder(user).data();
+        ImmutableContextSet immutableContexts = contexts.immutableCopy();
+        List<String> current = currentGroups(user, groups, immutableContexts);
+        if (current.isEmpty()) {
+            String first = groups.get(0);
+            data.add(FakeNode.create("group." + first, true, immutableContexts, null));
+            return promotion(PromotionResult.Status.ADDED_TO_FIRST_GROUP, null, first);
+        }
+        if (current.size() > 1) {
+            return promotion(PromotionResult.Status.AMBIGUOUS_CALL, null, null);
+        }
+
+        String from = current.get(0);
+        int index = groups.indexOf(from);
+        if (index == groups.size() - 1) {
+            return promotion(PromotionResult.Status.END_OF_TRACK, from, null);
+        }
+
+        String to = groups.get(index + 1);
+        data.remove(FakeNode.create("group." + from, true, immutableContexts, null));
+        data.add(FakeNode.create("group." + to, true, immutableContexts, null));
+        return promotion(PromotionResult.Status.SUCCESS, from, to);
+    }
+
+    @Override
+    public DemotionResult demote(User user, ContextSet contexts) {
+        List<String> groups = getGroups();
+        if (groups.size() <= 1) {
+            return demotion(DemotionResult.Status.MALFORMED_TRACK, null, null);
+        }
+
+        FakeNodeMap data = holder(user).data();
+        ImmutableContextSet immutableContexts = contexts.immutableCopy();
+        List<String> current = currentGroups(user, groups, immutableContexts);
+        if (current.isEmpty()) {
+            return demotion(DemotionResult.Status.NOT_ON_TRACK, null, null);
+        }
+        if (current.size() > 1) {
+            return demotion(DemotionResult.Status.AMBIGUOUS_CALL, null, null);
+        }
+
+        String from = current.get(0);
+        int index = groups.indexOf(from);
+        data.remove(FakeNode.create("group." + from, true, immutableContexts, null));
+        if (index == 0) {
+            return demotion(DemotionResult.Status.REMOVED_FROM_FIRST_GROUP, from, null);
+        }
+
+        String to = groups.get(index - 1);
+        data.add(FakeNode.create("group." + to, true, immutableContexts, null));
+        return demotion(DemotionResult.Status.SUCCESS, from, to);
+    }
+
+    private static List<String> currentGroups(User user, List<String> groups, ImmutableContextSet contexts) {
+        List<String> current = new ArrayList<>();
+        for (Node node : user.getNodes()) {
+            if (node instanceof InheritanceNode inheritance && node.getValue()
+                    && node.getContexts().equals(contexts) && groups.contains(inheritance.getGroupName())) {
+                current.add(inheritance.getGroupName());
+            }
+        }
+        return current;
+    }
+
+    private static FakeUser holder(User user) {
+        return (FakeUser) user;
+    }
+
+    private static PromotionResult promotion(PromotionResult.Status status, String from, String to) {
+        return new Promotion(status, Optional.ofNullable(from), Optional.ofNullable(to));
+    }
+
+    private static DemotionResult demotion(DemotionResult.Status status, String from, String to) {
+        return new Demotion(status, Optional.ofNullable(from), Optional.ofNullable(to));
+    }
+
+    private record Promotion(PromotionResult.Status getStatus, Optional<String> getGroupFrom, Optional<String> getGroupTo) implements PromotionResult { }
+
+    private record Demotion(DemotionResult.Status getStatus, Optional<String> getGroupFrom, Optional<String> getGroupTo) implements DemotionResult { }
+
+    @Override
+    public String toString() {
+        return "Track(" + this.name + ")";
+    }
+}
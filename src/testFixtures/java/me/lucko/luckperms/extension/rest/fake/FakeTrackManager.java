@@ -0,0 +1,108 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.track.Track;
+import net.luckperms.api.track.TrackManager;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory {@link TrackManager}.
+ */
+public final class FakeTrackManager implements TrackManager {
+    private final FakeLuckPerms luckPerms;
+    private final Map<String, FakeTrack> tracks = new ConcurrentHashMap<>();
+
+    public FakeTrackManager(FakeLuckPerms luckPerms) {
+        this.luckPerms = luckPerms;
+    }
+
+    // fixture methods
+
+    public FakeTrack createTrack(String name) {
+        return this.tracks.computeIfAbsent(name.toLowerCase(Locale.ROOT), FakeTrack::new);
+    }
+
+    public FakeTrack getFake(String name) {
+        return this.tracks.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    private <T> CompletableFuture<T> storage(Supplier<T> supplier) {
+        return this.luckPerms.storage().call(supplier);
+    }
+
+    // TrackManager
+
+    @Override
+    public CompletableFuture<Track> createAndLoadTrack(String name) {
+        return storage(() -> createTrack(name));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Track>> loadTrack(String name) {
+        return storage(() -> Optional.ofNullable(getFake(name)));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveTrack(Track track) {
+        return storage(() -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteTrack(Track track) {
+        return storage(() -> {
+            this.tracks.remove(track.getName());
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> loadAllTracks() {
+        return storage(() -> null);
+    }
+
+    @Override
+    public Track getTrack(String name) {
+        return getFake(name);
+    }
+
+    @Override
+    public Set<Track> getLoadedTracks() {
+        return Set.copyOf(this.tracks.values());
+    }
+
+    @Override
+    public boolean isLoaded(String name) {
+        return this.tracks.containsKey(name.toLowerCase(Locale.ROOT));
+    }
+}
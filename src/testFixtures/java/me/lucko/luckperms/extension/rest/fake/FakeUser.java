@@ -0,0 +1,97 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.PermissionHolder;
+import net.luckperms.api.model.data.DataMutateResult;
+import net.luckperms.api.model.user.User;
+
+import java.util.UUID;
+
+/**
+ * An in-memory {@link User}.
+ */
+public final class FakeUser extends FakePermissionHolder implements User {
+    private final UUID uniqueId;
+    private volatile String username;
+
+    public FakeUser(FakeLuckPerms luckPerms, UUID uniqueId, String username) {
+        super(luckPerms);
+        this.uniqueId = uniqueId;
+        this.username = username;
+    }
+
+    @Override
+    public UUID getUniqueId() {
+        return this.uniqueId;
+    }
+
+    @Override
+    public String getUsername() {
+        return this.username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public String getPrimaryGroup() {
+        return getPrimaryGroupName();
+    }
+
+    @Override
+    public DataMutateResult setPrimaryGroup(String group) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getPrimaryGroupName() {
+        return "default";
+    }
+
+    @Override
+    public PermissionHolder.Identifier getIdentifier() {
+        return new HolderIdentifier(PermissionHolder.Identifier.USER_TYPE, this.uniqueId.toString());
+    }
+
+    @Override
+    public String getFriendlyName() {
+        return this.username == null ? this.uniqueId.toString() : this.username;
+    }
+
+    @Override
+    protected void onDataChange() {
+        super.onDataChange();
+        this.luckPerms.events().post(UserDataRecalculateEvent.class, FakeEvents.userDataRecalculate(this.luckPerms, this));
+    }
+
+    @Override
+    public String toString() {
+        return "User(" + this.uniqueId + ")";
+    }
+}
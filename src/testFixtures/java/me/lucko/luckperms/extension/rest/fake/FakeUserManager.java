@@ -0,0 +1,219 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.extension.rest.fake;
+
+import net.luckperms.api.model.PlayerSaveResult;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.node.HeldNode;
+import net.luckperms.api.node.Node;
+import net.luckperms.api.node.matcher.NodeMatcher;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * An in-memory {@link UserManager}.
+ *
+ * <p>Every known user is kept in "storage", but only users marked as online are
+ * returned by {@link #getUser(UUID)}, like in LuckPerms.</p>
+ */
+public final class FakeUserManager implements UserManager {
+    private final FakeLuckPerms luckPerms;
+    private final Map<UUID, FakeUser> users = new ConcurrentHashMap<>();
+    private final Set<UUID> online = ConcurrentHashMap.newKeySet();
+
+    public FakeUserManager(FakeLuckPerms luckPerms) {
+        this.luckPerms = luckPerms;
+    }
+
+    // fixture methods
+
+    public FakeUser createUser(UUID uniqueId, String username) {
+        return this.users.computeIfAbsent(uniqueId, id -> new FakeUser(this.luckPerms, id, username));
+    }
+
+    public FakeUser getFake(UUID uniqueId) {
+        return this.users.get(uniqueId);
+    }
+
+    public void setOnline(UUID uniqueId, boolean online) {
+        if (online) {
+            this.online.add(uniqueId);
+        } else {
+            this.online.remove(uniqueId);
+        }
+    }
+
+    private <T> CompletableFuture<T> storage(Supplier<T> supplier) {
+        return this.luckPerms.storage().call(supplier);
+    }
+
+    // UserManager
+
+    @Override
+    public CompletableFuture<User> loadUser(UUID uniqueId) {
+        return storage(() -> createUser(uniqueId, null));
+    }
+
+    @Override
+    public CompletableFuture<User> loadUser(UUID uniqueId, String username) {
+        return storage(() -> createUser(uniqueId, username));
+    }
+
+    @Override
+    public CompletableFuture<UUID> lookupUniqueId(String username) {
+        return storage(() -> this.users.values().stream()
+                .filter(user -> username.equalsIgnoreCase(user.getUsername()))
+                .map(FakeUser::getUniqueId)
+                .findFirst()
+                .orElse(null));
+    }
+
+    @Override
+    public CompletableFuture<String> lookupUsername(UUID uniqueId) {
+        return storage(() -> {
+            FakeUser user = this.users.get(uniqueId);
+            return user == null ? null : user.getUsername();
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> saveUser(User user) {
+        return storage(() -> null);
+    }
+
+    @Override
+    public CompletableFuture<Void> modifyUser(UUID uniqueId, Consumer<? super User> action) {
+        return loadUser(uniqueId).thenCompose(user -> {
+            action.accept(user);
+            return saveUser(user);
+        });
+    }
+
+    @Override
+    public CompletableFuture<PlayerSaveResult> savePlayerData(UUID uniqueId, String username) {
+        return storage(() -> {
+            Set<PlayerSaveResult.Outcome> outcomes = EnumSet.noneOf(PlayerSaveResult.Outcome.class);
+            String previousUsername = null;
+
+            FakeUser user = this.users.get(uniqueId);
+            if (user == null) {
+                createUser(uniqueId, username);
+                outcomes.add(PlayerSaveResult.Outcome.CLEAN_INSERT);
+            } else if (!username.equalsIgnoreCase(user.getUsername())) {
+                previousUsername = user.getUsername();
+                user.setUsername(username);
+                outcomes.add(PlayerSaveResult.Outcome.USERNAME_UPDATED);
+            } else {
+                outcomes.add(PlayerSaveResult.Outcome.NO_CHANGE);
+            }
+
+            return new SaveResult(outcomes, previousUsername, Set.of());
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> deletePlayerData(UUID uniqueId) {
+        return storage(() -> {
+            this.users.remove(uniqueId);
+            this.online.remove(uniqueId);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Set<UUID>> getUniqueUsers() {
+        return storage(() -> Set.copyOf(this.users.keySet()));
+    }
+
+    @Override
+    public <T extends Node> CompletableFuture<Map<UUID, Collection<T>>> searchAll(NodeMatcher<? extends T> matcher) {
+        return storage(() -> {
+            Map<UUID, Collection<T>> results = new HashMap<>();
+            for (FakeUser user : this.users.values()) {
+                Collection<T> matches = FakeNodeMatcher.filter(matcher, user.getNodes());
+                if (!matches.isEmpty()) {
+                    results.put(user.getUniqueId(), matches);
+                }
+            }
+            return results;
+        });
+    }
+
+    @Override
+    @Deprecated
+    public CompletableFuture<List<HeldNode<UUID>>> getWithPermission(String permission) {
+        throw new UnsupportedOperationException("Use searchAll instead");
+    }
+
+    @Override
+    public User getUser(UUID uniqueId) {
+        return online(Optional.ofNullable(this.users.get(uniqueId)));
+    }
+
+    @Override
+    public User getUser(String username) {
+        return online(this.users.values().stream()
+                .filter(u -> username.equalsIgnoreCase(u.getUsername()))
+                .findFirst());
+    }
+
+    private User online(Optional<FakeUser> user) {
+        return user.filter(u -> this.online.contains(u.getUniqueId())).orElse(null);
+    }
+
+    @Override
+    public Set<User> getLoadedUsers() {
+        return this.online.stream()
+                .map(this.users::get)
+                .filter(user -> user != null)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public boolean isLoaded(UUID uniqueId) {
+        return this.online.contains(uniqueId);
+    }
+
+    @Override
+    public void cleanupUser(User user) {
+        // users are never unloaded
+    }
+
+    private record SaveResult(Set<PlayerSaveResult.Outcome> getOutcomes, String getPreviousUsername, Set<UUID> getOtherUniqueIds) implements PlayerSaveResult { }
+}